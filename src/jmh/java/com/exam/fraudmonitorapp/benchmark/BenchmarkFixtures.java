@@ -0,0 +1,89 @@
+package com.exam.fraudmonitorapp.benchmark;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.model.enums.ChannelEnum;
+import com.exam.fraudmonitorapp.model.enums.CurrencyEnum;
+import com.exam.fraudmonitorapp.repo.TransactionHistoryRepo;
+import com.exam.fraudmonitorapp.service.blacklist.MerchantBlacklist;
+import com.exam.fraudmonitorapp.service.rules.AmountThresholdRule;
+import com.exam.fraudmonitorapp.service.rules.BlacklistedMerchantRule;
+import com.exam.fraudmonitorapp.service.rules.FraudRule;
+import com.exam.fraudmonitorapp.service.rules.GeoMismatchRule;
+import com.exam.fraudmonitorapp.service.rules.NewDeviceHighAmountRule;
+import com.exam.fraudmonitorapp.service.rules.OddHoursRule;
+import com.exam.fraudmonitorapp.service.rules.VelocityRule;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Shared inputs for the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    static final LocalDateTime NOON = LocalDateTime.of(2025, 1, 9, 12, 30, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Transaction shaped to trip exactly one rule (or none for {@link Scenario#CLEAN}).
+     */
+    static TransactionEventDto transaction(Scenario scenario, String accountId) {
+        TransactionEventDto d = new TransactionEventDto();
+        d.setAccountId(accountId);
+        d.setAmount(new BigDecimal("150.00"));
+        d.setCurrency(CurrencyEnum.ZAR);
+        d.setCategory(CategoryEnum.PURCHASE);
+        d.setChannel(ChannelEnum.WEB);
+        d.setMerchant("OK MART");
+        d.setCountryCode("ZA");
+        d.setDeviceId("device-1");
+        d.setUserEmail("user@example.com");
+        d.setEventTime(NOON);
+        switch (scenario) {
+            case AMOUNT_THRESHOLD -> {
+                d.setAmount(new BigDecimal("12000"));
+                d.setDeviceId("device-1");
+            }
+            case GEO_MISMATCH -> {
+                d.setAmount(new BigDecimal("3500"));
+                d.setCountryCode("US");
+            }
+            case BLACKLIST -> d.setMerchant("Scam Mart");
+            case ODD_HOURS -> {
+                d.setAmount(new BigDecimal("2500"));
+                d.setEventTime(NOON.withHour(2));
+            }
+            case NEW_DEVICE -> {
+                d.setAmount(new BigDecimal("6000"));
+                d.setDeviceId("device-unknown");
+            }
+            case VELOCITY, CLEAN -> {
+            }
+        }
+        return d;
+    }
+
+    /**
+     * The rule beans the application registers, in @Order order.
+     */
+    static List<FraudRule> rules() {
+        return List.of(new AmountThresholdRule(), new VelocityRule(), new GeoMismatchRule(),
+                new BlacklistedMerchantRule(new MerchantBlacklist("")), new OddHoursRule(), new NewDeviceHighAmountRule());
+    }
+
+    /**
+     * Repository stand-in: every account has {@code recentEvents} transactions in the last minute on device-1.
+     * Only reached on cache misses, so it does not dominate steady-state measurements.
+     */
+    static TransactionHistoryRepo historyRepo(int recentEvents) {
+        return new FixedHistoryRepo(recentEvents);
+    }
+
+    public enum Scenario {
+        CLEAN, AMOUNT_THRESHOLD, VELOCITY, GEO_MISMATCH, BLACKLIST, ODD_HOURS, NEW_DEVICE
+    }
+}
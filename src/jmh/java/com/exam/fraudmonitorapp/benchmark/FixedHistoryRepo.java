@@ -0,0 +1,45 @@
+package com.exam.fraudmonitorapp.benchmark;
+
+import com.exam.fraudmonitorapp.repo.TransactionHistoryRepo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory history for the rule engine benchmarks. Every account has {@code recentEvents} transactions in the
+ * last minute before {@link BenchmarkFixtures#NOON}, all on device-1: that is what the velocity index and the
+ * device cache load on a miss.
+ */
+class FixedHistoryRepo implements TransactionHistoryRepo {
+
+    private static final String KNOWN_DEVICE = "device-1";
+
+    private final List<LocalDateTime> eventTimes;
+
+    FixedHistoryRepo(int recentEvents) {
+        this.eventTimes = IntStream.range(0, recentEvents)
+                .mapToObj(i -> BenchmarkFixtures.NOON.minusSeconds(5L * (i + 1)))
+                .toList();
+    }
+
+    @Override
+    public long countByAccountIdAndEventTimeBetween(String accountId, LocalDateTime start, LocalDateTime end) {
+        return eventTimes.stream().filter(t -> !t.isBefore(start) && !t.isAfter(end)).count();
+    }
+
+    @Override
+    public List<LocalDateTime> findEventTimesByAccountIdSince(String accountId, LocalDateTime since) {
+        return eventTimes.stream().filter(t -> !t.isBefore(since)).toList();
+    }
+
+    @Override
+    public List<String> findDistinctDeviceIdsByAccountId(String accountId) {
+        return List.of(KNOWN_DEVICE);
+    }
+
+    @Override
+    public boolean existsByAccountIdAndDeviceId(String accountId, String deviceId) {
+        return KNOWN_DEVICE.equals(deviceId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.exam.fraudmonitorapp.benchmark;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.FraudRuleEngine;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.rules.FraudRule;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FraudRuleEngine.evaluate for transactions that each trip one rule, so a regression in a single rule shows up
+ * in its own row. "cached" goes through the in-memory velocity index and device cache (warm), "history" uses a
+ * constant AccountHistory and measures the rule logic alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FraudRuleEngineBenchmark {
+
+    @Param({"CLEAN", "AMOUNT_THRESHOLD", "VELOCITY", "GEO_MISMATCH", "BLACKLIST", "ODD_HOURS", "NEW_DEVICE"})
+    public BenchmarkFixtures.Scenario scenario;
+
+    private FraudRuleEngine engine;
+    private AccountHistory history;
+    private TransactionView tx;
+
+    @Setup
+    public void setUp() {
+        // Velocity trips at 5 recent transactions; other scenarios stay just below it
+        int recent = scenario == BenchmarkFixtures.Scenario.VELOCITY ? 5 : 2;
+        var repo = BenchmarkFixtures.historyRepo(recent);
+        engine = new FraudRuleEngine(BenchmarkFixtures.rules(),
+                new VelocityIndex(repo, new UnflushedTransactions(), List.of(Duration.ofHours(1), Duration.ofHours(24)), Duration.ofHours(1)),
+                new KnownDeviceCache(repo, new UnflushedTransactions(), 32, 8192, Duration.ofHours(1)),
+                new FraudMetrics(new SimpleMeterRegistry()),
+                0, FraudRule.COST_HISTORY, 0, false, Duration.ZERO);
+        tx = TransactionView.of(BenchmarkFixtures.transaction(scenario, "ACC-BENCH"));
+        history = new AccountHistory() {
+            @Override
+            public long countInWindow(String accountId, Duration window, LocalDateTime at) {
+                return recent;
+            }
+
+            @Override
+            public boolean isKnownDevice(String accountId, String deviceId) {
+                return "device-1".equals(deviceId);
+            }
+        };
+        engine.evaluate(tx); // warm the caches so the loop measures the steady state
+    }
+
+    @Benchmark
+    public List<String> cached() {
+        return engine.evaluate(tx);
+    }
+
+    @Benchmark
+    public List<String> history() {
+        return engine.evaluate(tx, history);
+    }
+}
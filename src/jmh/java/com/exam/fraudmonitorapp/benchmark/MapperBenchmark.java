@@ -0,0 +1,58 @@
+package com.exam.fraudmonitorapp.benchmark;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct TransactionEventMapper conversions used on every request, including the DTO -> entity -> DTO
+ * round-trip that process() performs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class MapperBenchmark {
+
+    private final TransactionEventMapper mapper = Mappers.getMapper(TransactionEventMapper.class);
+
+    private TransactionEventDto dto;
+    private TransactionEventEntity entity;
+
+    @Setup
+    public void setUp() {
+        dto = BenchmarkFixtures.transaction(BenchmarkFixtures.Scenario.CLEAN, "ACC-BENCH");
+        entity = mapper.fromDto(dto);
+        entity.setId(42L);
+    }
+
+    @Benchmark
+    public TransactionEventEntity fromDto() {
+        return mapper.fromDto(dto);
+    }
+
+    @Benchmark
+    public TransactionEventDto toDto() {
+        return mapper.toDto(entity);
+    }
+
+    @Benchmark
+    public TransactionEventDto roundTrip() {
+        return mapper.toDto(mapper.fromDto(dto));
+    }
+}
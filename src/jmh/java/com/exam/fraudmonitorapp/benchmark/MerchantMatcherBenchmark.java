@@ -0,0 +1,66 @@
+package com.exam.fraudmonitorapp.benchmark;
+
+import com.exam.fraudmonitorapp.service.blacklist.MerchantMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merchant blacklist lookups against a production-sized list. Run with -prof gc to confirm lookups do not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class MerchantMatcherBenchmark {
+
+    @Param({"200000"})
+    public int names;
+
+    @Param({"5000"})
+    public int patterns;
+
+    private MerchantMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        List<String> exact = new ArrayList<>(names);
+        for (int i = 0; i < names; i++) {
+            exact.add("Merchant " + Integer.toString(i * 7919, 36) + " Ltd");
+        }
+        List<String> fragments = new ArrayList<>(patterns);
+        for (int i = 0; i < patterns; i++) {
+            fragments.add("scam" + Integer.toString(i * 104729, 36));
+        }
+        matcher = MerchantMatcher.of(exact, fragments);
+    }
+
+    @Benchmark
+    public boolean cleanMerchant() {
+        return matcher.matches("Corner Cafe & Bakery (Pty) Ltd");
+    }
+
+    @Benchmark
+    public boolean exactHit() {
+        return matcher.matches("merchant-4pqc8 ltd"); // entry 1000
+    }
+
+    @Benchmark
+    public boolean substringHit() {
+        return matcher.matches("Best SCAM6QFF Deals"); // pattern 3
+    }
+}
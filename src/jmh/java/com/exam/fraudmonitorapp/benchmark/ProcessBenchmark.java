@@ -0,0 +1,86 @@
+package com.exam.fraudmonitorapp.benchmark;
+
+import com.exam.fraudmonitorapp.FraudMonitorAppApplication;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.service.FraudDetectionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end FraudDetectionService.process() against an in-memory H2 database: mapping, rules, persistence and the
+ * outbox write. Accounts rotate so the velocity window does not saturate; "fraudPercent" controls how often the
+ * alert path is taken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProcessBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+
+    @Param({"0", "10"})
+    public int fraudPercent;
+
+    private ConfigurableApplicationContext context;
+    private FraudDetectionService service;
+    private TransactionEventDto[] clean;
+    private TransactionEventDto[] fraudulent;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        SpringApplication app = new SpringApplication(FraudMonitorAppApplication.class);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        context = app.run(
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.docker.compose.enabled=false",
+                "--app.notifications.relay.interval=1h",
+                "--logging.level.root=WARN");
+        service = context.getBean(FraudDetectionService.class);
+
+        clean = new TransactionEventDto[ACCOUNTS];
+        fraudulent = new TransactionEventDto[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            clean[i] = BenchmarkFixtures.transaction(BenchmarkFixtures.Scenario.CLEAN, "ACC-" + i);
+            fraudulent[i] = BenchmarkFixtures.transaction(BenchmarkFixtures.Scenario.BLACKLIST, "ACC-" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionEventDto process() {
+        long n = sequence++;
+        int account = (int) (n % ACCOUNTS);
+        boolean fraud = (n % 100) < fraudPercent;
+        TransactionEventDto tx = fraud ? fraudulent[account] : clean[account];
+        // Advance event time per lap so each account sees at most one transaction per window bucket
+        tx.setEventTime(BenchmarkFixtures.NOON.plusMinutes(n / ACCOUNTS));
+        tx.setId(null);
+        return service.process(tx);
+    }
+}
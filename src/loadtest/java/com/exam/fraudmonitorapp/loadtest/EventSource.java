@@ -0,0 +1,17 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+
+/**
+ * Events fed to the target, one per scheduled arrival. Only called from the scheduling thread.
+ */
+interface EventSource {
+
+    /**
+     * A fresh event for arrival number {@code n} (0-based); the caller may hand it to another thread.
+     */
+    TransactionEventDto next(long n);
+
+    /** Human readable description for the report header. */
+    String describe();
+}
@@ -0,0 +1,56 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import tools.jackson.databind.ObjectWriter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * POST /api/transactions on a running instance. The reply body is discarded; only the status is kept.
+ */
+class HttpLoadTarget implements LoadTarget {
+
+    private final URI endpoint;
+    private final ObjectWriter writer;
+    private final Duration timeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+
+    HttpLoadTarget(String baseUrl, ObjectWriter writer, Duration timeout) {
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/api/transactions");
+        this.writer = writer;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public int send(TransactionEventDto event) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writer.writeValueAsBytes(event)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Override
+    public String describe() {
+        return "POST " + endpoint;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        executor.close();
+    }
+}
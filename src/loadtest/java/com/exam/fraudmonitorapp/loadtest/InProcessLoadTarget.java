@@ -0,0 +1,79 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.FraudMonitorAppApplication;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.service.FraudDetectionService;
+import com.exam.fraudmonitorapp.service.admission.AdmissionControl;
+import com.exam.fraudmonitorapp.service.lanes.AccountLanes;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Calls FraudDetectionService.process() the way POST /api/transactions does (admission control, then the account
+ * lanes), in an application context started without the web server. Measures the service without HTTP and JSON;
+ * request validation (@Valid on the controller) is not applied.
+ * Exceptions are translated to the status they declare (@ResponseStatus or ErrorResponse), anything else counts
+ * as 500.
+ */
+class InProcessLoadTarget implements LoadTarget {
+
+    private final ConfigurableApplicationContext context;
+    private final FraudDetectionService service;
+    private final AccountLanes lanes;
+    private final AdmissionControl admission;
+
+    InProcessLoadTarget(List<String> contextArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.docker.compose.enabled=false",
+                "--app.notifications.relay.interval=1h",
+                "--logging.level.root=WARN"));
+        args.addAll(contextArgs); // later arguments win
+        SpringApplication app = new SpringApplication(FraudMonitorAppApplication.class);
+        app.setWebApplicationType(WebApplicationType.NONE);
+        this.context = app.run(args.toArray(String[]::new));
+        this.service = context.getBean(FraudDetectionService.class);
+        this.lanes = context.getBean(AccountLanes.class);
+        this.admission = context.getBean(AdmissionControl.class);
+    }
+
+    @Override
+    public int send(TransactionEventDto event) {
+        try {
+            admission.call(event, () -> lanes.call(event.getAccountId(), () -> service.process(event)));
+            return 200;
+        } catch (RuntimeException ex) {
+            if (ex instanceof ErrorResponse error) return error.getStatusCode().value();
+            ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+            return status == null ? 500 : status.code().value();
+        }
+    }
+
+    /**
+     * Platform threads, like the servlet container's pool: the JDBC driver blocks inside synchronized blocks,
+     * which pins virtual threads to their carriers and would show up as scheduling delay in the results.
+     */
+    @Override
+    public ExecutorService newRequestExecutor() {
+        return Executors.newCachedThreadPool();
+    }
+
+    @Override
+    public String describe() {
+        return "in-process FraudDetectionService.process()";
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for POST /api/transactions (or FraudDetectionService in-process).
+ * - Arrivals follow a fixed schedule at --rate per second, independent of how fast replies come back; each
+ *   request runs on its own thread (virtual for http).
+ * - Latency is measured from the scheduled start, so a stall delays and penalises every arrival behind it instead
+ *   of silently thinning the load (coordinated omission).
+ * - Events are replayed from an NDJSON file (--events) or generated (--accounts, --fraud-percent).
+ *
+ * Run: ./mvnw -Ploadtest -DskipTests verify -Dload.args="--rate=500 --duration=60s"
+ * See {@link LoadOptions} for every option.
+ */
+public final class LoadGenerator {
+
+    private final LoadOptions options;
+    private final EventSource source;
+    private final LoadTarget target;
+
+    LoadGenerator(LoadOptions options, EventSource source, LoadTarget target) {
+        this.options = options;
+        this.source = source;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        JsonMapper jsonMapper = JsonMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES) // same as the application
+                .build();
+
+        EventSource source = options.events() == null
+                ? new SyntheticEventSource(options.accounts(), options.fraudPercent(), options.seed())
+                : new ReplayEventSource(options.events(), jsonMapper.readerFor(TransactionEventDto.class));
+
+        try (LoadTarget target = LoadOptions.IN_PROCESS.equals(options.mode())
+                ? new InProcessLoadTarget(options.contextArgs())
+                : new HttpLoadTarget(options.url(), jsonMapper.writer(), options.timeout())) {
+            new LoadGenerator(options, source, target).run();
+        }
+    }
+
+    void run() throws Exception {
+        double nanosPerArrival = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        System.out.printf("Running %.1f/s for %s (+%s warmup) against %s%n",
+                options.rate(), options.duration(), options.warmup(), target.describe());
+
+        LoadReport report = new LoadReport();
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        try (ExecutorService requests = target.newRequestExecutor()) {
+            for (long n = 0; ; n++) {
+                // Computed from the start rather than accumulated, so rounding does not drift the rate
+                long intendedStart = start + (long) (n * nanosPerArrival);
+                if (intendedStart >= end) break;
+
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                TransactionEventDto event = source.next(n);
+                boolean measured = intendedStart >= measureFrom;
+
+                // A full in-flight window delays the send, never the schedule: the wait shows up as response time
+                inFlight.acquireUninterruptibly();
+                requests.execute(() -> {
+                    long sent = System.nanoTime();
+                    int status = 0;
+                    Throwable failure = null;
+                    try {
+                        status = target.send(event);
+                    } catch (Exception ex) {
+                        failure = ex;
+                    } finally {
+                        inFlight.release();
+                    }
+                    if (measured) {
+                        report.record(intendedStart, sent, System.nanoTime(), status, failure);
+                    }
+                });
+            }
+        } // close() waits for the outstanding requests
+
+        report.finish();
+        report.print(System.out, options, measureFrom, source.describe(), target.describe());
+        if (options.hgrm() != null) {
+            report.writeHgrm(options.hgrm());
+            System.out.println("Response time distribution written to " + options.hgrm());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadGenerator}; every option is "--name=value".
+ *
+ * @param mode         http (POST /api/transactions on a running instance) or in-process (FraudDetectionService
+ *                     in a context started by the generator)
+ * @param url          base URL for http mode
+ * @param rate         target arrivals per second; arrivals are scheduled at a fixed interval regardless of replies
+ * @param duration     measured period
+ * @param warmup       period before it whose replies are not recorded
+ * @param events       NDJSON file of TransactionEventDto lines to replay (looped); null = synthetic events
+ * @param accounts     distinct accounts of the synthetic events
+ * @param fraudPercent share of synthetic events that hit the blacklisted merchant rule
+ * @param maxInFlight  outstanding requests before the schedule blocks (latency keeps counting from the schedule)
+ * @param timeout      per-request timeout in http mode
+ * @param hgrm         optional file for the full percentile distribution of the response times
+ * @param seed         random seed of the synthetic events
+ * @param contextArgs  --spring.* and --app.* options, passed to the in-process application context
+ */
+public record LoadOptions(String mode,
+                          String url,
+                          double rate,
+                          Duration duration,
+                          Duration warmup,
+                          Path events,
+                          int accounts,
+                          int fraudPercent,
+                          int maxInFlight,
+                          Duration timeout,
+                          Path hgrm,
+                          long seed,
+                          List<String> contextArgs) {
+
+    static final String HTTP = "http";
+    static final String IN_PROCESS = "in-process";
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> contextArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            if (arg.startsWith("--spring.") || arg.startsWith("--app.")) {
+                contextArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                values.getOrDefault("mode", HTTP),
+                values.getOrDefault("url", "http://localhost:8080"),
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                values.containsKey("events") ? Path.of(values.get("events")) : null,
+                Integer.parseInt(values.getOrDefault("accounts", "1000")),
+                Integer.parseInt(values.getOrDefault("fraud-percent", "2")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                DurationStyle.detectAndParse(values.getOrDefault("timeout", "10s")),
+                values.containsKey("hgrm") ? Path.of(values.get("hgrm")) : null,
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                List.copyOf(contextArgs));
+
+        if (!HTTP.equals(options.mode) && !IN_PROCESS.equals(options.mode)) {
+            throw new IllegalArgumentException("--mode must be " + HTTP + " or " + IN_PROCESS);
+        }
+        if (options.rate <= 0 || options.accounts <= 0 || options.maxInFlight <= 0) {
+            throw new IllegalArgumentException("--rate, --accounts and --max-in-flight must be positive");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,92 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts of the measured requests.
+ * - Response time runs from the scheduled (intended) start, so time spent waiting behind a slow request is counted:
+ *   the coordinated-omission-corrected figure.
+ * - Service time runs from the actual send; the gap between the two shows how far the schedule fell behind.
+ * Recording is wait-free (HdrHistogram Recorder) and safe from the request threads.
+ */
+class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Recorder responseTimes = new Recorder(3);
+    private final Recorder serviceTimes = new Recorder(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    private Histogram response;
+    private Histogram service;
+
+    void record(long intendedStart, long sent, long completed, int status, Throwable failure) {
+        responseTimes.recordValue(completed - intendedStart);
+        serviceTimes.recordValue(completed - sent);
+        lastCompletion.accumulateAndGet(completed, Math::max);
+        if (failure != null) {
+            failures.computeIfAbsent(failure.getClass().getSimpleName(), k -> new LongAdder()).increment();
+        } else {
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+    }
+
+    /** Freezes the histograms; call once every request has completed. */
+    void finish() {
+        response = responseTimes.getIntervalHistogram();
+        service = serviceTimes.getIntervalHistogram();
+    }
+
+    void print(PrintStream out, LoadOptions options, long measureFrom, String source, String target) {
+        long requests = response.getTotalCount();
+        double seconds = Math.max(lastCompletion.get() - measureFrom, 1) / 1e9;
+        long ok = statuses.entrySet().stream()
+                .filter(e -> e.getKey() >= 200 && e.getKey() < 300)
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+
+        out.println();
+        out.println("Source : " + source);
+        out.println("Target : " + target);
+        out.printf("Rate   : %.1f/s scheduled, %.1f/s completed over %.1fs (after %s warmup)%n",
+                options.rate(), requests / seconds, seconds, options.warmup().isZero() ? "no" : options.warmup());
+        out.printf("Errors : %d of %d (%.3f%%)%n", requests - ok, requests,
+                requests == 0 ? 0.0 : 100.0 * (requests - ok) / requests);
+        new TreeMap<>(statuses).forEach((status, count) -> out.printf("  HTTP %d: %d%n", status, count.sum()));
+        new TreeMap<>(failures).forEach((type, count) -> out.printf("  %s: %d%n", type, count.sum()));
+        out.println();
+        out.printf("%-10s %14s %14s%n", "ms", "response time", "service time");
+        for (double p : PERCENTILES) {
+            out.printf("%-10s %14.3f %14.3f%n", "p" + (p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p)),
+                    millis(response.getValueAtPercentile(p)), millis(service.getValueAtPercentile(p)));
+        }
+        out.printf("%-10s %14.3f %14.3f%n", "max", millis(response.getMaxValue()), millis(service.getMaxValue()));
+        out.printf("%-10s %14.3f %14.3f%n", "mean", response.getMean() / NANOS_PER_MILLI,
+                service.getMean() / NANOS_PER_MILLI);
+    }
+
+    /** Full response time distribution in the .hgrm text format (plot with HdrHistogram's plotter). */
+    void writeHgrm(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            response.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
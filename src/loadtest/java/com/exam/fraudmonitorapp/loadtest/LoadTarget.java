@@ -0,0 +1,30 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Where the generated events go. Called concurrently, one thread per outstanding request.
+ */
+interface LoadTarget extends AutoCloseable {
+
+    /**
+     * Deliver one event and wait for the reply.
+     *
+     * @return HTTP status of the reply (or the status the controller would have answered with)
+     * @throws Exception when no reply was received (connection failure, timeout); counted as an error
+     */
+    int send(TransactionEventDto event) throws Exception;
+
+    String describe();
+
+    /** Threads the requests run on; virtual by default. */
+    default ExecutorService newRequestExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    void close();
+}
@@ -0,0 +1,59 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replays an NDJSON file of TransactionEventDto lines (the format of POST /api/transactions/stream), looping
+ * when it runs out.
+ * - Event times are replaced by the dispatch time, so the velocity windows see the density of --rate rather than
+ *   whatever rate the file was recorded at (or a pile-up of old timestamps).
+ * - Upstream transaction ids are offset per lap; otherwise every lap after the first would be answered as a
+ *   duplicate.
+ */
+class ReplayEventSource implements EventSource {
+
+    private static final long LAP_ID_OFFSET = 1L << 40;
+
+    private final Path file;
+    private final ObjectReader reader;
+    private final List<String> lines;
+
+    ReplayEventSource(Path file, ObjectReader reader) throws IOException {
+        this.file = file;
+        this.reader = reader;
+        this.lines = Files.readAllLines(file).stream().filter(l -> !l.isBlank()).toList();
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("No events in " + file);
+        }
+        lines.forEach(this::parse); // fail before the run starts, not halfway through it
+    }
+
+    @Override
+    public TransactionEventDto next(long n) {
+        long lap = n / lines.size();
+        TransactionEventDto d = parse(lines.get((int) (n % lines.size())));
+        d.setEventTime(LocalDateTime.now());
+        if (d.getTransactionId() != null) {
+            d.setTransactionId(d.getTransactionId() + lap * LAP_ID_OFFSET);
+        }
+        d.setId(null);
+        return d;
+    }
+
+    @Override
+    public String describe() {
+        return "replay of " + file + " (" + lines.size() + " events per lap)";
+    }
+
+    private TransactionEventDto parse(String line) {
+        return Objects.requireNonNull(reader.readValue(line), "null event line");
+    }
+}
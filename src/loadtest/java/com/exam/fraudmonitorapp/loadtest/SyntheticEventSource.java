@@ -0,0 +1,55 @@
+package com.exam.fraudmonitorapp.loadtest;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.model.enums.ChannelEnum;
+import com.exam.fraudmonitorapp.model.enums.CurrencyEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Random but reproducible (seeded) events following the TransactionEventDto schema.
+ * - Accounts are picked uniformly, each with its own usual device; amounts stay below every rule threshold.
+ * - fraudPercent of the events use a blacklisted merchant, so the alert and outbox path is exercised.
+ * - Upstream transaction ids are unique per run, so idempotency lookups miss as they would for new traffic.
+ */
+class SyntheticEventSource implements EventSource {
+
+    private static final CategoryEnum[] CATEGORIES = {CategoryEnum.PURCHASE, CategoryEnum.ONLINE, CategoryEnum.BILL_PAYMENT};
+
+    private final SplittableRandom random;
+    private final int accounts;
+    private final int fraudPercent;
+    private final long idBase = System.currentTimeMillis() * 1_000;
+
+    SyntheticEventSource(int accounts, int fraudPercent, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.accounts = accounts;
+        this.fraudPercent = fraudPercent;
+    }
+
+    @Override
+    public TransactionEventDto next(long n) {
+        int account = random.nextInt(accounts);
+        TransactionEventDto d = new TransactionEventDto();
+        d.setTransactionId(idBase + n);
+        d.setAccountId("LOAD-" + account);
+        d.setAmount(BigDecimal.valueOf(random.nextInt(100, 150_000), 2)); // 1.00 .. 1499.99
+        d.setCurrency(CurrencyEnum.ZAR);
+        d.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        d.setChannel(ChannelEnum.WEB);
+        d.setMerchant(random.nextInt(100) < fraudPercent ? "Scam Mart" : "Merchant " + random.nextInt(500));
+        d.setCountryCode("ZA");
+        d.setDeviceId("device-" + account);
+        d.setUserEmail("load-" + account + "@example.com");
+        d.setEventTime(LocalDateTime.now());
+        return d;
+    }
+
+    @Override
+    public String describe() {
+        return "synthetic events, " + accounts + " accounts, " + fraudPercent + "% blacklisted merchant";
+    }
+}
@@ -2,21 +2,18 @@ package com.exam.fraudmonitorapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(MailProperties.class) // the mail auto-configuration backs off for PooledMailSender
 public class FraudMonitorAppApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(FraudMonitorAppApplication.class, args);
 	}
-
-    @Bean
-    public JavaMailSender mailSender(){
-        return new JavaMailSenderImpl();
-    }
 }
@@ -0,0 +1,29 @@
+package com.exam.fraudmonitorapp.controller;
+
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountProfileController {
+
+    private final AccountProfileStore profiles;
+
+    public AccountProfileController(AccountProfileStore profiles) {
+        this.profiles = profiles;
+    }
+
+    /**
+     * Behavioral profile the anomaly rule scores against; 404 when the account has not been seen since startup.
+     */
+    @GetMapping("/{accountId}/profile")
+    public ResponseEntity<?> profile(@PathVariable String accountId) {
+        return profiles.snapshot(accountId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,7 +1,11 @@
 package com.exam.fraudmonitorapp.controller;
 
+import com.exam.fraudmonitorapp.model.dto.CursorPageDto;
 import com.exam.fraudmonitorapp.model.dto.FraudAlertDto;
 import com.exam.fraudmonitorapp.service.FraudDetectionService;
+import com.exam.fraudmonitorapp.service.FraudQueryService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -17,14 +22,33 @@ import java.util.List;
 public class FraudAlertController {
 
     private final FraudDetectionService fraudService;
+    private final FraudQueryService queryService;
 
-    public FraudAlertController( FraudDetectionService fraudService) {
+    public FraudAlertController( FraudDetectionService fraudService, FraudQueryService queryService) {
         this.fraudService = fraudService;
+        this.queryService = queryService;
     }
 
     @GetMapping
-    public List<FraudAlertDto> alertList(@RequestParam(defaultValue = "OPEN") String status) {
-        return fraudService.alertList(status);
+    public List<FraudAlertDto> alertList(@RequestParam(defaultValue = "OPEN") String status,
+                                         @RequestParam(required = false) String accountId) {
+        return fraudService.alertList(status, accountId);
+    }
+
+    @GetMapping("/page")
+    public CursorPageDto<FraudAlertDto> pageAlerts(@RequestParam(defaultValue = "OPEN") String status,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit) {
+        return queryService.pageAlerts(status, cursor, limit);
+    }
+
+    /**
+     * All alerts with the status as one JSON array, streamed from a database cursor.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void exportAlerts(@RequestParam(defaultValue = "OPEN") String status, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        queryService.exportAlerts(status, response.getOutputStream());
     }
 
     @PostMapping("/{id}/close")
@@ -1,11 +1,20 @@
 package com.exam.fraudmonitorapp.controller;
 
 
+import com.exam.fraudmonitorapp.model.dto.CursorPageDto;
+import com.exam.fraudmonitorapp.model.dto.TransactionBatchItemDto;
 import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.service.FraudBatchService;
 import com.exam.fraudmonitorapp.service.FraudDetectionService;
+import com.exam.fraudmonitorapp.service.FraudQueryService;
+import com.exam.fraudmonitorapp.service.FraudStreamService;
+import com.exam.fraudmonitorapp.service.admission.AdmissionControl;
+import com.exam.fraudmonitorapp.service.lanes.AccountLanes;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +25,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Validated
@@ -25,19 +36,76 @@ import java.util.List;
 public class TransactionMonitorController {
 
     private final FraudDetectionService fraudService;
+    private final FraudBatchService batchService;
+    private final FraudStreamService streamService;
+    private final FraudQueryService queryService;
+    private final AccountLanes lanes;
+    private final AdmissionControl admission;
 
-    public TransactionMonitorController(FraudDetectionService fraudService) {
+    public TransactionMonitorController(FraudDetectionService fraudService,
+                                        FraudBatchService batchService,
+                                        FraudStreamService streamService,
+                                        FraudQueryService queryService,
+                                        AccountLanes lanes,
+                                        AdmissionControl admission) {
         this.fraudService = fraudService;
+        this.batchService = batchService;
+        this.streamService = streamService;
+        this.queryService = queryService;
+        this.lanes = lanes;
+        this.admission = admission;
     }
 
     @PostMapping
     public ResponseEntity<?> consume(@Valid @RequestBody TransactionEventDto request) {
 
-        log.info("Incoming transaction, {}", request);
-        TransactionEventDto saved = fraudService.process(request);
+        log.debug("Incoming transaction {} of account {}", request.getTransactionId(), request.getAccountId());
+        TransactionEventDto saved = admission.call(request,
+                () -> lanes.call(request.getAccountId(), () -> fraudService.process(request)));
         return ResponseEntity.ok(saved);
     }
 
+    /**
+     * Bypasses AccountLanes and AdmissionControl: the batch is one database transaction over many accounts, bounded
+     * by app.batch.max-size.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> consumeBatch(@RequestBody List<TransactionEventDto> requests) {
+
+        log.info("Incoming transaction batch, {} events", requests.size());
+        List<TransactionBatchItemDto> results = batchService.processBatch(requests);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * NDJSON in, NDJSON out: one event per line, one result per line in the same order, streamed as they complete.
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void consumeStream(InputStream body, HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        int lines = streamService.processStream(body, response.getOutputStream());
+        log.info("Transaction stream finished, {} lines", lines);
+    }
+
+    @GetMapping("/page")
+    public CursorPageDto<TransactionEventDto> pageByAccount(@RequestParam @NotBlank String accountId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limit) {
+        return queryService.pageByAccount(accountId, cursor, limit);
+    }
+
+    /**
+     * All transactions of the account as one JSON array, streamed from a database cursor.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void exportByAccount(@RequestParam @NotBlank String accountId, HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        long rows = queryService.exportByAccount(accountId, response.getOutputStream());
+        log.info("Exported {} transactions for account {}", rows, accountId);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getTransaction(@PathVariable Long id) {
         return fraudService.getTransaction(id)
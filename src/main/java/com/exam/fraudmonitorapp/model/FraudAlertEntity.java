@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class FraudAlertEntity implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fraud_alerts_id")
+    @SequenceGenerator(name = "fraud_alerts_id", sequenceName = "fraud_alerts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,42 @@
+package com.exam.fraudmonitorapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class NotificationOutboxEntity implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_id")
+    @SequenceGenerator(name = "notification_outbox_id", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long transactionId;   // transactions.id of the fraudulent transaction
+    @Column(nullable = false)
+    private Long alertId;
+    @Column(nullable = false)
+    private String accountId;
+    @Column(nullable = false)
+    private String status;        // PENDING, SENT, DEAD
+    private int attempts;
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    @Column(length = 1000)
+    private String lastError;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+}
@@ -14,14 +14,20 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = {
+        // Upstream retries resend the same transactionId; null ids are not deduplicated
+        // (on PostgreSQL the partitioned table cannot hold it: the V3 transaction_keys table does, under this name)
+        @UniqueConstraint(name = "uk_transactions_account_transaction", columnNames = {"accountId", "transactionId"})
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode
 public class TransactionEventEntity implements Serializable {
+    // Pooled sequence: one round-trip reserves 50 ids, so inserts can be JDBC-batched (IDENTITY cannot)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_id")
+    @SequenceGenerator(name = "transactions_id", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     private Long transactionId;
     private String country;
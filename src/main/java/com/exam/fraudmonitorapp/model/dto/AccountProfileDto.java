@@ -0,0 +1,30 @@
+package com.exam.fraudmonitorapp.model.dto;
+
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountProfileDto {
+    private String accountId;
+    private long transactions;                      // since the profile was created (startup or first seen)
+    private Map<CategoryEnum, AmountStats> amounts; // exponentially weighted, per category seen
+    private int[] hourCounts;                       // index = hour of day; decayed counts
+    private List<String> usualCountries;
+    private long distinctMerchants;                 // estimate
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AmountStats {
+        private double mean;
+        private double stdDev;
+        private int samples;
+    }
+}
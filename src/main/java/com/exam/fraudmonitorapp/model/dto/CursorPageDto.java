@@ -0,0 +1,15 @@
+package com.exam.fraudmonitorapp.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items;
+    private String nextCursor; // pass back as ?cursor= for the next page; null on the last page
+}
@@ -0,0 +1,17 @@
+package com.exam.fraudmonitorapp.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionBatchItemDto {
+    private int index;                        // position in the submitted batch (line number for NDJSON)
+    private String status;                    // ACCEPTED, REJECTED, FAILED (stream only: processing error)
+    private TransactionEventDto transaction;  // persisted transaction when ACCEPTED
+    private List<String> errors;              // validation errors when REJECTED
+}
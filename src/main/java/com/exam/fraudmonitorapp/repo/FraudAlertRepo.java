@@ -1,12 +1,45 @@
 package com.exam.fraudmonitorapp.repo;
 
 import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface FraudAlertRepo extends JpaRepository<FraudAlertEntity, Long> {
 
     List<FraudAlertEntity> findByStatusOrderByCreatedAtDesc(String status);
 
+    List<FraudAlertEntity> findByStatusAndAccountIdOrderByCreatedAtDesc(String status, String accountId);
+
+    // Keyset pagination on (createdAt, id) descending
+    List<FraudAlertEntity> findByStatusOrderByCreatedAtDescIdDesc(String status, Limit limit);
+
+    @Query("select a from FraudAlertEntity a where a.status = :status " +
+            "and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) " +
+            "order by a.createdAt desc, a.id desc")
+    List<FraudAlertEntity> findByStatusBefore(@Param("status") String status,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Limit limit);
+
+    // Server-side cursor; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TransactionRepo.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<FraudAlertEntity> streamByStatusOrderByCreatedAtDescIdDesc(String status);
+
+    // Retention: oldest first, one chunk at a time
+    List<FraudAlertEntity> findByStatusAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(String status,
+                                                                                 LocalDateTime before,
+                                                                                 Limit limit);
+
 }
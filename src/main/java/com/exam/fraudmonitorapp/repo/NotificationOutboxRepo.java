@@ -0,0 +1,37 @@
+package com.exam.fraudmonitorapp.repo;
+
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationOutboxRepo extends JpaRepository<NotificationOutboxEntity, Long> {
+
+    // Due PENDING entries; first attempts only once created before settledBefore, so a burst can be coalesced
+    @Query("select o from NotificationOutboxEntity o where o.status = 'PENDING' and o.nextAttemptAt <= :now " +
+            "and (o.attempts > 0 or o.createdAt <= :settledBefore) order by o.id")
+    List<NotificationOutboxEntity> findDue(@Param("now") LocalDateTime now,
+                                           @Param("settledBefore") LocalDateTime settledBefore,
+                                           Pageable page);
+
+    // Not yet attempted entries of the given accounts, folded into the digest of a due entry
+    List<NotificationOutboxEntity> findByStatusAndAttemptsAndAccountIdInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            String status, int attempts, Collection<String> accountIds, LocalDateTime now, Pageable page);
+
+    // Lease a due entry by pushing its next attempt out; 0 means another relay got there first
+    @Modifying
+    @Transactional
+    @Query("update NotificationOutboxEntity o set o.nextAttemptAt = :leaseUntil " +
+            "where o.id = :id and o.status = 'PENDING' and o.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    long countByStatus(String status);
+
+}
@@ -0,0 +1,52 @@
+package com.exam.fraudmonitorapp.repo;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Bulk inserts for batch ingestion and write-behind flushes.
+ * Rows go through a Hibernate StatelessSession (no persistence context, no dirty checking) that shares the
+ * connection of the surrounding JPA transaction. Ids come from the pooled sequences, so the inserts are sent as
+ * JDBC batches and the ids are on the entities afterwards. Must be called inside a transaction.
+ */
+@Repository
+public class TransactionBatchWriter {
+
+    private final EntityManager entityManager;
+    private final int jdbcBatchSize;
+
+    public TransactionBatchWriter(EntityManager entityManager,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize) {
+        this.entityManager = entityManager;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    public void insertTransactions(List<TransactionEventEntity> rows) {
+        insert(rows);
+    }
+
+    public void insertAlerts(List<FraudAlertEntity> rows) {
+        insert(rows);
+    }
+
+    public void insertNotifications(List<NotificationOutboxEntity> rows) {
+        insert(rows);
+    }
+
+    private void insert(List<?> rows) {
+        if (rows.isEmpty()) return;
+        Session session = entityManager.unwrap(Session.class);
+        try (StatelessSession stateless = session.statelessWithOptions().connection().open()) {
+            stateless.setJdbcBatchSize(jdbcBatchSize);
+            stateless.insertMultiple(rows);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.exam.fraudmonitorapp.repo;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The per-account history queries behind VelocityIndex and KnownDeviceCache, implemented by TransactionRepo.
+ * Kept apart so the caches (and their benchmarks) depend on these four reads only.
+ */
+public interface TransactionHistoryRepo {
+
+    long countByAccountIdAndEventTimeBetween(String accountId, LocalDateTime start, LocalDateTime end);
+
+    // Event times only: used to warm the velocity index without loading full rows
+    @Query("select t.eventTime from TransactionEventEntity t where t.accountId = :accountId and t.eventTime >= :since")
+    List<LocalDateTime> findEventTimesByAccountIdSince(@Param("accountId") String accountId,
+                                                       @Param("since") LocalDateTime since);
+
+    @Query("select distinct t.deviceId from TransactionEventEntity t where t.accountId = :accountId and t.deviceId is not null")
+    List<String> findDistinctDeviceIdsByAccountId(@Param("accountId") String accountId);
+
+    boolean existsByAccountIdAndDeviceId(String accountId, String deviceId);
+}
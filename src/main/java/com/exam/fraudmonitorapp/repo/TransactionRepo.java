@@ -1,20 +1,72 @@
 package com.exam.fraudmonitorapp.repo;
 
 import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TransactionRepo extends JpaRepository<TransactionEventEntity, Long> {
+public interface TransactionRepo extends JpaRepository<TransactionEventEntity, Long>, TransactionHistoryRepo {
+
+    int STREAM_FETCH_SIZE = 500;
 
     List<TransactionEventEntity> findByAccountIdOrderByEventTimeDesc(String accountId);
 
+    // Idempotent ingestion: the stored row of an earlier submission with the same upstream id
+    Optional<TransactionEventEntity> findByAccountIdAndTransactionId(String accountId, Long transactionId);
+
+    List<TransactionEventEntity> findByTransactionIdIn(Collection<Long> transactionIds);
+
+    // Keyset pagination on (eventTime, id) descending; the id breaks ties between equal event times
+    List<TransactionEventEntity> findByAccountIdOrderByEventTimeDescIdDesc(String accountId, Limit limit);
+
+    @Query("select t from TransactionEventEntity t where t.accountId = :accountId " +
+            "and (t.eventTime < :eventTime or (t.eventTime = :eventTime and t.id < :id)) " +
+            "order by t.eventTime desc, t.id desc")
+    List<TransactionEventEntity> findByAccountIdBefore(@Param("accountId") String accountId,
+                                                       @Param("eventTime") LocalDateTime eventTime,
+                                                       @Param("id") Long id,
+                                                       Limit limit);
+
+    // Server-side cursor; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<TransactionEventEntity> streamByAccountIdOrderByEventTimeDescIdDesc(String accountId);
+
     List<TransactionEventEntity> findByAccountIdAndEventTimeBetween(@Param("accountId") String accountId,
                                                                     @Param("start") LocalDateTime start,
                                                                     @Param("end") LocalDateTime end);
 
-    List<String> findDistinctDeviceIdsByAccountId(@Param("accountId") String accountId);
+    // Batch prefetch: one round-trip for the event times / devices of many accounts, rows are [accountId, value]
+    @Query("select t.accountId, t.eventTime from TransactionEventEntity t " +
+            "where t.accountId in :accountIds and t.eventTime between :start and :end")
+    List<Object[]> findEventTimesByAccountIdIn(@Param("accountIds") Collection<String> accountIds,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end);
+
+    @Query("select distinct t.accountId, t.deviceId from TransactionEventEntity t " +
+            "where t.accountId in :accountIds and t.deviceId is not null")
+    List<Object[]> findDistinctDeviceIdsByAccountIdIn(@Param("accountIds") Collection<String> accountIds);
+
+    // Retention: archived oldest first, one chunk at a time through ix_transactions_event_time
+    @Query("select min(t.eventTime) from TransactionEventEntity t")
+    LocalDateTime findOldestEventTime();
+
+    @Query("select t from TransactionEventEntity t where t.eventTime >= :from and t.eventTime < :to " +
+            "order by t.eventTime, t.id")
+    List<TransactionEventEntity> findOldestInRange(@Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   Limit limit);
 
 }
@@ -0,0 +1,21 @@
+package com.exam.fraudmonitorapp.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Account history read by the stateful rules (velocity, new device).
+ * The default view is backed by the in-memory caches; batch ingestion supplies a prefetched view instead.
+ */
+public interface AccountHistory {
+
+    /**
+     * Number of the account's earlier transactions with an event time in [at - window, at].
+     */
+    long countInWindow(String accountId, Duration window, LocalDateTime at);
+
+    /**
+     * Whether an earlier transaction of the account used this device.
+     */
+    boolean isKnownDevice(String accountId, String deviceId);
+}
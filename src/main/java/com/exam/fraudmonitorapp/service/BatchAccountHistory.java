@@ -0,0 +1,86 @@
+package com.exam.fraudmonitorapp.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Account history for one ingestion batch: prefetched stored history plus the batch items accepted so far.
+ * Items must be evaluated and then {@link #accept accepted} in batch order, so each one sees exactly what it would
+ * have seen had the batch been posted one event at a time.
+ */
+final class BatchAccountHistory implements AccountHistory {
+
+    private final Map<String, Account> accounts = new HashMap<>();
+
+    void addStoredEventTime(String accountId, LocalDateTime eventTime) {
+        account(accountId).eventTimes.add(eventTime);
+    }
+
+    void addStoredDevice(String accountId, String deviceId) {
+        account(accountId).devices.add(deviceId);
+    }
+
+    /** Prefetch done: sort stored times once so lookups can binary-search. */
+    void sealPrefetch() {
+        accounts.values().forEach(a -> Collections.sort(a.eventTimes));
+    }
+
+    void accept(String accountId, LocalDateTime eventTime, String deviceId) {
+        Account account = account(accountId);
+        if (eventTime != null) {
+            account.eventTimes.add(sortedPosition(account.eventTimes, eventTime, false), eventTime);
+        }
+        if (deviceId != null && !deviceId.isBlank()) {
+            account.devices.add(deviceId);
+        }
+    }
+
+    @Override
+    public long countInWindow(String accountId, Duration window, LocalDateTime at) {
+        Account account = accounts.get(accountId);
+        if (account == null) return 0;
+        int from = sortedPosition(account.eventTimes, at.minus(window), true);
+        int to = sortedPosition(account.eventTimes, at, false);
+        return Math.max(0, to - from);
+    }
+
+    @Override
+    public boolean isKnownDevice(String accountId, String deviceId) {
+        Account account = accounts.get(accountId);
+        return account != null && account.devices.contains(deviceId);
+    }
+
+    private Account account(String accountId) {
+        return accounts.computeIfAbsent(accountId, id -> new Account());
+    }
+
+    /**
+     * First index whose time is >= (lower) or > (upper) the given time.
+     */
+    private static int sortedPosition(List<LocalDateTime> times, LocalDateTime time, boolean lower) {
+        int lo = 0;
+        int hi = times.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = times.get(mid).compareTo(time);
+            if (cmp < 0 || (!lower && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static final class Account {
+        private final List<LocalDateTime> eventTimes = new ArrayList<>();
+        private final Set<String> devices = new HashSet<>();
+    }
+}
@@ -0,0 +1,329 @@
+package com.exam.fraudmonitorapp.service;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.TransactionBatchItemDto;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
+import com.exam.fraudmonitorapp.repo.TransactionBatchWriter;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.alerts.AlertReadModel;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.ProcessedTransactionCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.exception.ConflictException;
+import com.exam.fraudmonitorapp.service.exception.PayloadTooLargeException;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import com.exam.fraudmonitorapp.service.rules.VelocityRule;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Batch ingestion: the same rules and persistence as {@link FraudDetectionService#process}, for many events at once.
+ * - Velocity and device history of all accounts in the batch is prefetched with a couple of bulk queries.
+ * - Items are evaluated in submission order against that history plus the earlier items of the batch, so results
+ *   match posting the events one by one.
+ * - Transactions, alerts and outbox rows are written with JDBC batching in one transaction.
+ * - Items whose (accountId, transactionId) is already stored, or repeated earlier in the batch, are answered with
+ *   the stored result (DUPLICATE) and are neither re-scored nor inserted again.
+ * - A batch with an item that another request is still processing (single submission, write-behind queue or
+ *   another batch), or that another instance stores first, is rejected as a whole with a conflict; the retry
+ *   answers those items DUPLICATE.
+ */
+@Service
+@Slf4j
+public class FraudBatchService {
+
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    public static final String DUPLICATE = "DUPLICATE";
+
+    private static final int PREFETCH_CHUNK = 500;
+
+    private final TransactionRepo transactionRepository;
+    private final TransactionBatchWriter batchWriter;
+    private final FraudRuleEngine ruleEngine;
+    private final TransactionEventMapper eventMapper;
+    private final VelocityIndex velocityIndex;
+    private final KnownDeviceCache knownDevices;
+    private final AccountProfileStore profiles;
+    private final ProcessedTransactionCache processed;
+    private final UnflushedTransactions unflushed;
+    private final EventJournal journal;
+    private final AlertReadModel alertReadModel;
+    private final Validator validator;
+    private final FraudMetrics metrics;
+    private final int maxBatchSize;
+
+    public FraudBatchService(TransactionRepo transactionRepository,
+                             TransactionBatchWriter batchWriter,
+                             FraudRuleEngine ruleEngine,
+                             TransactionEventMapper eventMapper,
+                             VelocityIndex velocityIndex,
+                             KnownDeviceCache knownDevices,
+                             AccountProfileStore profiles,
+                             ProcessedTransactionCache processed,
+                             UnflushedTransactions unflushed,
+                             EventJournal journal,
+                             AlertReadModel alertReadModel,
+                             Validator validator,
+                             FraudMetrics metrics,
+                             @Value("${app.batch.max-size:5000}") int maxBatchSize) {
+        this.transactionRepository = transactionRepository;
+        this.batchWriter = batchWriter;
+        this.ruleEngine = ruleEngine;
+        this.eventMapper = eventMapper;
+        this.velocityIndex = velocityIndex;
+        this.knownDevices = knownDevices;
+        this.profiles = profiles;
+        this.processed = processed;
+        this.unflushed = unflushed;
+        this.journal = journal;
+        this.alertReadModel = alertReadModel;
+        this.validator = validator;
+        this.metrics = metrics;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Evaluate and persist a batch of transactions.
+     *
+     * @param batch events in submission order
+     * @return one result per submitted event, in the same order
+     */
+    @Transactional
+    public List<TransactionBatchItemDto> processBatch(List<TransactionEventDto> batch) {
+        if (batch == null || batch.isEmpty()) return List.of();
+        if (batch.size() > maxBatchSize) {
+            throw new PayloadTooLargeException("Batch of " + batch.size() + " exceeds the limit of " + maxBatchSize);
+        }
+
+        // 1) Validate per item; rejected items do not stop the rest of the batch
+        TransactionBatchItemDto[] results = new TransactionBatchItemDto[batch.size()];
+        List<Integer> accepted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            List<String> errors = validate(validator, batch.get(i));
+            if (errors.isEmpty()) {
+                accepted.add(i);
+            } else {
+                results[i] = new TransactionBatchItemDto(i, REJECTED, null, errors);
+            }
+        }
+
+        // 2) Resubmissions are answered with the stored result and skip evaluation and persistence
+        Map<Integer, Integer> repeats = resolveDuplicates(batch, accepted, results);
+        int duplicates = accepted.size();
+        accepted.removeIf(i -> results[i] != null || repeats.containsKey(i));
+        duplicates -= accepted.size();
+        metrics.duplicatesReplayed(duplicates);
+
+        // Upstream ids of the items to insert are claimed until the transaction ends
+        List<TransactionEventDto> claimed = claim(batch, accepted);
+        try {
+            // 3) One prefetch of velocity and device history for every account in the batch
+            BatchAccountHistory history = prefetch(batch, accepted);
+
+            // 4) Evaluate in submission order; each item becomes history for the ones after it
+            List<TransactionEventEntity> entities = new ArrayList<>(accepted.size());
+            for (int i : accepted) {
+                TransactionEventDto dto = batch.get(i);
+                List<String> reasons = ruleEngine.evaluate(TransactionView.of(dto), history);
+                history.accept(dto.getAccountId(), dto.getEventTime(), dto.getDeviceId());
+
+                TransactionEventEntity entity = eventMapper.fromDto(dto);
+                entity.setFraudulent(!reasons.isEmpty());
+                entity.setFraudReason(String.join(", ", reasons));
+                entities.add(entity);
+            }
+
+            // 5) Bulk persistence: transactions first (ids), then alerts and their outbox rows
+            try {
+                batchWriter.insertTransactions(entities);
+            } catch (DataIntegrityViolationException ex) {
+                // An item was stored concurrently after the duplicate lookup; a retry answers it DUPLICATE
+                throw new ConflictException("A transaction of this batch was stored concurrently. Please retry the batch.", ex);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<FraudAlertEntity> alerts = entities.stream()
+                    .filter(TransactionEventEntity::isFraudulent)
+                    .map(e -> FraudDetectionService.openAlert(e, now))
+                    .toList();
+            batchWriter.insertAlerts(alerts);
+
+            List<NotificationOutboxEntity> notifications = alerts.stream()
+                    .map(FraudDetectionService::pendingNotification)
+                    .toList();
+            batchWriter.insertNotifications(notifications);
+            TransactionCallbacks.afterCommit(() -> alerts.forEach(alertReadModel::apply));
+
+            TransactionCallbacks.afterCommit(() -> entities.forEach(e -> {
+                velocityIndex.record(e.getAccountId(), e.getEventTime());
+                knownDevices.record(e.getAccountId(), e.getDeviceId());
+                profiles.record(e);
+                FraudDetectionService.journalCommitted(journal, metrics, e);
+            }));
+
+            // 6) Per-item results in submission order; repeats within the batch share their first occurrence's result
+            List<TransactionEventDto> stored = new ArrayList<>(accepted.size());
+            for (int k = 0; k < accepted.size(); k++) {
+                int i = accepted.get(k);
+                TransactionEventDto dto = eventMapper.toDto(entities.get(k));
+                stored.add(dto);
+                results[i] = new TransactionBatchItemDto(i, ACCEPTED, dto, List.of());
+            }
+            TransactionCallbacks.afterCommit(() -> stored.forEach(processed::put));
+            repeats.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(r -> results[r.getKey()] = new TransactionBatchItemDto(r.getKey(), DUPLICATE,
+                            results[r.getValue()].getTransaction(), List.of()));
+
+            log.info("Batch processed: {} accepted, {} duplicates, {} rejected, {} alerts",
+                    accepted.size(), duplicates, batch.size() - accepted.size() - duplicates, alerts.size());
+            return Arrays.asList(results);
+        } finally {
+            TransactionCallbacks.afterCompletion(() -> release(claimed));
+        }
+    }
+
+    /**
+     * Fill in DUPLICATE results for accepted items that are already stored (dedupe cache, then one bulk lookup).
+     *
+     * @return batch index of each repeat of an earlier item in the same batch -> index of its first occurrence
+     */
+    private Map<Integer, Integer> resolveDuplicates(List<TransactionEventDto> batch, List<Integer> accepted,
+                                                    TransactionBatchItemDto[] results) {
+        Map<Integer, Integer> repeats = new HashMap<>();
+        Map<DedupeKey, Integer> firstSeen = new HashMap<>();
+        Map<DedupeKey, Integer> misses = new HashMap<>();
+        for (int i : accepted) {
+            TransactionEventDto dto = batch.get(i);
+            if (dto.getTransactionId() == null) continue;
+
+            DedupeKey key = new DedupeKey(dto.getAccountId(), dto.getTransactionId());
+            Integer first = firstSeen.putIfAbsent(key, i);
+            if (first != null) {
+                repeats.put(i, first);
+                continue;
+            }
+            TransactionEventDto cached = processed.get(dto.getAccountId(), dto.getTransactionId());
+            if (cached != null) {
+                results[i] = new TransactionBatchItemDto(i, DUPLICATE, cached, List.of());
+            } else {
+                misses.put(key, i);
+            }
+        }
+        if (misses.isEmpty()) return repeats;
+
+        List<Long> ids = misses.keySet().stream().map(DedupeKey::transactionId).distinct().toList();
+        for (int from = 0; from < ids.size(); from += PREFETCH_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + PREFETCH_CHUNK, ids.size()));
+            for (TransactionEventEntity row : transactionRepository.findByTransactionIdIn(chunk)) {
+                Integer i = misses.get(new DedupeKey(row.getAccountId(), row.getTransactionId()));
+                if (i == null) continue; // same upstream id on another account
+                TransactionEventDto storedDto = eventMapper.toDto(row);
+                processed.put(storedDto);
+                results[i] = new TransactionBatchItemDto(i, DUPLICATE, storedDto, List.of());
+            }
+        }
+        return repeats;
+    }
+
+    /**
+     * Claim the upstream ids of the items to insert, or fail the batch with a conflict when another submission is
+     * processing one of them.
+     */
+    private List<TransactionEventDto> claim(List<TransactionEventDto> batch, List<Integer> accepted) {
+        List<TransactionEventDto> claimed = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            TransactionEventDto dto = batch.get(i);
+            if (!processed.claim(dto.getAccountId(), dto.getTransactionId())) {
+                release(claimed);
+                throw new ConflictException("Transaction " + dto.getTransactionId() + " of account " + dto.getAccountId()
+                        + " is already being processed. Please retry the batch.", null);
+            }
+            claimed.add(dto);
+        }
+        return claimed;
+    }
+
+    private void release(List<TransactionEventDto> claimed) {
+        claimed.forEach(dto -> processed.release(dto.getAccountId(), dto.getTransactionId()));
+    }
+
+    private record DedupeKey(String accountId, Long transactionId) {
+    }
+
+    /**
+     * Bean-validation errors of one event as "field: message", plus the NOT NULL columns the DTO does not constrain.
+     * Shared with the NDJSON stream, which validates line by line.
+     */
+    static List<String> validate(Validator validator, TransactionEventDto dto) {
+        if (dto == null) return List.of("transaction must not be null");
+
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<TransactionEventDto> v : validator.validate(dto)) {
+            errors.add(v.getPropertyPath() + ": " + v.getMessage());
+        }
+        // NOT NULL columns on transactions that the DTO does not constrain
+        if (dto.getChannel() == null) errors.add("channel: must not be null");
+        if (dto.getMerchant() == null) errors.add("merchant: must not be null");
+        return errors;
+    }
+
+    private BatchAccountHistory prefetch(List<TransactionEventDto> batch, List<Integer> accepted) {
+        BatchAccountHistory history = new BatchAccountHistory();
+        if (accepted.isEmpty()) return history;
+
+        Set<String> accountIds = new LinkedHashSet<>();
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (int i : accepted) {
+            TransactionEventDto dto = batch.get(i);
+            accountIds.add(dto.getAccountId());
+            LocalDateTime t = dto.getEventTime();
+            if (earliest == null || t.isBefore(earliest)) earliest = t;
+            if (latest == null || t.isAfter(latest)) latest = t;
+        }
+
+        List<String> ids = new ArrayList<>(accountIds);
+        for (int from = 0; from < ids.size(); from += PREFETCH_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + PREFETCH_CHUNK, ids.size()));
+            // Rows still queued by write-behind are not in the database yet; read them first, so one flushed while
+            // the queries run is seen at least once
+            for (String accountId : chunk) {
+                unflushed.eventTimes(accountId, earliest.minus(VelocityRule.WINDOW), latest)
+                        .forEach(t -> history.addStoredEventTime(accountId, t));
+                unflushed.deviceIds(accountId).forEach(d -> history.addStoredDevice(accountId, d));
+            }
+            for (Object[] row : transactionRepository.findEventTimesByAccountIdIn(chunk, earliest.minus(VelocityRule.WINDOW), latest)) {
+                history.addStoredEventTime((String) row[0], (LocalDateTime) row[1]);
+            }
+            for (Object[] row : transactionRepository.findDistinctDeviceIdsByAccountIdIn(chunk)) {
+                history.addStoredDevice((String) row[0], Objects.toString(row[1]));
+            }
+        }
+        history.sealPrefetch();
+        return history;
+    }
+}
@@ -1,17 +1,30 @@
 package com.exam.fraudmonitorapp.service;
 
 import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
 import com.exam.fraudmonitorapp.model.TransactionEventEntity;
 import com.exam.fraudmonitorapp.model.dto.FraudAlertDto;
 import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
 import com.exam.fraudmonitorapp.model.mapper.FraudAlertMapper;
 import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
 import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.repo.NotificationOutboxRepo;
 import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.alerts.AlertReadModel;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.ProcessedTransactionCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
 import com.exam.fraudmonitorapp.service.exception.ConflictException;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.outbox.NotificationOutboxRelay;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import com.exam.fraudmonitorapp.service.writebehind.CleanTransactionWriteBehind;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
@@ -28,69 +41,234 @@ public class FraudDetectionService {
     private final TransactionRepo transactionRepository;
     private final FraudAlertRepo fraudAlertRepository;
     private final com.exam.fraudmonitorapp.service.FraudRuleEngine ruleEngine;
-    private final com.exam.fraudmonitorapp.service.NotificationServiceImpl notificationService;
+    private final NotificationOutboxRepo outboxRepository;
     @Autowired
     private final TransactionEventMapper eventMapper;
     @Autowired
     private final FraudAlertMapper fraudAlertMapper;
+    private final VelocityIndex velocityIndex;
+    private final KnownDeviceCache knownDevices;
+    private final AccountProfileStore profiles;
+    private final ProcessedTransactionCache processed;
+    private final CleanTransactionWriteBehind writeBehind;
+    private final EventJournal journal;
+    private final AlertReadModel alertReadModel;
+    private final FraudMetrics metrics;
 
     public FraudDetectionService(TransactionRepo transactionRepository,
                                  FraudAlertRepo fraudAlertRepository,
                                  com.exam.fraudmonitorapp.service.FraudRuleEngine ruleEngine,
-                                 com.exam.fraudmonitorapp.service.NotificationServiceImpl notificationService,
+                                 NotificationOutboxRepo outboxRepository,
                                  TransactionEventMapper eventMapper,
-                                 FraudAlertMapper fraudAlertMapper) {
+                                 FraudAlertMapper fraudAlertMapper,
+                                 VelocityIndex velocityIndex,
+                                 KnownDeviceCache knownDevices,
+                                 AccountProfileStore profiles,
+                                 ProcessedTransactionCache processed,
+                                 CleanTransactionWriteBehind writeBehind,
+                                 EventJournal journal,
+                                 AlertReadModel alertReadModel,
+                                 FraudMetrics metrics) {
         this.transactionRepository = transactionRepository;
         this.fraudAlertRepository = fraudAlertRepository;
         this.ruleEngine = ruleEngine;
-        this.notificationService = notificationService;
+        this.outboxRepository = outboxRepository;
         this.eventMapper = eventMapper;
         this.fraudAlertMapper = fraudAlertMapper;
+        this.velocityIndex = velocityIndex;
+        this.knownDevices = knownDevices;
+        this.profiles = profiles;
+        this.processed = processed;
+        this.writeBehind = writeBehind;
+        this.journal = journal;
+        this.alertReadModel = alertReadModel;
+        this.metrics = metrics;
     }
 
     /**
      * Evaluate and persist a transaction, raising alerts and notifications if fraud is detected.
      *
      * @param incomingTransaction DTO with required fields (accountId, amount, category, etc.).
+     * A resubmission with the same (accountId, transactionId) returns the stored result without re-scoring;
+     * one that arrives while the first is still being processed is rejected with a conflict.
+     *
      * @return persisted DTO annotated with fraud status and reasons (if any).
      */
     @Transactional
     public TransactionEventDto process(TransactionEventDto incomingTransaction) {
-        // 1) Map DTO -> Entity
-        TransactionEventEntity entity = eventMapper.fromDto(incomingTransaction);
+        return submit(incomingTransaction).transaction();
+    }
 
-        // 2) Evaluate rules on the entity (ensures uniform domain model for rules)
-        List<String> reasons = ruleEngine.evaluate(eventMapper.toDto(entity));
-        if (reasons == null) {
-            reasons = List.of();
+    /**
+     * {@link #process}, also telling whether the result is a replay of an earlier submission (DUPLICATE for
+     * batch and stream ingestion).
+     */
+    @Transactional
+    public Submission submit(TransactionEventDto incomingTransaction) {
+        // 0) Claim the upstream id until this submission is stored: a concurrent one with the same id is turned away
+        //    (409) instead of also missing the lookup below and being counted and queued twice
+        String accountId = incomingTransaction.getAccountId();
+        Long transactionId = incomingTransaction.getTransactionId();
+        if (!processed.claim(accountId, transactionId)) {
+            throw new ConflictException("Transaction " + transactionId + " of account " + accountId
+                    + " is already being processed. Please retry.", null);
         }
+        boolean queued = false;
+        try {
+            // Upstream retry of an already stored transaction: replay the original result
+            TransactionEventDto replay = findProcessed(accountId, transactionId);
+            if (replay != null) {
+                log.info("Replaying stored result for account {} transaction {}", replay.getAccountId(), replay.getTransactionId());
+                return new Submission(replay, true);
+            }
+
+            // 1) Evaluate rules on an immutable view of the incoming fields (no mapper round-trip)
+            TransactionView ruleInput = TransactionView.of(incomingTransaction);
+            List<String> reasons = metrics.stage(FraudMetrics.STAGE_RULES).record(() -> ruleEngine.evaluate(ruleInput));
+            if (reasons == null) {
+                reasons = List.of();
+            }
+
+            // 2) Map DTO -> Entity once, for persistence
+            TransactionEventEntity entity = metrics.stage(FraudMetrics.STAGE_MAP)
+                    .record(() -> eventMapper.fromDto(incomingTransaction));
+            boolean isFraud = !reasons.isEmpty();
+            entity.setFraudulent(isFraud);
+            entity.setFraudReason(String.join(", ", reasons)); // empty string if none
+
+            // 3) Clean transactions may be left to the write-behind writer; the response then carries no id
+            if (!isFraud && writeBehind.enabled()) {
+                TransactionEventDto result = metrics.stage(FraudMetrics.STAGE_MAP).record(() -> eventMapper.toDto(entity));
+                if (writeBehind.enqueue(entity)) { // journaled as pending; the writer releases the claim once it is written
+                    queued = true;
+                    recordAccepted(entity, result, false);
+                    return new Submission(result, false);
+                }
+                // Queue full: fall back to the synchronous insert
+            }
+
+            // 4) Persist transaction first (to get an ID for alert). The sequence assigns the id without an insert;
+            //    rows are written as one JDBC batch at commit, except upstream ids, which are flushed here so a
+            //    duplicate surfaces as a conflict instead of a failed commit
+            log.debug("Saving transaction {} of account {} (fraudulent={})",
+                    entity.getTransactionId(), entity.getAccountId(), isFraud);
+            TransactionEventEntity saved;
+            try {
+                saved = metrics.stage(FraudMetrics.STAGE_SAVE_TRANSACTION).record(() -> entity.getTransactionId() == null
+                        ? transactionRepository.save(entity)
+                        : transactionRepository.saveAndFlush(entity));
+            } catch (DataIntegrityViolationException ex) {
+                // A concurrent submission of the same transactionId won the insert; a retry replays its result
+                throw new ConflictException("Transaction " + entity.getTransactionId() + " of account "
+                        + entity.getAccountId() + " is already being processed. Please retry.", ex);
+            }
 
-        boolean isFraud = !reasons.isEmpty();
-        entity.setFraudulent(isFraud);
-        entity.setFraudReason(String.join(", ", reasons)); // empty string if none
+            // 5) If fraud, create alert + queue notification
+            if (isFraud) {
 
-        // 3) Persist transaction first (to get an ID for alert)
-        log.info("ENTITY::: {} ",entity);
-        TransactionEventEntity saved = transactionRepository.save(entity);
+                FraudAlertEntity savedAlert = metrics.stage(FraudMetrics.STAGE_SAVE_ALERT)
+                        .record(() -> fraudAlertRepository.save(openAlert(saved, LocalDateTime.now())));
+                TransactionCallbacks.afterCommit(() -> alertReadModel.apply(savedAlert));
 
-        // 4) If fraud, create alert + notify
-        if (isFraud) {
+                // Notify (Email + WhatsApp) via the outbox: committed with the alert, sent by NotificationOutboxRelay
+                metrics.stage(FraudMetrics.STAGE_NOTIFICATION)
+                        .record(() -> outboxRepository.save(pendingNotification(savedAlert)));
+            }
 
-            FraudAlertEntity alert = new FraudAlertEntity();
-            alert.setTransactionId(saved.getId());             // <-- use the entity's primary key
-            alert.setAccountId(saved.getAccountId());
-            alert.setReasons(saved.getFraudReason());
-            alert.setStatus("OPEN");
-            alert.setCreatedAt(LocalDateTime.now());
+            // 6) Map back to DTO (includes generated id & fraud fields)
+            TransactionEventDto result = metrics.stage(FraudMetrics.STAGE_MAP).record(() -> eventMapper.toDto(saved));
+            recordAccepted(saved, result, true);
+            return new Submission(result, false);
+        } finally {
+            if (!queued) {
+                TransactionCallbacks.afterCompletion(() -> processed.release(accountId, transactionId));
+            }
+        }
+    }
+
+    /**
+     * Outcome of {@link #submit}.
+     *
+     * @param transaction the stored transaction
+     * @param duplicate   the submission repeated an already stored (accountId, transactionId)
+     */
+    public record Submission(TransactionEventDto transaction, boolean duplicate) {
+    }
+
+    /**
+     * Only update rule state, the dedupe cache and the journal once the transaction is committed, so a rollback
+     * cannot leak into them.
+     */
+    private void recordAccepted(TransactionEventEntity accepted, TransactionEventDto result, boolean journalIt) {
+        TransactionCallbacks.afterCommit(() -> {
+            velocityIndex.record(accepted.getAccountId(), accepted.getEventTime());
+            knownDevices.record(accepted.getAccountId(), accepted.getDeviceId());
+            profiles.record(accepted);
+            processed.put(result);
+            if (journalIt) journalCommitted(journal, metrics, accepted);
+        });
+    }
 
-            fraudAlertRepository.save(alert);
+    /**
+     * Journal a committed transaction. The row is already in the database, so a failed append is logged and counted
+     * but never fails the request; the journal only loses its replay of this row.
+     */
+    static void journalCommitted(EventJournal journal, FraudMetrics metrics, TransactionEventEntity committed) {
+        try {
+            journal.append(committed, false);
+        } catch (RuntimeException ex) {
+            metrics.journalAppendFailed();
+            log.error("Could not journal committed transaction {} of account {}",
+                    committed.getTransactionId(), committed.getAccountId(), ex);
+        }
+    }
 
-            // Notify (Email + WhatsApp); failures are logged inside NotificationServiceImpl
-            notificationService.notifyFraud(saved);
+    /**
+     * Stored result of an earlier submission with the same upstream id: dedupe cache first, then the unique
+     * (accountId, transactionId) row. Null when the transaction is new or carries no transactionId.
+     */
+    TransactionEventDto findProcessed(String accountId, Long transactionId) {
+        if (transactionId == null) return null;
+        TransactionEventDto cached = processed.get(accountId, transactionId);
+        if (cached != null) {
+            metrics.duplicateReplayed();
+            return cached;
         }
+        TransactionEventDto stored = transactionRepository.findByAccountIdAndTransactionId(accountId, transactionId)
+                .map(eventMapper::toDto)
+                .orElse(null);
+        if (stored != null) {
+            processed.put(stored);
+            metrics.duplicateReplayed();
+        }
+        return stored;
+    }
 
-        // 5) Map back to DTO (includes generated id & fraud fields)
-        return eventMapper.toDto(saved);
+    /**
+     * New OPEN alert for a persisted fraudulent transaction.
+     */
+    static FraudAlertEntity openAlert(TransactionEventEntity saved, LocalDateTime createdAt) {
+        FraudAlertEntity alert = new FraudAlertEntity();
+        alert.setTransactionId(saved.getId());             // <-- use the entity's primary key
+        alert.setAccountId(saved.getAccountId());
+        alert.setReasons(saved.getFraudReason());
+        alert.setStatus("OPEN");
+        alert.setCreatedAt(createdAt);
+        return alert;
+    }
+
+    /**
+     * Outbox entry that makes NotificationOutboxRelay notify the customer about a persisted alert.
+     */
+    static NotificationOutboxEntity pendingNotification(FraudAlertEntity alert) {
+        NotificationOutboxEntity notification = new NotificationOutboxEntity();
+        notification.setTransactionId(alert.getTransactionId());
+        notification.setAlertId(alert.getId());
+        notification.setAccountId(alert.getAccountId());
+        notification.setStatus(NotificationOutboxRelay.PENDING);
+        notification.setNextAttemptAt(alert.getCreatedAt());
+        notification.setCreatedAt(alert.getCreatedAt());
+        return notification;
     }
 
     /**
@@ -110,6 +288,7 @@ public class FraudDetectionService {
         alert.setStatus("CLOSED");
         try {
             FraudAlertEntity updated = fraudAlertRepository.save(alert);
+            TransactionCallbacks.afterCommit(() -> alertReadModel.apply(updated));
             return fraudAlertMapper.toDto(updated);
         } catch (OptimisticLockingFailureException ex) {
             throw new ConflictException("Alert modified by another request. Please refresh and retry.", ex);
@@ -117,10 +296,17 @@ public class FraudDetectionService {
     }
 
     /**
-     * List alerts by status, most recent first.
+     * List alerts by status, optionally of one account, most recent first.
+     * Indexed statuses (OPEN) are answered from the in-memory read model.
      */
-    public List<FraudAlertDto> alertList(String status) {
-        return fraudAlertRepository.findByStatusOrderByCreatedAtDesc(status)
+    public List<FraudAlertDto> alertList(String status, String accountId) {
+        if (alertReadModel.serves(status)) {
+            return alertReadModel.list(status, accountId);
+        }
+        List<FraudAlertEntity> alerts = accountId == null
+                ? fraudAlertRepository.findByStatusOrderByCreatedAtDesc(status)
+                : fraudAlertRepository.findByStatusAndAccountIdOrderByCreatedAtDesc(status, accountId);
+        return alerts
                 .stream()
                 .map(fraudAlertMapper::toDto)
                 .collect(Collectors.toList()); // returns empty list when none
@@ -0,0 +1,147 @@
+package com.exam.fraudmonitorapp.service;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.CursorPageDto;
+import com.exam.fraudmonitorapp.model.dto.FraudAlertDto;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.mapper.FraudAlertMapper;
+import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
+import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bounded reads of transactions by account and alerts by status.
+ * - page*: keyset pagination, newest first, on (eventTime, id) / (createdAt, id). Each page is one indexed range
+ *   query, no OFFSET, so deep pages cost the same as the first and rows inserted meanwhile do not shift pages.
+ * - export*: the whole result as a streamed JSON array, read through a database cursor with a fetch size.
+ *   Rows are detached once written, so memory stays flat regardless of the result size.
+ */
+@Service
+public class FraudQueryService {
+
+    private final TransactionRepo transactionRepository;
+    private final FraudAlertRepo fraudAlertRepository;
+    private final TransactionEventMapper eventMapper;
+    private final FraudAlertMapper fraudAlertMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter transactionWriter;
+    private final ObjectWriter alertWriter;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public FraudQueryService(TransactionRepo transactionRepository,
+                             FraudAlertRepo fraudAlertRepository,
+                             TransactionEventMapper eventMapper,
+                             FraudAlertMapper fraudAlertMapper,
+                             EntityManager entityManager,
+                             JsonMapper jsonMapper,
+                             @Value("${app.paging.default-limit:50}") int defaultLimit,
+                             @Value("${app.paging.max-limit:500}") int maxLimit) {
+        this.transactionRepository = transactionRepository;
+        this.fraudAlertRepository = fraudAlertRepository;
+        this.eventMapper = eventMapper;
+        this.fraudAlertMapper = fraudAlertMapper;
+        this.entityManager = entityManager;
+        this.transactionWriter = jsonMapper.writerFor(TransactionEventDto.class);
+        this.alertWriter = jsonMapper.writerFor(FraudAlertDto.class);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * One page of an account's transactions, most recent first.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param limit  page size, defaults to app.paging.default-limit and is capped at app.paging.max-limit
+     */
+    public CursorPageDto<TransactionEventDto> pageByAccount(String accountId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = pageSize(limit);
+        // One extra row tells whether another page follows
+        List<TransactionEventEntity> rows = after == null
+                ? transactionRepository.findByAccountIdOrderByEventTimeDescIdDesc(accountId, Limit.of(size + 1))
+                : transactionRepository.findByAccountIdBefore(accountId, after.time(), after.id(), Limit.of(size + 1));
+        return page(rows, size, eventMapper::toDto, t -> new KeysetCursor(t.getEventTime(), t.getId()));
+    }
+
+    /**
+     * One page of alerts with the given status, most recent first.
+     */
+    public CursorPageDto<FraudAlertDto> pageAlerts(String status, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = pageSize(limit);
+        List<FraudAlertEntity> rows = after == null
+                ? fraudAlertRepository.findByStatusOrderByCreatedAtDescIdDesc(status, Limit.of(size + 1))
+                : fraudAlertRepository.findByStatusBefore(status, after.time(), after.id(), Limit.of(size + 1));
+        return page(rows, size, fraudAlertMapper::toDto, a -> new KeysetCursor(a.getCreatedAt(), a.getId()));
+    }
+
+    /**
+     * Write all of an account's transactions, most recent first, as a JSON array.
+     *
+     * @return number of transactions written
+     */
+    @Transactional
+    public long exportByAccount(String accountId, OutputStream out) throws IOException {
+        try (Stream<TransactionEventEntity> rows = transactionRepository.streamByAccountIdOrderByEventTimeDescIdDesc(accountId)) {
+            return writeArray(rows, eventMapper::toDto, transactionWriter, out);
+        }
+    }
+
+    /**
+     * Write all alerts with the given status, most recent first, as a JSON array.
+     *
+     * @return number of alerts written
+     */
+    @Transactional
+    public long exportAlerts(String status, OutputStream out) throws IOException {
+        try (Stream<FraudAlertEntity> rows = fraudAlertRepository.streamByStatusOrderByCreatedAtDescIdDesc(status)) {
+            return writeArray(rows, fraudAlertMapper::toDto, alertWriter, out);
+        }
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) return defaultLimit;
+        return Math.max(1, Math.min(limit, maxLimit));
+    }
+
+    private static <E, D> CursorPageDto<D> page(List<E> rows, int size,
+                                                Function<E, D> toDto, Function<E, KeysetCursor> position) {
+        boolean more = rows.size() > size;
+        List<E> items = more ? rows.subList(0, size) : rows;
+        String next = more ? position.apply(items.get(size - 1)).encode() : null;
+        return new CursorPageDto<>(items.stream().map(toDto).toList(), next);
+    }
+
+    private <E, D> long writeArray(Stream<E> rows, Function<E, D> toDto, ObjectWriter writer,
+                                   OutputStream out) throws IOException {
+        OutputStream sink = new BufferedOutputStream(out);
+        long count = 0;
+        sink.write('[');
+        for (Iterator<E> it = rows.iterator(); it.hasNext(); ) {
+            E row = it.next();
+            if (count++ > 0) sink.write(',');
+            sink.write(writer.writeValueAsBytes(toDto.apply(row)));
+            entityManager.detach(row); // keep the persistence context from growing with the result
+        }
+        sink.write(']');
+        sink.flush();
+        return count;
+    }
+}
@@ -1,30 +1,47 @@
 package com.exam.fraudmonitorapp.service;
 
-import com.exam.fraudmonitorapp.model.TransactionEventEntity;
-import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
-import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
-import com.exam.fraudmonitorapp.repo.TransactionRepo;
-import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.rules.FraudRule;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
- * Stateless fraud rules engine that evaluates a transaction DTO against configured rules.
- * - Null-safe across all accessed fields.
- * - Magic numbers extracted into constants.
- * - Avoids Map.of(null) lookups by guarding null keys.
+ * Stateless fraud rules engine that evaluates a TransactionView against the registered FraudRule beans.
+ * - Rules run cheapest first (FraudRule.cost, then @Order), so history lookups come last. Matched reasons are
+ *   reported in @Order, whatever the evaluation order, so fraudReason and alerts keep the rule order.
+ * - app.rules.max-hits > 0 stops evaluation once that many rules have matched (counted in evaluation order).
+ * - app.rules.min-pre-score > 0 skips rules with cost >= app.rules.expensive-cost unless the cheaper rules
+ *   already scored at least that much (sum of matched severities).
+ * - Both short-circuits are off by default, so every rule runs and all reasons are reported.
+ * - app.rules.parallel.enabled forks the expensive rules (history lookups that may go to the repository) onto
+ *   virtual threads, so their latency is that of the slowest lookup instead of the sum. They share one deadline
+ *   (app.rules.parallel.deadline): forks still running then are cancelled (interrupted) and count as not matched
+ *   (fraud.rule.timeouts). max-hits applies to them in evaluation order too.
+ *   Forks run outside the caller's transaction, so a cache miss reads with its own connection.
+ * - Each rule call is timed and each match counted per reason (see FraudMetrics).
  */
 
 @Service
@@ -32,124 +49,171 @@ import java.util.Set;
 public class FraudRuleEngine {
 
 
-    private final TransactionRepo repo;
-
-    private static final Set<String> BLACKLISTED_MERCHANTS = Set.of(
-            "SCAM MART", "DODGY DEALS", "PHISH PAY"
-    );
-
-    private static final Map<CategoryEnum, BigDecimal> CATEGORY_THRESHOLDS = Map.of(
-            CategoryEnum.PURCHASE,      new BigDecimal("10000"),
-            CategoryEnum.TRANSFER,      new BigDecimal("50000"),
-            CategoryEnum.ATM,           new BigDecimal("3000"),
-            CategoryEnum.ONLINE,        new BigDecimal("8000"),
-            CategoryEnum.INTERNATIONAL, new BigDecimal("5000"),
-            CategoryEnum.BILL_PAYMENT,  new BigDecimal("20000")
-    );
-
-    public FraudRuleEngine(TransactionRepo repo) {
-        this.repo = Objects.requireNonNull(repo, "TransactionRepo must not be null");
+    private final AccountHistory cachedHistory;
+    private final FraudRule[] rules;
+    private final int[] reportOrder;
+    private final Timer[] ruleTimers;
+    private final Counter[] reasonHits;
+    private final Counter[] ruleTimeouts;
+    private final FraudMetrics metrics;
+    private final int maxHits;
+    private final int expensiveCost;
+    private final int minPreScore;
+    private final long parallelDeadlineNanos;
+    private final ExecutorService forks;
+
+    public FraudRuleEngine(List<FraudRule> rules,
+                           VelocityIndex velocityIndex,
+                           KnownDeviceCache knownDevices,
+                           FraudMetrics metrics,
+                           @Value("${app.rules.max-hits:0}") int maxHits,
+                           @Value("${app.rules.expensive-cost:10}") int expensiveCost,
+                           @Value("${app.rules.min-pre-score:0}") int minPreScore,
+                           @Value("${app.rules.parallel.enabled:false}") boolean parallel,
+                           @Value("${app.rules.parallel.deadline:50ms}") Duration parallelDeadline) {
+        this.cachedHistory = new CachedHistory(
+                Objects.requireNonNull(velocityIndex, "VelocityIndex must not be null"),
+                Objects.requireNonNull(knownDevices, "KnownDeviceCache must not be null"));
+        // Stable sort: rules of equal cost keep their @Order
+        this.rules = rules.stream()
+                .sorted(Comparator.comparingInt(FraudRule::cost))
+                .toArray(FraudRule[]::new);
+        // Evaluation index of each rule, in @Order
+        this.reportOrder = rules.stream()
+                .mapToInt(r -> Arrays.asList(this.rules).indexOf(r))
+                .toArray();
+        this.ruleTimers = Arrays.stream(this.rules).map(metrics::rule).toArray(Timer[]::new);
+        this.reasonHits = Arrays.stream(this.rules).map(r -> metrics.reasonHits(r.reason())).toArray(Counter[]::new);
+        this.ruleTimeouts = Arrays.stream(this.rules).map(metrics::ruleTimeouts).toArray(Counter[]::new);
+        this.metrics = metrics;
+        this.maxHits = maxHits;
+        this.expensiveCost = expensiveCost;
+        this.minPreScore = minPreScore;
+        this.parallelDeadlineNanos = parallelDeadline.toNanos();
+        this.forks = parallel ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        log.info("Fraud rules in evaluation order: {}",
+                Arrays.stream(this.rules).map(r -> r.getClass().getSimpleName()).toList());
     }
 
     /**
      * Evaluate the given transaction and return a list of reason strings.
      * The list is empty when no rules are matched.
      */
-    public List<String> evaluate(TransactionEventDto tx) {
-        if (tx == null) return Collections.emptyList();
-
-        List<String> reasons = new ArrayList<>(6);
-        ruleAmountThreshold(tx, reasons);
-        ruleVelocity(tx, reasons);
-        ruleGeoMismatch(tx, reasons);
-        ruleBlacklistMerchant(tx, reasons);
-        ruleOddHours(tx, reasons);
-        ruleNewDeviceHighAmount(tx, reasons);
-        return reasons;
-    }
-
-    // ---------- Rules ----------
-    private void ruleAmountThreshold(TransactionEventDto tx, List<String> reasons) {
-        CategoryEnum category = tx.getCategory();
-        BigDecimal threshold = (category == null)
-                ? TransactionalConstant.DEFAULT_THRESHOLD
-                : CATEGORY_THRESHOLDS.getOrDefault(category, TransactionalConstant.DEFAULT_THRESHOLD);
-
-        BigDecimal amount = tx.getAmount();
-        if (amount != null && amount.compareTo(threshold) > 0) {
-            reasons.add("Amount exceeds category threshold");
-        }
+    public List<String> evaluate(TransactionView tx) {
+        return evaluate(tx, cachedHistory);
     }
 
-    private void ruleVelocity(TransactionEventDto tx, List<String> reasons) {
-        String accountId = tx.getAccountId();
-        LocalDateTime end = tx.getEventTime();
+    /**
+     * Evaluate the given transaction against an explicit account history (e.g. one prefetched for a batch).
+     */
+    public List<String> evaluate(TransactionView tx, AccountHistory history) {
+        if (tx == null) return Collections.emptyList();
 
-        if (accountId == null || accountId.isBlank() || end == null) {
-            return;
+        boolean[] matched = new boolean[rules.length];
+        int hits = 0;
+        int score = 0;
+        for (int i = 0; i < rules.length; i++) {
+            FraudRule rule = rules[i];
+            if (rule.cost() >= expensiveCost) {
+                // Rules are sorted by cost, so everything left is expensive too
+                if (minPreScore > 0 && score < minPreScore) break;
+                if (forks != null && i < rules.length - 1) {
+                    hits = evaluateForked(tx, history, i, matched, hits);
+                    break;
+                }
+            }
+            if (timedMatch(i, tx, history)) {
+                hit(i, matched);
+                hits++;
+                score += rule.severity();
+                if (maxHits > 0 && hits >= maxHits) {
+                    break;
+                }
+            }
         }
-
-        LocalDateTime start = end.minus(Duration.ofMinutes(TransactionalConstant.VELOCITY_WINDOW_MINUTES));
-        List<TransactionEventEntity> lastMinute = repo.findByAccountIdAndEventTimeBetween(accountId, start, end);
-
-        if (lastMinute != null && lastMinute.size() >= TransactionalConstant.VELOCITY_COUNT_THRESHOLD) {
-            reasons.add("High transaction velocity in last minute");
+        metrics.transactionEvaluated(hits > 0);
+        List<String> reasons = new ArrayList<>(hits);
+        for (int i : reportOrder) {
+            if (matched[i]) reasons.add(rules[i].reason());
         }
+        return reasons;
     }
 
-    private void ruleGeoMismatch(TransactionEventDto tx, List<String> reasons) {
-        String countryCode = tx.getCountryCode();
-        BigDecimal amount = tx.getAmount();
-
-        if (countryCode == null || countryCode.isBlank() || amount == null) return;
-
-        if (!"ZA".equalsIgnoreCase(countryCode) && amount.compareTo(TransactionalConstant.GEO_HIGH_AMOUNT) > 0) {
-            reasons.add("Foreign transaction with high amount");
+    /**
+     * Stop the fork executor; evaluations still running have their forks interrupted.
+     */
+    @PreDestroy
+    public void close() {
+        if (forks != null) {
+            forks.shutdownNow();
         }
     }
 
-    private void ruleBlacklistMerchant(TransactionEventDto tx, List<String> reasons) {
-        String merchant = tx.getMerchant();
-        if (merchant == null) return;
-
-        // Use ROOT locale for predictable uppercasing
-        String normalized = merchant.toUpperCase(Locale.ROOT);
-        if (BLACKLISTED_MERCHANTS.contains(normalized)) {
-            reasons.add("Merchant is blacklisted");
+    /**
+     * Run rules[from..] concurrently and join them, in evaluation order, until the shared deadline. No fork
+     * outlives this call: whatever has not finished by then is cancelled. A rule that throws cancels the others
+     * and the exception propagates, as in sequential evaluation.
+     * @return number of rules matched so far, including the forked ones
+     */
+    private int evaluateForked(TransactionView tx, AccountHistory history, int from, boolean[] matched, int hits) {
+        List<Future<Boolean>> forked = new ArrayList<>(rules.length - from);
+        for (int i = from; i < rules.length; i++) {
+            int rule = i;
+            forked.add(forks.submit(() -> timedMatch(rule, tx, history)));
         }
+        long deadline = System.nanoTime() + parallelDeadlineNanos;
+        try {
+            for (int k = 0; k < forked.size(); k++) {
+                int i = from + k;
+                Future<Boolean> fork = forked.get(k);
+                boolean match;
+                try {
+                    match = fork.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException ex) {
+                    fork.cancel(true);
+                    ruleTimeouts[i].increment();
+                    continue;
+                }
+                if (match && (maxHits <= 0 || hits < maxHits)) {
+                    hit(i, matched);
+                    hits++;
+                }
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            if (ex.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt(); // report what has been joined so far
+        } finally {
+            forked.forEach(f -> f.cancel(true)); // no-op for forks that are done
+        }
+        return hits;
     }
 
-    private void ruleOddHours(TransactionEventDto tx, List<String> reasons) {
-        LocalDateTime eventTime = tx.getEventTime();
-        BigDecimal amount = tx.getAmount();
-        if (eventTime == null || amount == null) return;
+    private boolean timedMatch(int i, TransactionView tx, AccountHistory history) {
+        long start = System.nanoTime();
+        boolean matched = rules[i].matches(tx, history);
+        ruleTimers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matched;
+    }
 
-        int hour = eventTime.getHour(); // Local time; for strict UTC, convert to ZonedDateTime
-        if (hour >= TransactionalConstant.ODD_HOURS_START && hour < TransactionalConstant.ODD_HOURS_END
-                && amount.compareTo(TransactionalConstant.ODD_HOURS_HIGH_AMOUNT) > 0) {
-            reasons.add("Large transaction at unusual hours");
-        }
+    private void hit(int i, boolean[] matched) {
+        reasonHits[i].increment();
+        matched[i] = true;
     }
 
-    private void ruleNewDeviceHighAmount(TransactionEventDto tx, List<String> reasons) {
-        String deviceId = tx.getDeviceId();
-        String accountId = tx.getAccountId();
-        BigDecimal amount = tx.getAmount();
+    /** Default history: the in-memory velocity index and device cache. */
+    private record CachedHistory(VelocityIndex velocityIndex, KnownDeviceCache knownDevices) implements AccountHistory {
 
-        if (deviceId == null || deviceId.isBlank() || accountId == null || accountId.isBlank() || amount == null) {
-            return;
+        @Override
+        public long countInWindow(String accountId, Duration window, LocalDateTime at) {
+            return velocityIndex.count(accountId, window, at);
         }
 
-        List<String> knownDevices = repo.findDistinctDeviceIdsByAccountId(accountId);
-        if (knownDevices == null) knownDevices = Collections.emptyList();
-
-        // Sanitize nulls and check presence
-        boolean isNewDevice = knownDevices.stream()
-                .filter(Objects::nonNull)
-                .noneMatch(d -> d.equals(deviceId));
-
-        if (isNewDevice && amount.compareTo(TransactionalConstant.NEW_DEVICE_HIGH_AMOUNT) > 0) {
-            reasons.add("High amount from new device");
+        @Override
+        public boolean isKnownDevice(String accountId, String deviceId) {
+            return knownDevices.isKnown(accountId, deviceId);
         }
     }
 
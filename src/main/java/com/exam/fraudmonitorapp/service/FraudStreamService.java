@@ -0,0 +1,178 @@
+package com.exam.fraudmonitorapp.service;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionBatchItemDto;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.service.exception.ServiceBusyException;
+import com.exam.fraudmonitorapp.service.lanes.AccountLanes;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * NDJSON ingestion: one transaction event per line in, one {@link TransactionBatchItemDto} per line out.
+ * - The body is read line by line; nothing beyond the in-flight window is buffered.
+ * - Lines are parsed and validated on the reading thread, then handed to {@link AccountLanes}: with lanes enabled
+ *   each account's lines are processed in stream order on its lane. With lanes disabled each line runs on its own
+ *   virtual thread, started only once the previous line of the same account in this stream has finished, so the
+ *   stream keeps per-account order either way. At most max-in-flight lines are outstanding at once.
+ * - Results are written in input order; once the window is full, reading pauses until the oldest line completes,
+ *   so a slow database or a slow reader of the response throttles the upload.
+ * - Blank lines are skipped but still counted, so "index" is the 0-based line number.
+ */
+@Service
+@Slf4j
+public class FraudStreamService {
+
+    public static final String FAILED = "FAILED";
+
+    private static final byte NEWLINE = '\n';
+    private static final Executor VIRTUAL_THREADS = task -> Thread.ofVirtual().start(task);
+
+    private final FraudDetectionService fraudService;
+    private final AccountLanes lanes;
+    private final Validator validator;
+    private final ObjectReader eventReader;
+    private final ObjectWriter resultWriter;
+    private final int maxInFlight;
+
+    public FraudStreamService(FraudDetectionService fraudService,
+                              AccountLanes lanes,
+                              Validator validator,
+                              JsonMapper jsonMapper,
+                              @Value("${app.stream.max-in-flight:16}") int maxInFlight) {
+        this.fraudService = fraudService;
+        this.lanes = lanes;
+        this.validator = validator;
+        this.eventReader = jsonMapper.readerFor(TransactionEventDto.class);
+        this.resultWriter = jsonMapper.writerFor(TransactionBatchItemDto.class);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Process an NDJSON stream until end of input.
+     *
+     * @return number of lines read
+     */
+    public int processStream(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        OutputStream sink = new BufferedOutputStream(out);
+        Deque<Future<TransactionBatchItemDto>> window = new ArrayDeque<>(maxInFlight);
+        // Last submitted line per account, while lanes are disabled
+        Map<String, CompletableFuture<TransactionBatchItemDto>> lastByAccount = new HashMap<>();
+
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int lineIndex = index++;
+            if (line.isBlank()) continue;
+
+            if (window.size() == maxInFlight) {
+                sink.flush(); // the client sees everything finished so far while we wait
+                write(window.poll(), sink);
+            }
+            window.add(submitLine(lineIndex, line, lastByAccount));
+
+            // Emit whatever already finished at the head without blocking
+            while (!window.isEmpty() && window.peek().isDone()) {
+                write(window.poll(), sink);
+            }
+        }
+        while (!window.isEmpty()) {
+            write(window.poll(), sink);
+        }
+        sink.flush();
+        return index;
+    }
+
+    private Future<TransactionBatchItemDto> submitLine(int index, String json,
+                                                      Map<String, CompletableFuture<TransactionBatchItemDto>> lastByAccount) {
+        TransactionEventDto dto;
+        try {
+            dto = eventReader.readValue(json);
+        } catch (JacksonException ex) {
+            return CompletableFuture.completedFuture(new TransactionBatchItemDto(index, FraudBatchService.REJECTED, null,
+                    List.of("malformed JSON: " + ex.getOriginalMessage())));
+        }
+
+        List<String> errors = FraudBatchService.validate(validator, dto);
+        if (!errors.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new TransactionBatchItemDto(index, FraudBatchService.REJECTED, null, errors));
+        }
+
+        if (!lanes.enabled()) {
+            return submitAfterPrevious(index, dto, lastByAccount);
+        }
+        try {
+            return lanes.submit(dto.getAccountId(), () -> processLine(index, dto));
+        } catch (ServiceBusyException ex) {
+            return CompletableFuture.completedFuture(
+                    new TransactionBatchItemDto(index, FAILED, null, List.of(ex.getMessage())));
+        }
+    }
+
+    /**
+     * Without lanes: chain the line behind the account's previous line of this stream, so velocity and device checks
+     * see it. Finished entries are pruned; at most max-in-flight of them are unfinished.
+     */
+    private CompletableFuture<TransactionBatchItemDto> submitAfterPrevious(
+            int index, TransactionEventDto dto, Map<String, CompletableFuture<TransactionBatchItemDto>> lastByAccount) {
+        CompletableFuture<TransactionBatchItemDto> previous = lastByAccount.get(dto.getAccountId());
+        CompletableFuture<TransactionBatchItemDto> result = previous == null || previous.isDone()
+                ? CompletableFuture.supplyAsync(() -> processLine(index, dto), VIRTUAL_THREADS)
+                : previous.handleAsync((ignored, ex) -> processLine(index, dto), VIRTUAL_THREADS);
+        lastByAccount.put(dto.getAccountId(), result);
+        if (lastByAccount.size() > maxInFlight) {
+            lastByAccount.values().removeIf(CompletableFuture::isDone);
+        }
+        return result;
+    }
+
+    private TransactionBatchItemDto processLine(int index, TransactionEventDto dto) {
+        try {
+            // Same statuses as batch ingestion: a resubmitted (accountId, transactionId) is DUPLICATE
+            FraudDetectionService.Submission submission = fraudService.submit(dto);
+            String status = submission.duplicate() ? FraudBatchService.DUPLICATE : FraudBatchService.ACCEPTED;
+            return new TransactionBatchItemDto(index, status, submission.transaction(), List.of());
+        } catch (RuntimeException ex) {
+            log.warn("Stream line {} failed: {}", index, ex.toString());
+            return new TransactionBatchItemDto(index, FAILED, null, List.of(String.valueOf(ex.getMessage())));
+        }
+    }
+
+    private void write(Future<TransactionBatchItemDto> result, OutputStream sink) throws IOException {
+        TransactionBatchItemDto item;
+        try {
+            item = result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a stream result", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Stream line failed unexpectedly", ex.getCause()); // processLine catches
+        }
+        sink.write(resultWriter.writeValueAsBytes(item));
+        sink.write(NEWLINE);
+    }
+}
@@ -0,0 +1,35 @@
+package com.exam.fraudmonitorapp.service;
+
+import com.exam.fraudmonitorapp.service.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page for keyset pagination on (time, id), both descending.
+ * Encoded as an opaque URL-safe token so clients do not depend on its layout.
+ */
+record KeysetCursor(LocalDateTime time, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    String encode() {
+        String raw = time.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null for a null/blank token (first page)
+     */
+    static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, split)), Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException ex) {
+            throw new InvalidCursorException("Invalid cursor: " + token, ex);
+        }
+    }
+}
@@ -9,12 +9,16 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.StringJoiner;
 
 @Service
 @Slf4j
 public class NotificationServiceImpl implements NotificationChannel {
 
+    private static final String FRAUD_SUBJECT = "Fraudulent activity detected";
+    private static final int MAX_DIGEST_ITEMS = 20;
+
     private final JavaMailSender mailSender;
 
     @Value("${app.mail.from:no-reply@fraud.local}")
@@ -46,8 +50,51 @@ public class NotificationServiceImpl implements NotificationChannel {
 
     @Override
     public void notifyFraud(TransactionEventEntity tx) {
-        String subject = "Fraudulent activity detected";
-        String body = new StringJoiner("\n")
+        String body = fraudBody(tx);
+
+        // Email
+        sendEmail(tx.getUserEmail(), FRAUD_SUBJECT, body);
+
+        // WhatsApp
+        sendWhatsApp(tx.getUserPhone(), body);
+    }
+
+    /**
+     * Same messages as {@link #notifyFraud}, but failures propagate so the outbox relay can retry them.
+     */
+    public void deliverFraud(TransactionEventEntity tx) {
+        String body = fraudBody(tx);
+        deliverEmail(tx.getUserEmail(), FRAUD_SUBJECT, body);
+        deliverWhatsApp(tx.getUserPhone(), body);
+    }
+
+    /**
+     * One message for several fraudulent transactions of the same account and recipient, as coalesced by the
+     * outbox relay. Failures propagate like {@link #deliverFraud}.
+     */
+    public void deliverFraudDigest(List<TransactionEventEntity> txs) {
+        TransactionEventEntity first = txs.getFirst();
+        String body = digestBody(txs);
+        deliverEmail(first.getUserEmail(), FRAUD_SUBJECT + " (" + txs.size() + " transactions)", body);
+        deliverWhatsApp(first.getUserPhone(), body);
+    }
+
+    private String digestBody(List<TransactionEventEntity> txs) {
+        StringJoiner body = new StringJoiner("\n")
+                .add("We detected potential fraud on your account: " + txs.getFirst().getAccountId())
+                .add(txs.size() + " transactions were flagged:");
+        for (TransactionEventEntity tx : txs.subList(0, Math.min(txs.size(), MAX_DIGEST_ITEMS))) {
+            body.add("- " + tx.getEventTime() + " | ID " + tx.getId() + " | " + tx.getAmount() + " " + tx.getCurrency()
+                    + " | " + tx.getCategory() + " | " + tx.getMerchant() + " | " + tx.getFraudReason());
+        }
+        if (txs.size() > MAX_DIGEST_ITEMS) {
+            body.add("... and " + (txs.size() - MAX_DIGEST_ITEMS) + " more");
+        }
+        return body.toString();
+    }
+
+    private String fraudBody(TransactionEventEntity tx) {
+        return new StringJoiner("\n")
                 .add("We detected potential fraud on your account: " + tx.getAccountId())
                 .add("Transaction ID: " + tx.getId())
                 .add("Amount: " + tx.getAmount() + " " + tx.getCurrency())
@@ -56,35 +103,37 @@ public class NotificationServiceImpl implements NotificationChannel {
                 .add("Reasons: " + tx.getFraudReason())
                 .add("Time: " + tx.getEventTime())
                 .toString();
-
-        // Email
-        sendEmail(tx.getUserEmail(), subject, body);
-
-        // WhatsApp
-        sendWhatsApp(tx.getUserPhone(), body);
     }
 
     private void sendEmail(String to, String subject, String body) {
-        if (to == null || to.isBlank()) return;
         try {
-            SimpleMailMessage msg = new SimpleMailMessage();
-            msg.setFrom(mailFrom);
-            msg.setTo(to);
-            msg.setSubject(subject);
-            msg.setText(body);
-            mailSender.send(msg);
+            deliverEmail(to, subject, body);
         } catch (Exception ex) {
             System.err.println("Email send failed: " + ex.getMessage());
         }
     }
 
+    private void deliverEmail(String to, String subject, String body) {
+        if (to == null || to.isBlank()) return;
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setFrom(mailFrom);
+        msg.setTo(to);
+        msg.setSubject(subject);
+        msg.setText(body);
+        mailSender.send(msg);
+    }
+
     private void sendWhatsApp(String toE164, String body) {
-        if (toE164 == null || toE164.isBlank() || whatsappFrom == null || whatsappFrom.isBlank() || !twilioInitialized) return;
         try {
-//            Message.creator(new PhoneNumber("whatsapp:" + toE164), new PhoneNumber(whatsappFrom), body).create();
+            deliverWhatsApp(toE164, body);
         } catch (Exception ex) {
             System.err.println("WhatsApp send failed: " + ex.getMessage());
         }
     }
 
+    private void deliverWhatsApp(String toE164, String body) {
+        if (toE164 == null || toE164.isBlank() || whatsappFrom == null || whatsappFrom.isBlank() || !twilioInitialized) return;
+//        Message.creator(new PhoneNumber("whatsapp:" + toE164), new PhoneNumber(whatsappFrom), body).create();
+    }
+
 }
@@ -0,0 +1,202 @@
+package com.exam.fraudmonitorapp.service.admission;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.service.exception.ServiceBusyException;
+import com.exam.fraudmonitorapp.service.exception.TooManyRequestsException;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive concurrency limit in front of transaction processing (POST /api/transactions).
+ * - AIMD: each call that finishes within latency-target raises the limit by 1/limit (about +1 per limit's worth of
+ *   calls); a slower call, or one failing with a pool/connection timeout, cuts it by 10%, at most once per
+ *   latency-target. The limit tracks what the database can absorb instead of letting threads pile up.
+ * - Priority: high-value transactions, and priority-categories at or above priority-amount, may use the whole limit
+ *   and wait up to high-priority-wait for a slot. Everything else may use only (1 - reserve) of it and is refused
+ *   at once, so under overload the high-priority share keeps its throughput.
+ * - Refused calls get 429 with Retry-After.
+ * - Batches (POST /api/transactions/batch) do not take a slot. Each one is a single long transaction whose latency
+ *   would read as overload to the AIMD limit; their size is capped by app.batch.max-size instead.
+ */
+@Service
+@Slf4j
+public class AdmissionControl {
+
+    private static final double BACKOFF = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double reserve;
+    private final long highPriorityWaitNanos;
+    private final Duration retryAfter;
+    private final Set<CategoryEnum> priorityCategories;
+    private final BigDecimal priorityAmount;
+    private final BigDecimal highValueAmount;
+    private final FraudMetrics metrics;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    public AdmissionControl(@Value("${app.admission.enabled:false}") boolean enabled,
+                            @Value("${app.admission.initial-limit:20}") int initialLimit,
+                            @Value("${app.admission.min-limit:2}") int minLimit,
+                            @Value("${app.admission.max-limit:200}") int maxLimit,
+                            @Value("${app.admission.latency-target:100ms}") Duration latencyTarget,
+                            @Value("${app.admission.reserve:0.2}") double reserve,
+                            @Value("${app.admission.high-priority-wait:200ms}") Duration highPriorityWait,
+                            @Value("${app.admission.retry-after:1s}") Duration retryAfter,
+                            @Value("${app.admission.priority-categories:INTERNATIONAL,TRANSFER}") List<CategoryEnum> priorityCategories,
+                            @Value("${app.admission.priority-amount:1000}") BigDecimal priorityAmount,
+                            @Value("${app.admission.high-value-amount:10000}") BigDecimal highValueAmount,
+                            FraudMetrics metrics) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("app.admission requires 1 <= min-limit <= max-limit");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.reserve = Math.clamp(reserve, 0.0, 1.0);
+        this.highPriorityWaitNanos = highPriorityWait.toNanos();
+        this.retryAfter = retryAfter;
+        this.priorityCategories = priorityCategories.isEmpty()
+                ? EnumSet.noneOf(CategoryEnum.class) : EnumSet.copyOf(priorityCategories);
+        this.priorityAmount = priorityAmount;
+        this.highValueAmount = highValueAmount;
+        this.metrics = metrics;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.lastDecrease = System.nanoTime() - latencyTargetNanos;
+        if (enabled) {
+            metrics.admission(this, AdmissionControl::limit, AdmissionControl::inFlight);
+            log.info("Admission control enabled: limit {} ({}..{}), latency target {}", (int) limit, minLimit, maxLimit,
+                    latencyTarget);
+        }
+    }
+
+    /**
+     * Run the task inside the concurrency limit, or throw TooManyRequestsException if the transaction's priority
+     * class has no free slot.
+     */
+    public <T> T call(TransactionEventDto tx, Supplier<T> task) {
+        if (!enabled) return task.get();
+
+        boolean high = isHighPriority(tx);
+        if (!acquire(high)) {
+            metrics.admissionShed(high);
+            throw new TooManyRequestsException("Transaction ingestion is at capacity. Please retry.", retryAfter);
+        }
+        long start = System.nanoTime();
+        boolean overload = false;
+        try {
+            return task.get();
+        } catch (RuntimeException ex) {
+            overload = isOverload(ex);
+            throw ex;
+        } finally {
+            release(System.nanoTime() - start, overload);
+        }
+    }
+
+    public boolean isHighPriority(TransactionEventDto tx) {
+        BigDecimal amount = tx.getAmount();
+        if (amount == null) return false;
+        if (amount.compareTo(highValueAmount) >= 0) return true;
+        return tx.getCategory() != null && priorityCategories.contains(tx.getCategory())
+                && amount.compareTo(priorityAmount) >= 0;
+    }
+
+    public double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean acquire(boolean high) {
+        lock.lock();
+        try {
+            if (inFlight < allowed(high)) {
+                inFlight++;
+                return true;
+            }
+            if (!high) return false;
+
+            long remaining = highPriorityWaitNanos;
+            while (inFlight >= allowed(true)) {
+                if (remaining <= 0) return false;
+                remaining = released.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long elapsedNanos, boolean overload) {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            if (overload || elapsedNanos > latencyTargetNanos) {
+                // One cut per latency-target: the slow calls of one episode should not each cut the limit
+                if (now - lastDecrease >= latencyTargetNanos) {
+                    limit = Math.max(minLimit, limit * BACKOFF);
+                    lastDecrease = now;
+                }
+            } else if (inFlight + 1 >= limit * (1 - reserve)) {
+                // Only grow while the limit is actually in use
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Low-priority calls may use the part of the limit that is not reserved; at least one slot. */
+    private int allowed(boolean high) {
+        int total = (int) limit;
+        return high ? total : Math.max(1, (int) (total * (1 - reserve)));
+    }
+
+    /** Failures that mean "too much load" rather than a bad request. */
+    private static boolean isOverload(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof CannotCreateTransactionException
+                || ex instanceof ServiceBusyException;
+    }
+}
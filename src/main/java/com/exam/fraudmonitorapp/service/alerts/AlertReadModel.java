@@ -0,0 +1,186 @@
+package com.exam.fraudmonitorapp.service.alerts;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.dto.FraudAlertDto;
+import com.exam.fraudmonitorapp.model.mapper.FraudAlertMapper;
+import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of alerts by status and by (status, accountId), newest first, for the alert list endpoint.
+ * - Holds only the configured statuses (OPEN by default), so it is bounded by the open alerts, not the history.
+ * - Kept current by {@link #apply} after each committed alert insert or status change, and rebuilt from the
+ *   database at startup and every resync-interval (which also picks up changes made by other instances).
+ * - Reads copy the matching alerts under a read lock, so each list is a consistent snapshot.
+ * - Until the first rebuild has finished, {@link #serves} is false and callers query the database.
+ */
+@Component
+@Slf4j
+public class AlertReadModel implements SmartInitializingSingleton {
+
+    private static final Comparator<FraudAlertDto> NEWEST_FIRST = Comparator
+            .comparing(FraudAlertDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(FraudAlertDto::getId, Comparator.reverseOrder());
+
+    private final FraudAlertRepo repo;
+    private final FraudAlertMapper mapper;
+    private final boolean enabled;
+    private final Set<String> statuses;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<FraudAlertDto> appliedDuringRebuild; // non-null while a rebuild is loading
+    private volatile boolean ready;
+
+    public AlertReadModel(FraudAlertRepo repo,
+                          FraudAlertMapper mapper,
+                          @Value("${app.alerts.read-model.enabled:true}") boolean enabled,
+                          @Value("${app.alerts.read-model.statuses:OPEN}") Set<String> statuses) {
+        this.repo = repo;
+        this.mapper = mapper;
+        this.enabled = enabled;
+        this.statuses = Set.copyOf(statuses);
+    }
+
+    /**
+     * Whether list calls for the status can be answered from memory.
+     */
+    public boolean serves(String status) {
+        return ready && statuses.contains(status);
+    }
+
+    /**
+     * Alerts with the status, optionally of one account, newest first.
+     */
+    public List<FraudAlertDto> list(String status, String accountId) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<FraudAlertDto> alerts = accountId == null
+                    ? index.byStatus.get(status)
+                    : index.byStatusAndAccount.getOrDefault(status, Map.of()).get(accountId);
+            return alerts == null ? List.of() : new ArrayList<>(alerts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Record a committed alert insert or status change.
+     */
+    public void apply(FraudAlertEntity alert) {
+        if (!enabled || alert == null || alert.getId() == null) return;
+        FraudAlertDto dto = mapper.toDto(alert);
+        lock.writeLock().lock();
+        try {
+            index.put(dto, statuses);
+            if (appliedDuringRebuild != null) {
+                appliedDuringRebuild.add(dto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Reload the indexed statuses from the database and swap them in; changes applied while loading are replayed
+     * on top, so none is lost to the swap.
+     */
+    @Scheduled(initialDelayString = "${app.alerts.read-model.resync-interval:5m}",
+            fixedDelayString = "${app.alerts.read-model.resync-interval:5m}")
+    public synchronized void rebuild() {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            appliedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        try {
+            for (String status : statuses) {
+                repo.findByStatusOrderByCreatedAtDesc(status).forEach(a -> fresh.put(mapper.toDto(a), statuses));
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                appliedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            appliedDuringRebuild.forEach(dto -> fresh.put(dto, statuses));
+            appliedDuringRebuild = null;
+            index = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Alert read model rebuilt: {} alerts in {} ms", fresh.byId.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** The indexes themselves; not thread-safe, guarded by the read model's lock. */
+    private static final class Index {
+        private final Map<Long, FraudAlertDto> byId = new HashMap<>();
+        private final Map<String, NavigableSet<FraudAlertDto>> byStatus = new HashMap<>();
+        private final Map<String, Map<String, NavigableSet<FraudAlertDto>>> byStatusAndAccount = new HashMap<>();
+
+        void put(FraudAlertDto alert, Set<String> indexed) {
+            FraudAlertDto previous = byId.remove(alert.getId());
+            if (previous != null) {
+                remove(previous);
+            }
+            if (!indexed.contains(alert.getStatus())) return;
+
+            byId.put(alert.getId(), alert);
+            byStatus.computeIfAbsent(alert.getStatus(), s -> new TreeSet<>(NEWEST_FIRST)).add(alert);
+            byStatusAndAccount.computeIfAbsent(alert.getStatus(), s -> new HashMap<>())
+                    .computeIfAbsent(alert.getAccountId(), a -> new TreeSet<>(NEWEST_FIRST))
+                    .add(alert);
+        }
+
+        private void remove(FraudAlertDto alert) {
+            NavigableSet<FraudAlertDto> all = byStatus.get(alert.getStatus());
+            if (all != null) all.remove(alert);
+            Map<String, NavigableSet<FraudAlertDto>> accounts = byStatusAndAccount.get(alert.getStatus());
+            if (accounts == null) return;
+            NavigableSet<FraudAlertDto> ofAccount = accounts.get(alert.getAccountId());
+            if (ofAccount != null) {
+                ofAccount.remove(alert);
+                if (ofAccount.isEmpty()) accounts.remove(alert.getAccountId());
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.exam.fraudmonitorapp.service.blacklist;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Current merchant blacklist, reloaded when the file behind app.blacklist.file changes.
+ * - File format: one merchant per line; "#" starts a comment; a line starting with "*" is a substring
+ *   pattern ("*PHISH*" matches any merchant containing PHISH), anything else must match the whole name. Only the
+ *   leading and one trailing "*" are stripped; one inside the pattern is punctuation like any other.
+ * - The file is polled every app.blacklist.reload-interval. A new matcher is built off the request path and
+ *   published through a volatile field, so lookups never block and always see one complete list.
+ * - A file that fails to parse, or changes while being read, keeps the previous list until the next poll.
+ *   Replace the file with an atomic move to avoid the latter.
+ * - Without app.blacklist.file the built-in default list is used.
+ */
+@Component
+@Slf4j
+public class MerchantBlacklist {
+
+    static final List<String> DEFAULT_MERCHANTS = List.of("SCAM MART", "DODGY DEALS", "PHISH PAY");
+
+    private static final String PATTERN_PREFIX = "*";
+    private static final String COMMENT = "#";
+
+    private final Path file;
+    private volatile MerchantMatcher matcher;
+    private FileStamp loaded;
+
+    public MerchantBlacklist(@Value("${app.blacklist.file:}") String file) {
+        this.file = (file == null || file.isBlank()) ? null : Path.of(file);
+        if (this.file == null) {
+            this.matcher = MerchantMatcher.of(DEFAULT_MERCHANTS, List.of());
+        } else if (!reloadIfChanged()) {
+            throw new IllegalStateException("Merchant blacklist could not be loaded from " + this.file);
+        }
+    }
+
+    public boolean matches(CharSequence merchant) {
+        return matcher.matches(merchant);
+    }
+
+    public MerchantMatcher current() {
+        return matcher;
+    }
+
+    /**
+     * Re-read the file if its size or modification time changed since the last successful load.
+     *
+     * @return true when a new list was published
+     */
+    @Scheduled(fixedDelayString = "${app.blacklist.reload-interval:10s}")
+    public synchronized boolean reloadIfChanged() {
+        if (file == null) return false;
+        try {
+            FileStamp before = FileStamp.of(file);
+            if (before.equals(loaded)) return false;
+
+            long start = System.nanoTime();
+            MerchantMatcher next = parse(file);
+            if (!before.equals(FileStamp.of(file))) {
+                log.warn("Merchant blacklist {} changed while loading, retrying on the next poll", file);
+                return false;
+            }
+            matcher = next;
+            loaded = before;
+            log.info("Merchant blacklist loaded from {}: {} names, {} patterns in {} ms",
+                    file, next.exactCount(), next.patternCount(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | UncheckedIOException ex) {
+            log.error("Merchant blacklist {} could not be loaded, keeping the current list: {}", file, ex.toString());
+            return false;
+        }
+    }
+
+    static MerchantMatcher parse(Path file) throws IOException {
+        List<String> exact = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith(COMMENT)) continue;
+                if (line.startsWith(PATTERN_PREFIX)) {
+                    patterns.add(pattern(line));
+                } else {
+                    exact.add(line);
+                }
+            }
+        }
+        return MerchantMatcher.of(exact, patterns);
+    }
+
+    /** "*PHISH*" and "*PHISH" both give PHISH; "*PAY*PAL*" gives "PAY*PAL", so it matches "pay pal". */
+    private static String pattern(String line) {
+        String pattern = line.substring(PATTERN_PREFIX.length());
+        return pattern.endsWith(PATTERN_PREFIX) ? pattern.substring(0, pattern.length() - PATTERN_PREFIX.length()) : pattern;
+    }
+
+    private record FileStamp(FileTime modified, long size) {
+
+        static FileStamp of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+        }
+    }
+}
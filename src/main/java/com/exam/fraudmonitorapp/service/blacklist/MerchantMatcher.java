@@ -0,0 +1,250 @@
+package com.exam.fraudmonitorapp.service.blacklist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable merchant blacklist: exact names plus substring patterns, compared after normalization.
+ * - Normalization: letters and digits upper-cased, every run of other characters collapsed to one space,
+ *   trimmed; "Scam-Mart." and "scam  mart" both become "SCAM MART".
+ * - Exact names live in an open-addressing hash table, substring patterns in an Aho-Corasick automaton
+ *   flattened into arrays (edges sorted per state, binary searched).
+ * - Lookups normalize on the fly while hashing / walking, so a call allocates nothing.
+ */
+public final class MerchantMatcher {
+
+    private static final int ROOT = 0;
+
+    // Exact names
+    private final String[] table;
+    private final int[] hashes;
+    private final int mask;
+    private final int exactCount;
+
+    // Aho-Corasick: edges of state s are edgeChar/edgeTarget[firstEdge[s] .. firstEdge[s + 1])
+    private final int[] firstEdge;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    private final int[] fail;
+    private final boolean[] accepting;
+    private final int patternCount;
+
+    private MerchantMatcher(Set<String> exact, Set<String> patterns) {
+        int capacity = Integer.highestOneBit(Math.max(2, exact.size()) * 2 - 1) << 1;
+        this.table = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        for (String name : exact) {
+            int h = name.hashCode();
+            int slot = spread(h) & mask;
+            while (table[slot] != null) slot = (slot + 1) & mask;
+            table[slot] = name;
+            hashes[slot] = h;
+        }
+        this.exactCount = exact.size();
+
+        // Build the trie with maps, then flatten
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        children.add(new HashMap<>());
+        terminal.add(false);
+        for (String pattern : patterns) {
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = children.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    terminal.add(false);
+                    children.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            terminal.set(state, true);
+        }
+
+        int states = children.size();
+        int edges = children.stream().mapToInt(Map::size).sum();
+        this.firstEdge = new int[states + 1];
+        this.edgeChar = new char[edges];
+        this.edgeTarget = new int[edges];
+        int e = 0;
+        for (int s = 0; s < states; s++) {
+            firstEdge[s] = e;
+            Character[] keys = children.get(s).keySet().toArray(new Character[0]);
+            Arrays.sort(keys);
+            for (Character c : keys) {
+                edgeChar[e] = c;
+                edgeTarget[e] = children.get(s).get(c);
+                e++;
+            }
+        }
+        firstEdge[states] = e;
+
+        // Failure links breadth-first; a state accepts if any suffix of it is a pattern
+        this.fail = new int[states];
+        this.accepting = new boolean[states];
+        for (int s = 0; s < states; s++) accepting[s] = terminal.get(s);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = firstEdge[ROOT]; i < firstEdge[ROOT + 1]; i++) {
+            fail[edgeTarget[i]] = ROOT;
+            queue.add(edgeTarget[i]);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int i = firstEdge[s]; i < firstEdge[s + 1]; i++) {
+                int child = edgeTarget[i];
+                int f = fail[s];
+                int target;
+                while ((target = edge(f, edgeChar[i])) < 0 && f != ROOT) f = fail[f];
+                fail[child] = target < 0 ? ROOT : target;
+                accepting[child] |= accepting[fail[child]];
+                queue.add(child);
+            }
+        }
+        this.patternCount = patterns.size();
+    }
+
+    /**
+     * @param exact      merchant names matched as a whole
+     * @param substrings fragments matched anywhere in the merchant name
+     */
+    public static MerchantMatcher of(Collection<String> exact, Collection<String> substrings) {
+        return new MerchantMatcher(normalizeAll(exact), normalizeAll(substrings));
+    }
+
+    public boolean matches(CharSequence merchant) {
+        if (merchant == null) return false;
+        return containsExact(merchant) || containsPattern(merchant);
+    }
+
+    public int exactCount() {
+        return exactCount;
+    }
+
+    public int patternCount() {
+        return patternCount;
+    }
+
+    private boolean containsExact(CharSequence merchant) {
+        int h = 0;
+        int length = 0;
+        boolean gap = false;
+        for (int i = 0, n = merchant.length(); i < n; i++) {
+            char c = merchant.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && length > 0) {
+                    h = 31 * h + ' ';
+                    length++;
+                }
+                gap = false;
+                h = 31 * h + Character.toUpperCase(c);
+                length++;
+            } else {
+                gap = true;
+            }
+        }
+        if (length == 0) return false;
+
+        for (int slot = spread(h) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == h && table[slot].length() == length && equalsNormalized(table[slot], merchant)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsNormalized(String normalized, CharSequence merchant) {
+        int k = 0;
+        boolean gap = false;
+        for (int i = 0, n = merchant.length(); i < n; i++) {
+            char c = merchant.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && k > 0 && normalized.charAt(k++) != ' ') return false;
+                gap = false;
+                if (normalized.charAt(k++) != Character.toUpperCase(c)) return false;
+            } else {
+                gap = true;
+            }
+        }
+        return k == normalized.length();
+    }
+
+    private boolean containsPattern(CharSequence merchant) {
+        if (patternCount == 0) return false;
+        int state = ROOT;
+        boolean started = false;
+        boolean gap = false;
+        for (int i = 0, n = merchant.length(); i < n; i++) {
+            char c = merchant.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && started) {
+                    state = step(state, ' ');
+                    if (accepting[state]) return true;
+                }
+                gap = false;
+                started = true;
+                state = step(state, Character.toUpperCase(c));
+                if (accepting[state]) return true;
+            } else {
+                gap = true;
+            }
+        }
+        return false;
+    }
+
+    private int step(int state, char c) {
+        int next;
+        while ((next = edge(state, c)) < 0 && state != ROOT) state = fail[state];
+        return next < 0 ? ROOT : next;
+    }
+
+    private int edge(int state, char c) {
+        int lo = firstEdge[state];
+        int hi = firstEdge[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeChar[mid];
+            if (m < c) lo = mid + 1;
+            else if (m > c) hi = mid - 1;
+            else return edgeTarget[mid];
+        }
+        return -1;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    static String normalize(CharSequence raw) {
+        StringBuilder sb = new StringBuilder(raw.length());
+        boolean gap = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && !sb.isEmpty()) sb.append(' ');
+                gap = false;
+                sb.append(Character.toUpperCase(c));
+            } else {
+                gap = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Set<String> normalizeAll(Collection<String> raw) {
+        Set<String> out = new LinkedHashSet<>(raw.size() * 2);
+        for (String s : raw) {
+            String n = normalize(s);
+            if (!n.isEmpty()) out.add(n);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,124 @@
+package com.exam.fraudmonitorapp.service.cache;
+
+/**
+ * Known devices of one account.
+ * - Small accounts: an exact open-addressing (linear probing) set of device ids.
+ * - Once more than {@code maxExact} devices are seen, every device also goes into a Bloom filter and the
+ *   exact set only keeps the most recent ones; a Bloom "maybe" that misses the exact set is {@link Membership#UNKNOWN}.
+ * - Not thread-safe; callers synchronize per account.
+ */
+final class DeviceSet {
+
+    enum Membership { KNOWN, NEW, UNKNOWN }
+
+    private final int maxExact;
+    private final int bloomBits;
+    private final int bloomHashes;
+
+    private String[] slots;
+    private int size;
+    private long[] bloom; // null until the account outgrows the exact set
+
+    DeviceSet(int maxExact, int bloomBits, int bloomHashes) {
+        this.maxExact = maxExact;
+        this.bloomBits = bloomBits;
+        this.bloomHashes = bloomHashes;
+        this.slots = new String[tableSizeFor(Math.min(maxExact, 8))];
+    }
+
+    Membership lookup(String deviceId) {
+        if (containsExact(deviceId)) return Membership.KNOWN;
+        if (bloom == null) return Membership.NEW;
+        return mightContain(deviceId) ? Membership.UNKNOWN : Membership.NEW;
+    }
+
+    void add(String deviceId) {
+        if (bloom != null) {
+            bloomAdd(deviceId);
+        }
+        if (containsExact(deviceId)) return;
+
+        if (size == maxExact) {
+            if (bloom == null) {
+                // Outgrown: move every known device into the filter, then keep only recent ones exactly
+                bloom = new long[(bloomBits + 63) >>> 6];
+                for (String d : slots) {
+                    if (d != null) bloomAdd(d);
+                }
+                bloomAdd(deviceId);
+            }
+            slots = new String[slots.length];
+            size = 0;
+        } else if ((size + 1) * 4 > slots.length * 3) {
+            resize();
+        }
+        insert(deviceId);
+    }
+
+    int exactSize() {
+        return size;
+    }
+
+    boolean isLarge() {
+        return bloom != null;
+    }
+
+    private boolean containsExact(String deviceId) {
+        int mask = slots.length - 1;
+        for (int i = spread(deviceId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            String d = slots[i];
+            if (d == null) return false;
+            if (d.equals(deviceId)) return true;
+        }
+    }
+
+    private void insert(String deviceId) {
+        int mask = slots.length - 1;
+        int i = spread(deviceId.hashCode()) & mask;
+        while (slots[i] != null) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = deviceId;
+        size++;
+    }
+
+    private void resize() {
+        String[] old = slots;
+        slots = new String[old.length << 1];
+        size = 0;
+        for (String d : old) {
+            if (d != null) insert(d);
+        }
+    }
+
+    private void bloomAdd(String deviceId) {
+        int h1 = spread(deviceId.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        for (int k = 0; k < bloomHashes; k++) {
+            int bit = Math.floorMod(h1 + k * h2, bloomBits);
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean mightContain(String deviceId) {
+        int h1 = spread(deviceId.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        for (int k = 0; k < bloomHashes; k++) {
+            int bit = Math.floorMod(h1 + k * h2, bloomBits);
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static int tableSizeFor(int entries) {
+        int n = Integer.highestOneBit(Math.max(2, entries) * 2 - 1) << 1;
+        return Math.max(4, n);
+    }
+}
@@ -0,0 +1,156 @@
+package com.exam.fraudmonitorapp.service.cache;
+
+import com.exam.fraudmonitorapp.repo.TransactionHistoryRepo;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-account set of known device ids for the new-device rule.
+ * - An account is loaded from the repository once and then kept current via {@link #record}. The account's entry
+ *   exists before the device query runs: devices recorded before or during the load are kept in it and added after
+ *   the loaded ones, so a device committed while the query runs is never lost.
+ * - Accounts with very large histories are fronted by a Bloom filter; only a Bloom "maybe" that is not in the
+ *   recent exact set is confirmed against the repository.
+ * - Loads and confirmations also look at the rows still queued by write-behind, which the database cannot see yet.
+ * - Idle accounts are evicted by a scheduled sweep.
+ */
+@Component
+@Slf4j
+public class KnownDeviceCache {
+
+    private static final int BLOOM_HASHES = 4;
+
+    private final TransactionHistoryRepo repo;
+    private final UnflushedTransactions unflushed;
+    private final int maxExact;
+    private final int bloomBits;
+    private final Duration idleTtl;
+    private final Map<String, AccountDevices> accounts = new ConcurrentHashMap<>();
+
+    public KnownDeviceCache(TransactionHistoryRepo repo,
+                            UnflushedTransactions unflushed,
+                            @Value("${app.devices.max-exact:32}") int maxExact,
+                            @Value("${app.devices.bloom-bits:8192}") int bloomBits,
+                            @Value("${app.devices.idle-ttl:30m}") Duration idleTtl) {
+        if (maxExact <= 0 || bloomBits <= 0) {
+            throw new IllegalArgumentException("max-exact and bloom-bits must be positive");
+        }
+        this.repo = Objects.requireNonNull(repo, "TransactionHistoryRepo must not be null");
+        this.unflushed = Objects.requireNonNull(unflushed, "UnflushedTransactions must not be null");
+        this.maxExact = maxExact;
+        this.bloomBits = bloomBits;
+        this.idleTtl = Objects.requireNonNull(idleTtl, "idleTtl must not be null");
+    }
+
+    /**
+     * Whether the device was used by the account before.
+     */
+    public boolean isKnown(String accountId, String deviceId) {
+        AccountDevices state = accounts.get(accountId);
+        if (state == null || !state.loaded) {
+            state = load(accountId);
+        }
+
+        DeviceSet.Membership membership = state.lookup(deviceId);
+        if (membership != DeviceSet.Membership.UNKNOWN) {
+            return membership == DeviceSet.Membership.KNOWN;
+        }
+        // Bloom "maybe" on a large account: confirm, and keep the answer in the recent set
+        boolean known = unflushed.hasDevice(accountId, deviceId) || repo.existsByAccountIdAndDeviceId(accountId, deviceId);
+        if (known) {
+            state.add(deviceId);
+        }
+        return known;
+    }
+
+    /**
+     * Record a device seen on an accepted transaction. For an account that is not loaded yet the device is kept
+     * until its history is, then added to it.
+     */
+    public void record(String accountId, String deviceId) {
+        if (accountId == null || deviceId == null || deviceId.isBlank()) return;
+        accounts.computeIfAbsent(accountId, a -> newAccount()).add(deviceId);
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.devices.eviction-interval:1m}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+        int before = accounts.size();
+        accounts.values().removeIf(state -> state.lastAccess <= cutoff);
+        int evicted = before - accounts.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle accounts from device cache", evicted);
+        }
+    }
+
+    private AccountDevices load(String accountId) {
+        // Reserve the entry first: from here on record() lands in it, whatever the query below sees
+        AccountDevices state = accounts.computeIfAbsent(accountId, a -> newAccount());
+        if (state.loaded) return state;
+        // Read the queued rows before the database: one flushed while the query runs is then seen at least once.
+        // They are the most recent, so they go in last.
+        List<String> queued = unflushed.deviceIds(accountId);
+        List<String> devices = repo.findDistinctDeviceIdsByAccountId(accountId);
+        List<String> history = new ArrayList<>(devices == null ? List.of() : devices);
+        history.addAll(queued);
+        state.merge(history);
+        return state;
+    }
+
+    private AccountDevices newAccount() {
+        return new AccountDevices(new DeviceSet(maxExact, bloomBits, BLOOM_HASHES));
+    }
+
+    /** Device set of one account, guarded by the instance monitor. */
+    private static final class AccountDevices {
+        private final DeviceSet devices;
+        private Set<String> unloaded = new LinkedHashSet<>(); // devices recorded before the history merge; null after
+        private volatile boolean loaded;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        AccountDevices(DeviceSet devices) {
+            this.devices = devices;
+        }
+
+        synchronized DeviceSet.Membership lookup(String deviceId) {
+            lastAccess = System.currentTimeMillis();
+            return devices.lookup(deviceId);
+        }
+
+        synchronized void add(String deviceId) {
+            lastAccess = System.currentTimeMillis();
+            if (unloaded != null) {
+                unloaded.add(deviceId);
+            } else {
+                devices.add(deviceId);
+            }
+        }
+
+        /**
+         * Add the loaded history once, then the devices recorded meanwhile, so those count as the most recent.
+         */
+        synchronized void merge(List<String> history) {
+            if (loaded) return;
+            history.stream().filter(Objects::nonNull).forEach(devices::add);
+            unloaded.forEach(devices::add);
+            unloaded = null;
+            loaded = true;
+        }
+    }
+}
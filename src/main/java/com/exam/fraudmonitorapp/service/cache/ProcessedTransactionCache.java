@@ -0,0 +1,101 @@
+package com.exam.fraudmonitorapp.service.cache;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recently stored results keyed by (accountId, upstream transactionId), so retried submissions are answered
+ * without re-scoring or another insert.
+ * - Bounded LRU: the least recently used key is dropped once max-entries is reached.
+ * - Entries expire after the ttl; a miss falls back to the (accountId, transaction_id) unique constraint.
+ * - Only committed results are put here, so a rolled back transaction is never replayed.
+ * - A submission that is not stored yet holds a claim on its key, so a concurrent resubmission is turned away
+ *   instead of passing the lookup as well.
+ */
+@Component
+public class ProcessedTransactionCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final Set<Key> claims = ConcurrentHashMap.newKeySet();
+
+    public ProcessedTransactionCache(@Value("${app.dedupe.max-entries:100000}") int maxEntries,
+                                     @Value("${app.dedupe.ttl:10m}") Duration ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("max-entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = Objects.requireNonNull(ttl, "ttl must not be null").toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ProcessedTransactionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Stored result of an earlier submission, or null when unknown or expired.
+     */
+    public TransactionEventDto get(String accountId, Long transactionId) {
+        if (accountId == null || transactionId == null) return null;
+        Key key = new Key(accountId, transactionId);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) return null;
+            if (System.nanoTime() - entry.storedAt > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.result;
+        }
+    }
+
+    /**
+     * Remember a committed result. Submissions without an upstream transactionId are not deduplicated.
+     */
+    public void put(TransactionEventDto result) {
+        if (result == null || result.getAccountId() == null || result.getTransactionId() == null) return;
+        Key key = new Key(result.getAccountId(), result.getTransactionId());
+        synchronized (entries) {
+            entries.put(key, new Entry(result, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Claim a key for an in-flight submission until {@link #release}. Submissions without an upstream
+     * transactionId always succeed.
+     *
+     * @return false while another submission holds the claim
+     */
+    public boolean claim(String accountId, Long transactionId) {
+        if (accountId == null || transactionId == null) return true;
+        return claims.add(new Key(accountId, transactionId));
+    }
+
+    public void release(String accountId, Long transactionId) {
+        if (accountId == null || transactionId == null) return;
+        claims.remove(new Key(accountId, transactionId));
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Key(String accountId, long transactionId) {
+    }
+
+    private record Entry(TransactionEventDto result, long storedAt) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.exam.fraudmonitorapp.service.cache;
+
+/**
+ * Ring of fixed-width time buckets with a running total.
+ * - The head is the newest bucket seen; advancing it clears the buckets that fall out of the window.
+ * - count() is O(1) when asked at (or after) the head bucket; older instants cannot be answered.
+ * - Not thread-safe; callers synchronize per account.
+ */
+final class SlidingWindowCounter {
+
+    /** Returned by {@link #count(long)} when the instant is behind the head and the ring cannot answer it. */
+    static final int UNANSWERABLE = -1;
+
+    private final long bucketMillis;
+    private final int[] counts;
+    private long head = Long.MIN_VALUE; // absolute bucket number of the newest bucket
+    private int total;
+
+    SlidingWindowCounter(long windowMillis, int buckets) {
+        if (windowMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("window and bucket count must be positive");
+        }
+        this.counts = new int[buckets];
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+    }
+
+    void record(long epochMillis) {
+        long bucket = epochMillis / bucketMillis;
+        advanceTo(bucket);
+        if (bucket <= head - counts.length) return; // older than the ring, nothing to count
+        counts[index(bucket)]++;
+        total++;
+    }
+
+    /**
+     * Number of events in the window ending at the given instant, at bucket granularity.
+     * @return the count, or {@link #UNANSWERABLE} when the instant is older than the head bucket
+     */
+    int count(long epochMillis) {
+        long bucket = epochMillis / bucketMillis;
+        if (head != Long.MIN_VALUE && bucket < head) return UNANSWERABLE;
+        advanceTo(bucket);
+        return total;
+    }
+
+    private void advanceTo(long bucket) {
+        if (head == Long.MIN_VALUE) {
+            head = bucket;
+            return;
+        }
+        if (bucket <= head) return;
+
+        long steps = Math.min(bucket - head, counts.length);
+        for (long b = bucket - steps + 1; b <= bucket; b++) {
+            int i = index(b);
+            total -= counts[i];
+            counts[i] = 0;
+        }
+        head = bucket;
+    }
+
+    private int index(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+}
@@ -0,0 +1,210 @@
+package com.exam.fraudmonitorapp.service.cache;
+
+import com.exam.fraudmonitorapp.repo.TransactionHistoryRepo;
+import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per-account transaction counters over sliding windows (the velocity window plus configured longer ones).
+ * - Each window is a ring of {@value #BUCKETS_PER_WINDOW} buckets, so counts are O(1) and bucket-granular.
+ * - An account is loaded from the repository once (event times only) and then kept current via {@link #record}.
+ *   The account's entry exists before the history query runs: events recorded before or during the load are kept
+ *   in it and merged with the history (matched by event time), so an event committed while the query runs, or
+ *   still waiting in the write-behind queue, is never missed. At worst one committed just before the query and
+ *   recorded after it counts twice.
+ * - History reads (the load and the fallback count) add the rows still queued by write-behind, which the
+ *   database cannot see yet; they are read first, so a row flushed meanwhile may count twice but is never missed.
+ * - Falls back to a repository count when the account is not cached or the instant is behind the ring head.
+ * - Idle accounts are evicted by a scheduled sweep.
+ */
+@Component
+@Slf4j
+public class VelocityIndex {
+
+    static final int BUCKETS_PER_WINDOW = 60;
+
+    private final TransactionHistoryRepo repo;
+    private final UnflushedTransactions unflushed;
+    private final List<Duration> windows;
+    private final Duration longestWindow;
+    private final Duration idleTtl;
+    private final Map<String, AccountWindows> accounts = new ConcurrentHashMap<>();
+
+    public VelocityIndex(TransactionHistoryRepo repo,
+                         UnflushedTransactions unflushed,
+                         @Value("${app.velocity.windows:1h,24h}") List<Duration> extraWindows,
+                         @Value("${app.velocity.idle-ttl:30m}") Duration idleTtl) {
+        this.repo = Objects.requireNonNull(repo, "TransactionHistoryRepo must not be null");
+        this.unflushed = Objects.requireNonNull(unflushed, "UnflushedTransactions must not be null");
+        this.idleTtl = Objects.requireNonNull(idleTtl, "idleTtl must not be null");
+
+        List<Duration> all = new ArrayList<>();
+        all.add(Duration.ofMinutes(TransactionalConstant.VELOCITY_WINDOW_MINUTES));
+        if (extraWindows != null) {
+            extraWindows.stream().filter(w -> !all.contains(w)).forEach(all::add);
+        }
+        all.sort(null);
+        this.windows = List.copyOf(all);
+        this.longestWindow = this.windows.get(this.windows.size() - 1);
+    }
+
+    /**
+     * Count the account's transactions in {@code window} ending at {@code at}.
+     * @param window one of the configured windows
+     */
+    public long count(String accountId, Duration window, LocalDateTime at) {
+        int slot = windows.indexOf(window);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Window not configured: " + window);
+        }
+
+        AccountWindows state = accounts.get(accountId);
+        if (state == null || !state.loaded) {
+            state = load(accountId, at);
+        }
+
+        int cached = state.count(slot, toMillis(at));
+        if (cached != SlidingWindowCounter.UNANSWERABLE) {
+            return cached;
+        }
+        // Out-of-order instant: the ring has moved past it, so ask the database (and the write-behind queue)
+        long queued = unflushed.eventTimes(accountId, at.minus(window), at).size();
+        return queued + repo.countByAccountIdAndEventTimeBetween(accountId, at.minus(window), at);
+    }
+
+    /**
+     * Record an accepted transaction. For an account that is not loaded yet the event is kept until its history
+     * is, then merged with it.
+     */
+    public void record(String accountId, LocalDateTime eventTime) {
+        if (accountId == null || eventTime == null) return;
+        accounts.computeIfAbsent(accountId, a -> new AccountWindows(windows, longestWindow))
+                .record(toMillis(eventTime));
+    }
+
+    /**
+     * Seed an account from replayed event times instead of loading it from the repository; the times must cover
+     * the longest window. Accounts that are already cached are left alone.
+     */
+    public void restore(String accountId, List<LocalDateTime> eventTimes) {
+        if (accountId == null || eventTimes == null || eventTimes.isEmpty()) return;
+        AccountWindows fresh = new AccountWindows(windows, longestWindow);
+        fresh.merge(eventTimes);
+        accounts.putIfAbsent(accountId, fresh);
+    }
+
+    /** Windows answered by this index, shortest first. */
+    public List<Duration> windows() {
+        return windows;
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.velocity.eviction-interval:1m}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+        int before = accounts.size();
+        accounts.values().removeIf(state -> state.lastAccess <= cutoff);
+        int evicted = before - accounts.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle accounts from velocity index", evicted);
+        }
+    }
+
+    private AccountWindows load(String accountId, LocalDateTime at) {
+        // Reserve the entry first: from here on record() lands in it, whatever the query below sees
+        AccountWindows state = accounts.computeIfAbsent(accountId, a -> new AccountWindows(windows, longestWindow));
+        if (state.loaded) return state;
+        LocalDateTime since = at.minus(longestWindow);
+        List<LocalDateTime> history = new ArrayList<>(unflushed.eventTimes(accountId, since, LocalDateTime.MAX));
+        List<LocalDateTime> stored = repo.findEventTimesByAccountIdSince(accountId, since);
+        if (stored != null) {
+            history.addAll(stored);
+        }
+        state.merge(history);
+        return state;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** All window counters for one account, guarded by the instance monitor. */
+    private static final class AccountWindows {
+        private final SlidingWindowCounter[] counters;
+        private final long longestMillis;
+        private Deque<Long> unloaded = new ArrayDeque<>(); // events recorded before the history merge; null after
+        private volatile boolean loaded;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        AccountWindows(List<Duration> windows, Duration longestWindow) {
+            counters = new SlidingWindowCounter[windows.size()];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new SlidingWindowCounter(windows.get(i).toMillis(), BUCKETS_PER_WINDOW);
+            }
+            longestMillis = longestWindow.toMillis();
+        }
+
+        synchronized void record(long epochMillis) {
+            lastAccess = System.currentTimeMillis();
+            add(epochMillis);
+            if (unloaded != null) {
+                unloaded.addLast(epochMillis);
+                // Only events inside the longest window can come back from the history query
+                while (unloaded.peekFirst() < epochMillis - longestMillis) {
+                    unloaded.pollFirst();
+                }
+            }
+        }
+
+        /**
+         * Add the loaded history once, skipping the events that were already recorded here.
+         */
+        synchronized void merge(List<LocalDateTime> history) {
+            if (loaded) return;
+            Map<Long, Integer> recorded = new HashMap<>();
+            unloaded.forEach(t -> recorded.merge(t, 1, Integer::sum));
+            history.stream().filter(Objects::nonNull).map(VelocityIndex::toMillis).sorted().forEach(t -> {
+                Integer seen = recorded.get(t);
+                if (seen == null) {
+                    add(t);
+                } else if (seen == 1) {
+                    recorded.remove(t);
+                } else {
+                    recorded.put(t, seen - 1);
+                }
+            });
+            unloaded = null;
+            loaded = true;
+        }
+
+        private void add(long epochMillis) {
+            for (SlidingWindowCounter counter : counters) {
+                counter.record(epochMillis);
+            }
+        }
+
+        synchronized int count(int slot, long epochMillis) {
+            lastAccess = System.currentTimeMillis();
+            return counters[slot].count(epochMillis);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.exam.fraudmonitorapp.service.journal;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of accepted transactions in memory-mapped segment files (format in {@link JournalCodec}).
+ * - Every accepted transaction is appended once: after commit for synchronous inserts, before the response for
+ *   rows left to the write-behind writer (pending), which checkpoints them once they are flushed.
+ * - Segments are named after their first sequence number and rolled when full; the mapped pages are forced to
+ *   disk every force-interval, a process crash alone loses nothing that was appended.
+ * - Closed segments older than the retention are deleted once none of their pending records is unpersisted.
+ * - On open, a torn or corrupt tail of the last segment is detected by its CRC and overwritten.
+ * - {@link #replay} reads every retained record in order; JournalRecovery uses it at boot.
+ * Appends are serialized on the instance monitor; an append is a copy into the mapped segment. The periodic force
+ * runs under its own lock and only snapshots the range to force under the monitor, so appends never wait for msync.
+ */
+@Component
+@Slf4j
+public class EventJournal {
+
+    private static final String SUFFIX = ".journal";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentSize;
+    private final Duration retention;
+    private final CRC32C crc = new CRC32C();
+    private final Object forceLock = new Object();
+    private final Deque<Segment> closed = new ArrayDeque<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private Segment active;
+    private long nextSeq = 1;
+    private long checkpointSeq;
+
+    public EventJournal(@Value("${app.journal.enabled:false}") boolean enabled,
+                        @Value("${app.journal.dir:journal}") Path dir,
+                        @Value("${app.journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.journal.retention:25h}") Duration retention) {
+        if (segmentSize.toBytes() < 4096 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segment-size must be between 4KB and 2GB");
+        }
+        this.enabled = enabled;
+        this.dir = dir;
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.retention = retention;
+        if (enabled) {
+            open();
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Append an accepted transaction.
+     *
+     * @param pending the row is not in the database yet (write-behind); it is replayed until a checkpoint covers it
+     * @return the record's sequence number, or -1 when the journal is disabled
+     */
+    public synchronized long append(TransactionEventEntity transaction, boolean pending) {
+        if (!enabled) return -1;
+        long seq = nextSeq;
+        long now = System.currentTimeMillis();
+        write(buf -> JournalCodec.encodeEvent(buf, seq, now, transaction, pending), pending ? seq : 0);
+        return seq;
+    }
+
+    /**
+     * Record that every pending transaction up to {@code persistedSeq} is in the database.
+     */
+    public synchronized void checkpoint(long persistedSeq) {
+        if (!enabled || persistedSeq <= checkpointSeq) return;
+        long seq = nextSeq;
+        long now = System.currentTimeMillis();
+        write(buf -> JournalCodec.encodeCheckpoint(buf, seq, now, persistedSeq), 0);
+        checkpointSeq = persistedSeq;
+    }
+
+    /** Highest sequence covered by a checkpoint. */
+    public synchronized long checkpointSeq() {
+        return checkpointSeq;
+    }
+
+    /** Sequence number of the last appended record, 0 when empty. */
+    public synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * Visit every retained record, oldest first.
+     */
+    public synchronized void replay(Consumer<JournalEntry> visitor) {
+        if (!enabled) return;
+        List<Segment> segments = new ArrayList<>(closed);
+        segments.add(active);
+        for (Segment segment : segments) {
+            ByteBuffer data = segment.map.duplicate();
+            int pos = 0;
+            int length;
+            while (pos < segment.writePos && (length = JournalCodec.validRecordLength(data, pos, crc)) > 0) {
+                visitor.accept(JournalCodec.decode(data.slice(pos + JournalCodec.HEADER_BYTES, length)));
+                pos += JournalCodec.HEADER_BYTES + length;
+            }
+        }
+    }
+
+    public synchronized int segmentCount() {
+        return enabled ? closed.size() + 1 : 0;
+    }
+
+    /**
+     * Force what was appended to the active segment since the last force. Records are only ever written past
+     * writePos, so the range snapshotted here is complete and can be forced while appends continue.
+     */
+    @Scheduled(fixedDelayString = "${app.journal.force-interval:1s}")
+    public void force() {
+        if (!enabled) return;
+        synchronized (forceLock) {
+            Segment segment;
+            int end;
+            synchronized (this) {
+                segment = active;
+                end = segment.writePos;
+            }
+            int start = segment.forcedPos;
+            if (end > start) {
+                segment.map.force(start, end - start);
+                segment.forcedPos = end;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.retention-check:10m}")
+    public synchronized void enforceRetention() {
+        if (!enabled) return;
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        while (!closed.isEmpty()) {
+            Segment oldest = closed.peekFirst();
+            if (oldest.lastAppend >= cutoff || oldest.maxPendingSeq > checkpointSeq) break;
+            closed.removeFirst();
+            try {
+                Files.deleteIfExists(oldest.path);
+                log.info("Deleted journal segment {}", oldest.path.getFileName());
+            } catch (IOException ex) {
+                log.warn("Could not delete journal segment {}: {}", oldest.path, ex.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (enabled) {
+            active.map.force();
+        }
+    }
+
+    private void write(Consumer<ByteBuffer> encoder, long pendingSeq) {
+        ByteBuffer payload = encode(encoder);
+        int size = JournalCodec.HEADER_BYTES + payload.remaining();
+        if (size > segmentSize) {
+            throw new IllegalStateException("Journal record of " + size + " bytes exceeds the segment size");
+        }
+        if (active.writePos + size > segmentSize) {
+            roll();
+        }
+
+        // Payload and checksum first, length last: a torn append reads as the end of the segment
+        int pos = active.writePos;
+        active.map.putInt(pos + 4, JournalCodec.checksum(payload, crc));
+        active.map.put(pos + JournalCodec.HEADER_BYTES, payload, payload.position(), payload.remaining());
+        active.map.putInt(pos, payload.remaining());
+        active.writePos = pos + size;
+        active.lastAppend = System.currentTimeMillis();
+        active.maxPendingSeq = Math.max(active.maxPendingSeq, pendingSeq);
+        nextSeq++;
+    }
+
+    private ByteBuffer encode(Consumer<ByteBuffer> encoder) {
+        while (true) {
+            scratch.clear();
+            try {
+                encoder.accept(scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException ex) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private void roll() {
+        active.map.force(); // a closed segment is complete on disk; force() only looks at the active one
+        closed.addLast(active);
+        active = createSegment(nextSeq);
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(dir)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+            }
+            for (Path file : files) {
+                Segment segment = mapSegment(file);
+                scan(segment);
+                if (active != null) closed.addLast(active);
+                active = segment;
+            }
+            if (active == null) {
+                active = createSegment(nextSeq);
+            }
+            log.info("Event journal opened in {}: {} segments, last seq {}, checkpoint {}",
+                    dir.toAbsolutePath(), closed.size() + 1, nextSeq - 1, checkpointSeq);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open event journal in " + dir, ex);
+        }
+    }
+
+    /** Find the end of valid data and the bookkeeping of one segment; clears a torn tail. */
+    private void scan(Segment segment) {
+        MappedByteBuffer data = segment.map;
+        int pos = 0;
+        int length;
+        while ((length = JournalCodec.validRecordLength(data, pos, crc)) > 0) {
+            int payload = pos + JournalCodec.HEADER_BYTES;
+            byte type = data.get(payload);
+            long seq = data.getLong(payload + 1);
+            long appendedAt = data.getLong(payload + 9);
+            if (type == JournalCodec.CHECKPOINT) {
+                checkpointSeq = Math.max(checkpointSeq, data.getLong(payload + 17));
+            } else if ((data.get(payload + 17) & 1) != 0) {
+                segment.maxPendingSeq = Math.max(segment.maxPendingSeq, seq);
+            }
+            nextSeq = Math.max(nextSeq, seq + 1);
+            segment.lastAppend = appendedAt;
+            pos = payload + length;
+        }
+        segment.writePos = pos;
+        segment.forcedPos = pos;
+        if (pos + 4 <= data.limit() && data.getInt(pos) != 0) {
+            log.warn("Journal segment {} has a torn or corrupt record at offset {}; discarding the tail",
+                    segment.path.getFileName(), pos);
+            for (int i = pos; i < data.limit(); i++) {
+                data.put(i, (byte) 0);
+            }
+            data.force();
+        }
+    }
+
+    private Segment createSegment(long firstSeq) {
+        Path path = dir.resolve(String.format("%020d%s", firstSeq, SUFFIX));
+        try {
+            Files.createFile(path);
+            return mapSegment(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, ex);
+        }
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+        } // the mapping stays valid after the channel is closed
+    }
+
+    private Segment mapSegment(Path path) throws IOException {
+        return new Segment(path, map(path));
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer map;
+        private int writePos;
+        private long lastAppend = System.currentTimeMillis();
+        private long maxPendingSeq;
+        private int forcedPos; // guarded by forceLock
+
+        Segment(Path path, MappedByteBuffer map) {
+            this.path = path;
+            this.map = map;
+        }
+    }
+}
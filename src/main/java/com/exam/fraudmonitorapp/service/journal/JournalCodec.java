@@ -0,0 +1,159 @@
+package com.exam.fraudmonitorapp.service.journal;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.model.enums.ChannelEnum;
+import com.exam.fraudmonitorapp.model.enums.CurrencyEnum;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary record format of the event journal.
+ * <pre>
+ * record  := length:int crc32c:int payload[length]
+ * payload := type:byte seq:long appendedAt:long body
+ * EVENT      body := flags:byte accountId:str transactionId:long amount:str currency:byte category:byte
+ *                    channel:byte merchant:str countryCode:str deviceId:str userEmail:str userPhone:str
+ *                    country:str fraudReason:str eventTime:time timestamp:time
+ * CHECKPOINT body := persistedSeq:long
+ * str  := length:short (-1 for null) utf8[length]
+ * time := epochSecond:long (Long.MIN_VALUE for null) nano:int, UTC
+ * </pre>
+ * A zero length marks the end of the written part of a segment; the length is written last, so a torn append
+ * reads as end of data. Enums are stored by ordinal, so constants may only be appended.
+ */
+final class JournalCodec {
+
+    static final int HEADER_BYTES = 8;
+    static final byte EVENT = 1;
+    static final byte CHECKPOINT = 2;
+
+    private static final byte FLAG_PENDING = 1;
+    private static final byte FLAG_FRAUDULENT = 2;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private static final CurrencyEnum[] CURRENCIES = CurrencyEnum.values();
+    private static final CategoryEnum[] CATEGORIES = CategoryEnum.values();
+    private static final ChannelEnum[] CHANNELS = ChannelEnum.values();
+
+    private JournalCodec() {
+    }
+
+    static void encodeEvent(ByteBuffer buf, long seq, long appendedAt, TransactionEventEntity t, boolean pending) {
+        buf.put(EVENT).putLong(seq).putLong(appendedAt);
+        buf.put((byte) ((pending ? FLAG_PENDING : 0) | (t.isFraudulent() ? FLAG_FRAUDULENT : 0)));
+        putString(buf, t.getAccountId());
+        buf.putLong(t.getTransactionId() == null ? NULL_LONG : t.getTransactionId());
+        putString(buf, t.getAmount() == null ? null : t.getAmount().toPlainString());
+        buf.put(t.getCurrency() == null ? -1 : (byte) t.getCurrency().ordinal());
+        buf.put(t.getCategory() == null ? -1 : (byte) t.getCategory().ordinal());
+        buf.put(t.getChannel() == null ? -1 : (byte) t.getChannel().ordinal());
+        putString(buf, t.getMerchant());
+        putString(buf, t.getCountryCode());
+        putString(buf, t.getDeviceId());
+        putString(buf, t.getUserEmail());
+        putString(buf, t.getUserPhone());
+        putString(buf, t.getCountry());
+        putString(buf, t.getFraudReason());
+        putTime(buf, t.getEventTime());
+        putTime(buf, t.getTimestamp());
+    }
+
+    static void encodeCheckpoint(ByteBuffer buf, long seq, long appendedAt, long persistedSeq) {
+        buf.put(CHECKPOINT).putLong(seq).putLong(appendedAt).putLong(persistedSeq);
+    }
+
+    static JournalEntry decode(ByteBuffer payload) {
+        byte type = payload.get();
+        long seq = payload.getLong();
+        long appendedAt = payload.getLong();
+        if (type == CHECKPOINT) {
+            return new JournalEntry(seq, appendedAt, null, false, payload.getLong());
+        }
+        if (type != EVENT) {
+            throw new IllegalStateException("Unknown journal record type " + type + " at seq " + seq);
+        }
+
+        byte flags = payload.get();
+        TransactionEventEntity t = new TransactionEventEntity();
+        t.setFraudulent((flags & FLAG_FRAUDULENT) != 0);
+        t.setAccountId(getString(payload));
+        long transactionId = payload.getLong();
+        t.setTransactionId(transactionId == NULL_LONG ? null : transactionId);
+        String amount = getString(payload);
+        t.setAmount(amount == null ? null : new BigDecimal(amount));
+        byte currency = payload.get();
+        t.setCurrency(currency < 0 ? null : CURRENCIES[currency]);
+        byte category = payload.get();
+        t.setCategory(category < 0 ? null : CATEGORIES[category]);
+        byte channel = payload.get();
+        t.setChannel(channel < 0 ? null : CHANNELS[channel]);
+        t.setMerchant(getString(payload));
+        t.setCountryCode(getString(payload));
+        t.setDeviceId(getString(payload));
+        t.setUserEmail(getString(payload));
+        t.setUserPhone(getString(payload));
+        t.setCountry(getString(payload));
+        t.setFraudReason(getString(payload));
+        t.setEventTime(getTime(payload));
+        t.setTimestamp(getTime(payload));
+        return new JournalEntry(seq, appendedAt, t, (flags & FLAG_PENDING) != 0, -1);
+    }
+
+    /**
+     * Length of the valid record at {@code pos}, or -1 at the end of data (zero length, torn or corrupt record).
+     */
+    static int validRecordLength(ByteBuffer segment, int pos, CRC32C crc) {
+        if (pos + HEADER_BYTES > segment.limit()) return -1;
+        int length = segment.getInt(pos);
+        if (length <= 0 || pos + HEADER_BYTES + length > segment.limit()) return -1;
+        crc.reset();
+        crc.update(segment.slice(pos + HEADER_BYTES, length));
+        return (int) crc.getValue() == segment.getInt(pos + 4) ? length : -1;
+    }
+
+    static int checksum(ByteBuffer payload, CRC32C crc) {
+        crc.reset();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        if (s == null) {
+            buf.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long for the journal");
+        }
+        buf.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        short length = buf.getShort();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putTime(ByteBuffer buf, LocalDateTime time) {
+        if (time == null) {
+            buf.putLong(NULL_LONG).putInt(0);
+        } else {
+            buf.putLong(time.toEpochSecond(ZoneOffset.UTC)).putInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buf) {
+        long seconds = buf.getLong();
+        int nano = buf.getInt();
+        return seconds == NULL_LONG ? null : LocalDateTime.ofEpochSecond(seconds, nano, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,20 @@
+package com.exam.fraudmonitorapp.service.journal;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+
+/**
+ * One decoded journal record.
+ *
+ * @param seq          journal sequence number, increasing across segments
+ * @param appendedAt   wall-clock epoch millis of the append
+ * @param transaction  the accepted transaction (EVENT records), null for checkpoints
+ * @param pending      the transaction was left to the write-behind writer and may not be in the database yet
+ * @param persistedSeq checkpoint: every pending record up to this sequence is in the database; -1 for events
+ */
+public record JournalEntry(long seq, long appendedAt, TransactionEventEntity transaction, boolean pending,
+                           long persistedSeq) {
+
+    public boolean isEvent() {
+        return transaction != null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.exam.fraudmonitorapp.service.journal;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.writebehind.CleanTransactionWriteBehind;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the event journal once all beans exist and before the web server takes traffic.
+ * - Pending (write-behind) transactions after the last checkpoint were accepted but never flushed; they are
+ *   inserted now. Rows with a transactionId are protected by the unique constraint; rows without one may be
+ *   inserted twice when the process died between a flush and its checkpoint. Startup waits at most
+ *   recovery-timeout for the database; rows still failing then are dead-lettered.
+ * - When the journal reaches back over the longest velocity window, every journaled account is seeded into the
+ *   VelocityIndex, so the first request per account needs no history query. Device sets need the full history
+ *   and keep loading lazily from the repository.
+ * - Every journaled event is folded into the AccountProfileStore, in journal order, so behavioral profiles survive
+ *   a restart for as far back as the journal goes.
+ */
+@Component
+@Slf4j
+public class JournalRecovery implements SmartInitializingSingleton {
+
+    private final EventJournal journal;
+    private final VelocityIndex velocityIndex;
+    private final AccountProfileStore profiles;
+    private final CleanTransactionWriteBehind writeBehind;
+    private final Duration recoveryTimeout;
+
+    public JournalRecovery(EventJournal journal, VelocityIndex velocityIndex, AccountProfileStore profiles,
+                           CleanTransactionWriteBehind writeBehind,
+                           @Value("${app.journal.recovery-timeout:1m}") Duration recoveryTimeout) {
+        this.journal = journal;
+        this.velocityIndex = velocityIndex;
+        this.profiles = profiles;
+        this.writeBehind = writeBehind;
+        this.recoveryTimeout = recoveryTimeout;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!journal.enabled()) return;
+        long start = System.nanoTime();
+        long checkpoint = journal.checkpointSeq();
+
+        Map<String, List<LocalDateTime>> eventTimes = new HashMap<>();
+        List<JournalEntry> unpersisted = new ArrayList<>();
+        long[] oldestAppend = {Long.MAX_VALUE};
+        journal.replay(entry -> {
+            if (!entry.isEvent()) return;
+            TransactionEventEntity t = entry.transaction();
+            oldestAppend[0] = Math.min(oldestAppend[0], entry.appendedAt());
+            eventTimes.computeIfAbsent(t.getAccountId(), a -> new ArrayList<>()).add(t.getEventTime());
+            profiles.record(t);
+            if (entry.pending() && entry.seq() > checkpoint) {
+                unpersisted.add(entry);
+            }
+        });
+
+        // 1) Accepted but never flushed by the write-behind writer
+        if (!unpersisted.isEmpty()) {
+            log.warn("Recovering {} write-behind transactions that were not persisted before the last stop", unpersisted.size());
+            writeBehind.insertRecovered(unpersisted, recoveryTimeout); // checkpoints as rows reach the database
+        }
+
+        // 2) Velocity windows, only when the journal covers the whole longest window
+        List<Duration> windows = velocityIndex.windows();
+        Duration longest = windows.get(windows.size() - 1);
+        boolean covered = oldestAppend[0] <= System.currentTimeMillis() - longest.toMillis();
+        if (covered) {
+            eventTimes.forEach(velocityIndex::restore);
+        }
+
+        log.info("Journal replay: {} accounts, {} recovered transactions, velocity {} in {} ms",
+                eventTimes.size(), unpersisted.size(), covered ? "restored" : "left to lazy loading (journal younger than " + longest + ")",
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
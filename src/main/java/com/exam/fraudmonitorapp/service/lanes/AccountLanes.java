@@ -0,0 +1,176 @@
+package com.exam.fraudmonitorapp.service.lanes;
+
+import com.exam.fraudmonitorapp.service.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer processing lanes keyed by account.
+ * - accountId is hashed onto one of app.lanes.count lanes; each lane is one virtual thread draining a bounded
+ *   mailbox, so the transactions of an account run one at a time and in submission order.
+ * - process() commits (and updates the velocity / device caches after commit) before the lane takes the next task,
+ *   so the velocity rule always counts every earlier transaction of the account exactly.
+ * - Different accounts spread over the lanes and run in parallel; keep app.lanes.count within the DB pool size.
+ * - A full mailbox blocks the submitter for up to app.lanes.submit-timeout, then fails with 503.
+ * - With app.lanes.enabled=false tasks run directly on the caller (call) or a new virtual thread (submit).
+ * - Once close() has started, submit() fails with 503; every task it accepted before that still runs.
+ * - POST /api/transactions/batch does not go through the lanes: one batch spans many accounts in one database
+ *   transaction. Its items see the history committed before the batch, like requests with lanes disabled.
+ */
+@Component
+@Slf4j
+public class AccountLanes {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final boolean enabled;
+    private final Lane[] lanes;
+    private final Duration submitTimeout;
+    private volatile boolean closed;
+
+    public AccountLanes(@Value("${app.lanes.enabled:false}") boolean enabled,
+                        @Value("${app.lanes.count:8}") int count,
+                        @Value("${app.lanes.queue-capacity:1024}") int queueCapacity,
+                        @Value("${app.lanes.submit-timeout:5s}") Duration submitTimeout) {
+        this.enabled = enabled;
+        this.submitTimeout = submitTimeout;
+        this.lanes = new Lane[enabled ? count : 0];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+        }
+        if (enabled) {
+            log.info("Account lanes enabled: {} lanes, mailbox capacity {}", count, queueCapacity);
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Run the task on the account's lane and return its completion; the task is queued before this returns,
+     * so tasks submitted one after another from the same thread keep their order per account.
+     */
+    public <T> CompletableFuture<T> submit(String accountId, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable run = () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        };
+        if (!enabled) {
+            Thread.ofVirtual().start(run);
+            return result;
+        }
+
+        Lane lane = lanes[laneOf(accountId)];
+        if (closed) throw stopped(lane);
+        try {
+            if (!lane.mailbox.offer(run, submitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ServiceBusyException("Processing lane " + lane.index + " is full, retry later");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while queueing for lane " + lane.index);
+        }
+        // close() may have started during the offer and the lane may already be gone: take the task back unless
+        // the lane has picked it up, so the future cannot be left pending
+        if (closed && lane.mailbox.remove(run)) throw stopped(lane);
+        return result;
+    }
+
+    /**
+     * Run the task on the account's lane and wait for it; exceptions thrown by the task are rethrown as-is.
+     */
+    public <T> T call(String accountId, Callable<T> task) {
+        if (!enabled) {
+            try {
+                return task.call();
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }
+        try {
+            return submit(accountId, task).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            if (ex.getCause() instanceof Error cause) throw cause;
+            throw ex;
+        }
+    }
+
+    /**
+     * Tasks waiting per lane, for monitoring.
+     */
+    public int[] queueDepths() {
+        int[] depths = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            depths[i] = lanes[i].mailbox.size();
+        }
+        return depths;
+    }
+
+    private static ServiceBusyException stopped(Lane lane) {
+        return new ServiceBusyException("Processing lane " + lane.index + " is shutting down, retry later");
+    }
+
+    int laneOf(String accountId) {
+        int h = accountId == null ? 0 : accountId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    /**
+     * Stop taking work and let every lane drain what is already queued.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        for (Lane lane : lanes) {
+            lane.running = false;
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join();
+        }
+    }
+
+    private static final class Lane implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<Runnable> mailbox;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.mailbox = new ArrayBlockingQueue<>(capacity);
+            this.thread = Thread.ofVirtual().name("account-lane-" + index).start(this);
+        }
+
+        @Override
+        public void run() {
+            while (running || !mailbox.isEmpty()) {
+                try {
+                    Runnable task = mailbox.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (task != null) task.run();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.exam.fraudmonitorapp.service.mail;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JavaMailSender configured from spring.mail.* that keeps SMTP connections open instead of connecting,
+ * handshaking and authenticating for every message.
+ * - send() queues the messages and waits for them; pool-size workers each own one connected Transport and send
+ *   whatever is queued, up to batch-size messages per turn, over it.
+ * - A connection is replaced after max-messages-per-connection messages (servers cap this), checked with NOOP
+ *   before reuse once it has been idle for validate-after, and closed after idle-timeout without traffic.
+ * - A rejected recipient fails only its message; any other error also drops the connection, the next message
+ *   reconnects.
+ * - Failures are reported per message in a MailSendException, as JavaMailSenderImpl does.
+ * - A message not picked up by a worker within send-timeout is withdrawn and reported as failed; one a worker has
+ *   already started is waited for (bounded by the mail.smtp timeouts), so a reported failure is never sent later.
+ * Workers are platform threads: the JavaMail transport does its socket I/O inside synchronized methods, which
+ * would pin virtual threads.
+ */
+@Component
+@Slf4j
+public class PooledMailSender extends JavaMailSenderImpl {
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutNanos;
+    private final long validateAfterNanos;
+    private final Duration sendTimeout;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public PooledMailSender(MailProperties mail,
+                            @Value("${app.mail.pool.enabled:true}") boolean enabled,
+                            @Value("${app.mail.pool.size:4}") int poolSize,
+                            @Value("${app.mail.pool.batch-size:50}") int batchSize,
+                            @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                            @Value("${app.mail.pool.idle-timeout:30s}") Duration idleTimeout,
+                            @Value("${app.mail.pool.validate-after:5s}") Duration validateAfter,
+                            @Value("${app.mail.pool.send-timeout:30s}") Duration sendTimeout) {
+        if (poolSize <= 0 || batchSize <= 0 || maxMessagesPerConnection <= 0) {
+            throw new IllegalArgumentException("app.mail.pool size, batch-size and max-messages-per-connection must be positive");
+        }
+        applyProperties(mail);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.validateAfterNanos = validateAfter.toNanos();
+        this.sendTimeout = sendTimeout;
+        if (enabled) {
+            for (int i = 0; i < poolSize; i++) {
+                workers.add(Thread.ofPlatform().daemon().name("smtp-" + i).start(this::run));
+            }
+            log.info("SMTP pool enabled for {}:{}: {} connections, {} messages each", getHost(), getPort(), poolSize,
+                    maxMessagesPerConnection);
+        }
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        if (!enabled) {
+            super.doSend(mimeMessages, originalMessages);
+            return;
+        }
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        List<Pending> queued = new ArrayList<>(mimeMessages.length);
+        for (int i = 0; i < mimeMessages.length; i++) {
+            Object original = originalMessages != null ? originalMessages[i] : mimeMessages[i];
+            try {
+                prepare(mimeMessages[i]);
+            } catch (MessagingException ex) {
+                failed.put(original, new MailPreparationException(ex));
+                continue;
+            }
+            Pending pending = new Pending(mimeMessages[i], original);
+            queue.add(pending);
+            // close() may have drained the queue already; take the message back unless it got there first
+            if (!running && queue.remove(pending)) {
+                failed.put(original, new MailSendException("Mail sender is shut down"));
+                continue;
+            }
+            queued.add(pending);
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (Pending pending : queued) {
+            try {
+                pending.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException ex) {
+                failed.put(pending.original, (Exception) ex.getCause());
+            } catch (TimeoutException ex) {
+                if (pending.abandon()) {
+                    failed.put(pending.original, new MailSendException("No SMTP connection within " + sendTimeout));
+                } else {
+                    awaitSending(pending, failed);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                if (pending.abandon()) {
+                    failed.put(pending.original, ex);
+                } else {
+                    awaitSending(pending, failed);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+    }
+
+    /** A worker has the message on the wire: its outcome decides, however late. */
+    private static void awaitSending(Pending pending, Map<Object, Exception> failed) {
+        try {
+            pending.result.join();
+        } catch (CompletionException ex) {
+            failed.put(pending.original, (Exception) ex.getCause());
+        }
+    }
+
+    /**
+     * Stop the workers; messages still queued fail, open connections are closed.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new MailSendException("Mail sender is shut down"));
+        }
+    }
+
+    private void run() {
+        Connection connection = null;
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(idleTimeoutNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    connection = disconnect(connection); // idle: give the server its connection back
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Pending pending : batch) {
+                    connection = send(connection, pending);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.result.completeExceptionally(new MailSendException("Mail sender is shut down")));
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        disconnect(connection);
+    }
+
+    /** Send one message; returns the connection to use for the next one (null if it had to be dropped). */
+    private Connection send(Connection connection, Pending pending) {
+        if (!pending.claim()) return connection; // the caller gave up on it
+        try {
+            connection = ready(connection);
+            MimeMessage message = pending.message;
+            Address[] recipients = message.getAllRecipients();
+            connection.transport.sendMessage(message, recipients != null ? recipients : new Address[0]);
+            connection.sent++;
+            connection.lastUsed = System.nanoTime();
+            pending.result.complete(null);
+        } catch (SendFailedException ex) {
+            pending.result.completeExceptionally(ex); // recipients rejected; the connection is still fine
+        } catch (MessagingException | RuntimeException ex) {
+            connection = disconnect(connection);
+            pending.result.completeExceptionally(ex);
+        }
+        return connection;
+    }
+
+    private Connection ready(Connection connection) throws MessagingException {
+        if (connection != null && connection.sent >= maxMessagesPerConnection) {
+            connection = disconnect(connection);
+        } else if (connection != null && System.nanoTime() - connection.lastUsed >= validateAfterNanos
+                && !connection.transport.isConnected()) { // NOOP round-trip; the server may have timed us out
+            connection = disconnect(connection);
+        }
+        if (connection == null) {
+            connection = new Connection(connectTransport());
+            log.debug("SMTP connection opened on {}", Thread.currentThread().getName());
+        }
+        return connection;
+    }
+
+    private static Connection disconnect(Connection connection) {
+        if (connection == null) return null;
+        try {
+            connection.transport.close();
+        } catch (MessagingException ex) {
+            log.debug("Closing SMTP connection failed: {}", ex.toString());
+        }
+        return null;
+    }
+
+    /** What JavaMailSenderImpl.doSend does to a message before handing it to the transport. */
+    private static void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId); // saveChanges() generates a new one
+        }
+    }
+
+    private void applyProperties(MailProperties mail) {
+        setHost(mail.getHost());
+        if (mail.getPort() != null) {
+            setPort(mail.getPort());
+        }
+        setUsername(mail.getUsername());
+        setPassword(mail.getPassword());
+        setProtocol(mail.getProtocol());
+        if (mail.getDefaultEncoding() != null) {
+            setDefaultEncoding(mail.getDefaultEncoding().name());
+        }
+        Properties properties = new Properties();
+        properties.putAll(mail.getProperties());
+        if (mail.getSsl().isEnabled()) {
+            properties.setProperty("mail." + getProtocol() + ".ssl.enable", "true");
+        }
+        setJavaMailProperties(properties);
+    }
+
+    /**
+     * A queued message. Exactly one side wins it: a worker claims it before sending, or the caller abandons it
+     * after send-timeout.
+     */
+    private static final class Pending {
+
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int ABANDONED = 2;
+
+        private final MimeMessage message;
+        private final Object original;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        Pending(MimeMessage message, Object original) {
+            this.message = message;
+            this.original = original;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+
+    private static final class Connection {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsed = System.nanoTime();
+
+        Connection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.exam.fraudmonitorapp.service.metrics;
+
+import com.exam.fraudmonitorapp.service.rules.FraudRule;
+import com.exam.fraudmonitorapp.service.state.OffHeapAccountStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters for the fraud pipeline, scraped from /actuator/prometheus.
+ * - fraud.process.stage{stage}: map, rules, save_transaction, save_alert, notification (outbox enqueue).
+ * - fraud.rule.evaluation{rule}: time spent in each FraudRule.matches call.
+ * - fraud.reason.hits{reason}: matches per fraud reason.
+ * - fraud.rule.timeouts{rule}: forked rule evaluations cancelled at the parallel deadline.
+ * - fraud.transactions.evaluated{outcome}: fraud / clean.
+ * - fraud.notification.delivery{outcome}: relay send attempts, success / failure.
+ * - fraud.notification.dead: notifications dead-lettered after max-attempts.
+ * - fraud.notification.coalesced / .throttled: notifications folded into another's digest, and digests put back
+ *   by the per-recipient rate limit.
+ * - fraud.ingest.duplicates: resubmitted transactions answered with the stored result.
+ * - fraud.writebehind.queue / .lag / .flush / .retries / .dead: write-behind depth, enqueue-to-commit lag, batch
+ *   flush time, rows kept for another attempt after a failed flush and rows moved to the dead-letter store.
+ * - fraud.journal.failed: committed transactions the event journal could not append.
+ * - fraud.admission.limit / .in-flight / .shed{priority}: adaptive concurrency limit of POST /api/transactions,
+ *   requests inside it and requests answered 429.
+ * - fraud.retention.archived{table}: rows moved to archive files by the retention job.
+ * - fraud.state.entries / .capacity / .memory / .evictions{store}: off-heap account stores; memory is the direct
+ *   memory they reserve, evictions the accounts dropped for room.
+ * Histogram buckets for every "fraud.*" timer are enabled under management.metrics.distribution, so percentiles
+ * come from histogram_quantile() and aggregate across instances.
+ * Meters are resolved once and held, so the hot path does no registry lookups.
+ */
+@Component
+public class FraudMetrics {
+
+    public static final String STAGE_MAP = "map";
+    public static final String STAGE_RULES = "rules";
+    public static final String STAGE_SAVE_TRANSACTION = "save_transaction";
+    public static final String STAGE_SAVE_ALERT = "save_alert";
+    public static final String STAGE_NOTIFICATION = "notification";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stages;
+    private final Counter fraudTransactions;
+    private final Counter cleanTransactions;
+    private final Timer deliverySuccess;
+    private final Timer deliveryFailure;
+    private final Counter deadLettered;
+    private final Counter coalesced;
+    private final Counter throttled;
+    private final Counter duplicates;
+    private final Timer writeBehindLag;
+    private final Timer writeBehindFlush;
+    private final Counter writeBehindRetries;
+    private final Counter writeBehindDead;
+    private final Counter journalFailed;
+    private final Counter shedHigh;
+    private final Counter shedNormal;
+
+    public FraudMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.stages = Map.of(
+                STAGE_MAP, stageTimer(STAGE_MAP),
+                STAGE_RULES, stageTimer(STAGE_RULES),
+                STAGE_SAVE_TRANSACTION, stageTimer(STAGE_SAVE_TRANSACTION),
+                STAGE_SAVE_ALERT, stageTimer(STAGE_SAVE_ALERT),
+                STAGE_NOTIFICATION, stageTimer(STAGE_NOTIFICATION));
+        this.fraudTransactions = transactionCounter("fraud");
+        this.cleanTransactions = transactionCounter("clean");
+        this.deliverySuccess = deliveryTimer("success");
+        this.deliveryFailure = deliveryTimer("failure");
+        this.deadLettered = Counter.builder("fraud.notification.dead")
+                .description("Fraud notifications dead-lettered after max attempts")
+                .register(registry);
+        this.coalesced = Counter.builder("fraud.notification.coalesced")
+                .description("Fraud notifications sent as part of another notification's digest")
+                .register(registry);
+        this.throttled = Counter.builder("fraud.notification.throttled")
+                .description("Fraud notification digests deferred by the per-recipient rate limit")
+                .register(registry);
+        this.duplicates = Counter.builder("fraud.ingest.duplicates")
+                .description("Resubmitted transactions answered with the stored result")
+                .register(registry);
+        this.writeBehindLag = Timer.builder("fraud.writebehind.lag")
+                .description("Time from queueing a clean transaction to its committed insert")
+                .register(registry);
+        this.writeBehindFlush = Timer.builder("fraud.writebehind.flush")
+                .description("Time spent flushing one write-behind batch")
+                .register(registry);
+        this.writeBehindRetries = Counter.builder("fraud.writebehind.retries")
+                .description("Write-behind transactions kept for another attempt after a failed flush")
+                .register(registry);
+        this.writeBehindDead = Counter.builder("fraud.writebehind.dead")
+                .description("Write-behind transactions moved to the dead-letter store")
+                .register(registry);
+        this.journalFailed = Counter.builder("fraud.journal.failed")
+                .description("Committed transactions the event journal could not append")
+                .register(registry);
+        this.shedHigh = shedCounter("high");
+        this.shedNormal = shedCounter("normal");
+    }
+
+    public Timer stage(String stage) {
+        Timer timer = stages.get(stage);
+        if (timer == null) {
+            throw new IllegalArgumentException("Unknown stage: " + stage);
+        }
+        return timer;
+    }
+
+    public Timer rule(FraudRule rule) {
+        return Timer.builder("fraud.rule.evaluation")
+                .description("Time spent evaluating a single fraud rule")
+                .tag("rule", rule.getClass().getSimpleName())
+                .register(registry);
+    }
+
+    public Counter reasonHits(String reason) {
+        return Counter.builder("fraud.reason.hits")
+                .description("Transactions matched per fraud reason")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    public Counter ruleTimeouts(FraudRule rule) {
+        return Counter.builder("fraud.rule.timeouts")
+                .description("Forked fraud rule evaluations cancelled at the parallel deadline")
+                .tag("rule", rule.getClass().getSimpleName())
+                .register(registry);
+    }
+
+    public void transactionEvaluated(boolean fraud) {
+        (fraud ? fraudTransactions : cleanTransactions).increment();
+    }
+
+    public Timer notificationDelivery(boolean success) {
+        return success ? deliverySuccess : deliveryFailure;
+    }
+
+    public void notificationDeadLettered() {
+        deadLettered.increment();
+    }
+
+    public void notificationsCoalesced(int count) {
+        coalesced.increment(count);
+    }
+
+    public void notificationThrottled() {
+        throttled.increment();
+    }
+
+    public void duplicateReplayed() {
+        duplicates.increment();
+    }
+
+    public void duplicatesReplayed(int count) {
+        duplicates.increment(count);
+    }
+
+    public void writeBehindQueue(Collection<?> queue) {
+        Gauge.builder("fraud.writebehind.queue", queue, Collection::size)
+                .description("Clean transactions waiting for the write-behind writer")
+                .register(registry);
+    }
+
+    public Timer writeBehindLag() {
+        return writeBehindLag;
+    }
+
+    public Timer writeBehindFlush() {
+        return writeBehindFlush;
+    }
+
+    public void writeBehindRetried(int count) {
+        writeBehindRetries.increment(count);
+    }
+
+    public void writeBehindDeadLettered() {
+        writeBehindDead.increment();
+    }
+
+    public void journalAppendFailed() {
+        journalFailed.increment();
+    }
+
+    public <T> void admission(T limiter, ToDoubleFunction<T> limit, ToDoubleFunction<T> inFlight) {
+        Gauge.builder("fraud.admission.limit", limiter, limit)
+                .description("Current concurrency limit of transaction ingestion")
+                .register(registry);
+        Gauge.builder("fraud.admission.in-flight", limiter, inFlight)
+                .description("Transactions currently admitted")
+                .register(registry);
+    }
+
+    public void archived(String table, long count) {
+        Counter.builder("fraud.retention.archived")
+                .description("Rows archived and deleted by the retention job")
+                .tag("table", table)
+                .register(registry)
+                .increment(count);
+    }
+
+    public void accountState(OffHeapAccountStore store) {
+        Gauge.builder("fraud.state.entries", store, OffHeapAccountStore::size)
+                .description("Accounts held by the off-heap store")
+                .tag("store", store.name())
+                .register(registry);
+        Gauge.builder("fraud.state.capacity", store, OffHeapAccountStore::capacity)
+                .description("Accounts the off-heap store holds before evicting")
+                .tag("store", store.name())
+                .register(registry);
+        Gauge.builder("fraud.state.memory", store, OffHeapAccountStore::offHeapBytes)
+                .description("Direct memory reserved by the off-heap store")
+                .baseUnit("bytes")
+                .tag("store", store.name())
+                .register(registry);
+        FunctionCounter.builder("fraud.state.evictions", store, OffHeapAccountStore::evictions)
+                .description("Accounts evicted from the full off-heap store")
+                .tag("store", store.name())
+                .register(registry);
+    }
+
+    public void admissionShed(boolean highPriority) {
+        (highPriority ? shedHigh : shedNormal).increment();
+    }
+
+    private Timer deliveryTimer(String outcome) {
+        return Timer.builder("fraud.notification.delivery")
+                .description("Fraud notification delivery attempts by the outbox relay")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter shedCounter(String priority) {
+        return Counter.builder("fraud.admission.shed")
+                .description("Transactions refused with 429 by admission control")
+                .tag("priority", priority)
+                .register(registry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("fraud.process.stage")
+                .description("Time spent per stage of transaction processing")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private Counter transactionCounter(String outcome) {
+        return Counter.builder("fraud.transactions.evaluated")
+                .description("Transactions evaluated by the rule engine")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,252 @@
+package com.exam.fraudmonitorapp.service.outbox;
+
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.repo.NotificationOutboxRepo;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.NotificationServiceImpl;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the notification outbox written by FraudDetectionService.process().
+ * - Due PENDING entries are leased (claimed) one by one, so several relays never send the same batch concurrently.
+ * - Coalescing: a first attempt is due only coalesce-window after the alert, and then takes every other fresh entry
+ *   of the same account with it. Entries are grouped per account and recipient, and each group is one message
+ *   (a digest when it holds several transactions), so a burst on a compromised card is not one email per swipe.
+ * - Each recipient has a token bucket (rate-limit.capacity, one more per rate-limit.refill-interval); a group whose
+ *   recipient is out of tokens is put back until the next token without counting an attempt, and merges with
+ *   whatever arrives meanwhile.
+ * - Each batch is delivered on virtual threads; the SMTP round-trips overlap instead of queueing.
+ * - Failures are retried with exponential backoff and dead-lettered (DEAD) after max-attempts.
+ * - Delivery is at-least-once: a crash after sending but before marking SENT resends once the lease expires.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxRelay {
+
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String DEAD = "DEAD";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final NotificationOutboxRepo outboxRepo;
+    private final TransactionRepo transactionRepo;
+    private final NotificationServiceImpl notificationService;
+    private final FraudMetrics metrics;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration coalesceWindow;
+    private final RecipientRateLimiter rateLimiter;
+
+    public NotificationOutboxRelay(NotificationOutboxRepo outboxRepo,
+                                   TransactionRepo transactionRepo,
+                                   NotificationServiceImpl notificationService,
+                                   FraudMetrics metrics,
+                                   @Value("${app.notifications.relay.batch-size:100}") int batchSize,
+                                   @Value("${app.notifications.relay.max-attempts:8}") int maxAttempts,
+                                   @Value("${app.notifications.relay.base-backoff:5s}") Duration baseBackoff,
+                                   @Value("${app.notifications.relay.max-backoff:10m}") Duration maxBackoff,
+                                   @Value("${app.notifications.relay.lease:2m}") Duration lease,
+                                   @Value("${app.notifications.coalesce.window:10s}") Duration coalesceWindow,
+                                   @Value("${app.notifications.rate-limit.capacity:3}") int rateLimitCapacity,
+                                   @Value("${app.notifications.rate-limit.refill-interval:5m}") Duration rateLimitRefill) {
+        this.outboxRepo = outboxRepo;
+        this.transactionRepo = transactionRepo;
+        this.notificationService = notificationService;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.coalesceWindow = coalesceWindow;
+        this.rateLimiter = new RecipientRateLimiter(rateLimitCapacity, rateLimitRefill);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.relay.interval:2s}")
+    public void drain() {
+        rateLimiter.evictFull();
+        int processed;
+        do {
+            processed = relayBatch();
+        } while (processed == batchSize && !Thread.currentThread().isInterrupted()); // interrupted: shutting down
+    }
+
+    /**
+     * Claim and deliver one batch of due entries, plus the fresh entries of the same accounts.
+     * @return number of due entries fetched (a full batch means more may be waiting), 0 when interrupted
+     */
+    public int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutboxEntity> due = outboxRepo.findDue(now, now.minus(coalesceWindow),
+                PageRequest.of(0, batchSize));
+        if (due.isEmpty()) return 0;
+
+        Map<Long, NotificationOutboxEntity> claimed = new LinkedHashMap<>();
+        claimAll(due, now, claimed);
+        if (claimed.isEmpty()) return due.size();
+
+        Set<String> accounts = new HashSet<>();
+        claimed.values().forEach(entry -> accounts.add(entry.getAccountId()));
+        List<NotificationOutboxEntity> fresh = outboxRepo
+                .findByStatusAndAttemptsAndAccountIdInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                        PENDING, 0, accounts, now, PageRequest.of(0, batchSize));
+        claimAll(fresh, now, claimed);
+
+        List<List<Pending>> groups = group(claimed.values());
+        List<List<Pending>> sendable = new ArrayList<>(groups.size());
+        for (List<Pending> group : groups) {
+            Duration wait = rateLimiter.acquire(recipient(group.getFirst().tx()));
+            if (wait.isZero()) {
+                sendable.add(group);
+            } else {
+                defer(group, now.plus(wait));
+            }
+        }
+
+        List<Future<?>> sends = new ArrayList<>(sendable.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<Pending> group : sendable) {
+                sends.add(executor.submit(() -> deliver(group)));
+            }
+        } // close() waits for every send
+
+        for (int i = 0; i < sendable.size(); i++) {
+            try {
+                sends.get(i).get();
+                sendable.get(i).forEach(p -> markSent(p.entry()));
+                if (sendable.get(i).size() > 1) {
+                    metrics.notificationsCoalesced(sendable.get(i).size() - 1);
+                }
+            } catch (ExecutionException ex) {
+                sendable.get(i).forEach(p -> markFailed(p.entry(), ex.getCause()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return 0; // stop draining; leased entries are retried once the lease expires
+            }
+        }
+        return due.size();
+    }
+
+    private void claimAll(List<NotificationOutboxEntity> entries, LocalDateTime now,
+                          Map<Long, NotificationOutboxEntity> claimed) {
+        for (NotificationOutboxEntity entry : entries) {
+            if (!claimed.containsKey(entry.getId())
+                    && outboxRepo.claim(entry.getId(), now, now.plus(lease)) == 1) {
+                claimed.put(entry.getId(), entry);
+            }
+        }
+    }
+
+    /**
+     * Group claimed entries per account and recipient, in id order. An entry whose transaction is gone fails on
+     * its own.
+     */
+    private List<List<Pending>> group(Collection<NotificationOutboxEntity> entries) {
+        Map<String, List<Pending>> groups = new LinkedHashMap<>();
+        for (NotificationOutboxEntity entry : entries) {
+            Optional<TransactionEventEntity> tx = transactionRepo.findById(entry.getTransactionId());
+            if (tx.isEmpty()) {
+                markFailed(entry, new IllegalStateException("Transaction not found: " + entry.getTransactionId()));
+                continue;
+            }
+            String key = entry.getAccountId() + '\n' + recipient(tx.get());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(new Pending(entry, tx.get()));
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private void deliver(List<Pending> group) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            if (group.size() == 1) {
+                notificationService.deliverFraud(group.getFirst().tx());
+            } else {
+                notificationService.deliverFraudDigest(group.stream().map(Pending::tx).toList());
+            }
+            success = true;
+        } finally {
+            metrics.notificationDelivery(success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Rate limited: release the lease early without counting an attempt. */
+    private void defer(List<Pending> group, LocalDateTime until) {
+        metrics.notificationThrottled();
+        for (Pending p : group) {
+            p.entry().setNextAttemptAt(until);
+            outboxRepo.save(p.entry());
+        }
+        log.debug("Notification for account {} rate limited until {}", group.getFirst().entry().getAccountId(), until);
+    }
+
+    /** Who the messages go to; empty when there is no address, which needs no rate limit. */
+    private static String recipient(TransactionEventEntity tx) {
+        String email = tx.getUserEmail() == null ? "" : tx.getUserEmail().trim().toLowerCase(Locale.ROOT);
+        String phone = tx.getUserPhone() == null ? "" : tx.getUserPhone().trim();
+        return email.isEmpty() && phone.isEmpty() ? "" : email + '|' + phone;
+    }
+
+    private void markSent(NotificationOutboxEntity entry) {
+        entry.setStatus(SENT);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setSentAt(LocalDateTime.now());
+        entry.setLastError(null);
+        outboxRepo.save(entry);
+    }
+
+    private void markFailed(NotificationOutboxEntity entry, Throwable cause) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(String.valueOf(cause)));
+
+        if (attempts >= maxAttempts) {
+            entry.setStatus(DEAD);
+            metrics.notificationDeadLettered();
+            log.error("Notification for alert {} dead-lettered after {} attempts: {}", entry.getAlertId(), attempts, cause.toString());
+        } else {
+            entry.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+            log.warn("Notification for alert {} failed (attempt {}), retrying: {}", entry.getAlertId(), attempts, cause.toString());
+        }
+        outboxRepo.save(entry);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_ERROR_LENGTH ? s : s.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record Pending(NotificationOutboxEntity entry, TransactionEventEntity tx) {
+    }
+}
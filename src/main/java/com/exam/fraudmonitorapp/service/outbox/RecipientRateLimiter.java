@@ -0,0 +1,66 @@
+package com.exam.fraudmonitorapp.service.outbox;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket per recipient: up to capacity messages at once, then one more per refill-interval.
+ * A bucket that has refilled completely holds no information, so evictFull() drops it; the map only keeps
+ * recipients that were messaged recently.
+ */
+final class RecipientRateLimiter {
+
+    private final int capacity;
+    private final long refillNanos;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    RecipientRateLimiter(int capacity, Duration refillInterval) {
+        this.capacity = capacity;
+        this.refillNanos = Math.max(1, refillInterval.toNanos());
+    }
+
+    /**
+     * Take a token for the recipient.
+     * @return zero if one was available, otherwise how long until the next one (nothing is taken)
+     */
+    Duration acquire(String recipient) {
+        if (capacity <= 0 || recipient.isEmpty()) return Duration.ZERO;
+        long now = System.nanoTime();
+        return Duration.ofNanos(buckets.computeIfAbsent(recipient, r -> new Bucket(now)).acquire(now));
+    }
+
+    void evictFull() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> b.isFull(now));
+    }
+
+    private final class Bucket {
+
+        private double tokens = capacity;
+        private long updated;
+
+        Bucket(long now) {
+            this.updated = now;
+        }
+
+        synchronized long acquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * refillNanos);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (double) (now - updated) / refillNanos);
+            updated = now;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.exam.fraudmonitorapp.service.profile;
+
+import com.exam.fraudmonitorapp.model.dto.AccountProfileDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.service.state.StateRecord;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Behavioral profile of one account, updated in O(1) per accepted transaction: a typed view over a fixed-layout
+ * {@value #RECORD_SIZE}-byte record of the OffHeapAccountStore.
+ * - Amount per category: exponentially weighted mean and variance (weight alpha for the newest transaction).
+ * - Hour of day: counts per hour, halved once they add up to {@value #DECAY_AT}, so old habits fade.
+ * - Countries: the {@value #MAX_COUNTRIES} most frequent ones with counts (a new country replaces the rarest one),
+ *   halved like the hours. Codes of up to 4 ASCII characters (ISO codes) are stored as is, others as a hash.
+ * - Merchants: distinct merchants estimated by linear counting over a {@value #MERCHANT_BITS}-bit bitmap.
+ * Only valid inside the store callback that created it.
+ */
+final class AccountProfile {
+
+    static final int MAX_COUNTRIES = 8;
+    static final int MERCHANT_BITS = 1024;
+    static final int DECAY_AT = 1000;
+
+    private static final int CATEGORIES = CategoryEnum.values().length;
+
+    // Record layout; counts are halved at DECAY_AT, so shorts hold them
+    private static final int TRANSACTIONS = 0;                                   // long
+    private static final int AMOUNTS = TRANSACTIONS + 8;                         // per category: mean, variance, samples
+    private static final int AMOUNT_STRIDE = 24;                                 // double, double, int, padding
+    private static final int HOUR_COUNTS = AMOUNTS + CATEGORIES * AMOUNT_STRIDE; // short[24]
+    private static final int HOUR_TOTAL = HOUR_COUNTS + 24 * 2;                  // int
+    private static final int COUNTRY_TOTAL = HOUR_TOTAL + 4;                     // int
+    private static final int COUNTRIES = COUNTRY_TOTAL + 4;                      // int[MAX_COUNTRIES], 0 = free
+    private static final int COUNTRY_COUNTS = COUNTRIES + MAX_COUNTRIES * 4;     // short[MAX_COUNTRIES]
+    private static final int MERCHANTS = COUNTRY_COUNTS + MAX_COUNTRIES * 2;     // long[MERCHANT_BITS / 64]
+    static final int RECORD_SIZE = MERCHANTS + MERCHANT_BITS / 8;
+
+    private final StateRecord r;
+
+    AccountProfile(StateRecord record) {
+        this.r = record;
+    }
+
+    void record(CategoryEnum category, double amount, int hour, String country, String merchant, double alpha) {
+        r.putLong(TRANSACTIONS, r.getLong(TRANSACTIONS) + 1);
+        if (category != null && amount >= 0) {
+            int at = AMOUNTS + category.ordinal() * AMOUNT_STRIDE;
+            int samples = r.getInt(at + 16);
+            if (samples == 0) {
+                r.putDouble(at, amount);
+                r.putDouble(at + 8, 0);
+            } else {
+                // Incremental EWMA of mean and variance (West, 1979)
+                double mean = r.getDouble(at);
+                double diff = amount - mean;
+                double increment = alpha * diff;
+                r.putDouble(at, mean + increment);
+                r.putDouble(at + 8, (1 - alpha) * (r.getDouble(at + 8) + diff * increment));
+            }
+            if (samples < Integer.MAX_VALUE) r.putInt(at + 16, samples + 1);
+        }
+        if (hour >= 0 && hour < 24) {
+            increment(HOUR_COUNTS + hour * 2);
+            int total = r.getInt(HOUR_TOTAL) + 1;
+            r.putInt(HOUR_TOTAL, total >= DECAY_AT ? halve(HOUR_COUNTS, 24) : total);
+        }
+        if (country != null && !country.isBlank()) {
+            recordCountry(encodeCountry(country));
+        }
+        if (merchant != null && !merchant.isBlank()) {
+            int bit = (mix(merchant.trim().toLowerCase(Locale.ROOT).hashCode()) & Integer.MAX_VALUE) % MERCHANT_BITS;
+            int word = MERCHANTS + (bit >>> 6) * 8;
+            r.putLong(word, r.getLong(word) | 1L << bit);
+        }
+    }
+
+    /**
+     * Standard score of the amount against the category's history; 0 below minSamples or for smaller amounts.
+     * The deviation is floored at 10% of the mean, so an account that always pays the same amount is not flagged
+     * for a few cents more.
+     */
+    double amountScore(CategoryEnum category, double amount, int minSamples) {
+        if (category == null) return 0;
+        int at = AMOUNTS + category.ordinal() * AMOUNT_STRIDE;
+        if (r.getInt(at + 16) < minSamples) return 0;
+        double mean = r.getDouble(at);
+        double deviation = Math.max(Math.sqrt(r.getDouble(at + 8)), Math.max(0.1 * Math.abs(mean), 1.0));
+        return Math.max(0, (amount - mean) / deviation);
+    }
+
+    /** Hour seen in less than {@code share} of the account's transactions (false until minSamples). */
+    boolean isUnusualHour(int hour, int minSamples, double share) {
+        int total = r.getInt(HOUR_TOTAL);
+        if (hour < 0 || hour >= 24 || total < minSamples) return false;
+        return r.getShort(HOUR_COUNTS + hour * 2) < share * total;
+    }
+
+    /** Country seen in less than {@code share} of the account's transactions (false until minSamples). */
+    boolean isUnusualCountry(String country, int minSamples, double share) {
+        int total = r.getInt(COUNTRY_TOTAL);
+        if (country == null || country.isBlank() || total < minSamples) return false;
+        int i = countryIndex(encodeCountry(country));
+        return i < 0 || r.getShort(COUNTRY_COUNTS + i * 2) < share * total;
+    }
+
+    AccountProfileDto toDto(String accountId, double usualShare) {
+        Map<CategoryEnum, AccountProfileDto.AmountStats> amounts = new EnumMap<>(CategoryEnum.class);
+        for (CategoryEnum category : CategoryEnum.values()) {
+            int at = AMOUNTS + category.ordinal() * AMOUNT_STRIDE;
+            int samples = r.getInt(at + 16);
+            if (samples > 0) {
+                amounts.put(category, new AccountProfileDto.AmountStats(
+                        r.getDouble(at), Math.sqrt(r.getDouble(at + 8)), samples));
+            }
+        }
+        int[] hourCounts = new int[24];
+        for (int h = 0; h < 24; h++) {
+            hourCounts[h] = r.getShort(HOUR_COUNTS + h * 2);
+        }
+        int countryTotal = r.getInt(COUNTRY_TOTAL);
+        List<String> usualCountries = new ArrayList<>();
+        for (int i = 0; i < MAX_COUNTRIES; i++) {
+            String country = decodeCountry(r.getInt(COUNTRIES + i * 4));
+            if (country != null && r.getShort(COUNTRY_COUNTS + i * 2) >= usualShare * countryTotal) {
+                usualCountries.add(country);
+            }
+        }
+        return new AccountProfileDto(accountId, r.getLong(TRANSACTIONS), amounts, hourCounts, usualCountries,
+                distinctMerchants());
+    }
+
+    /** Linear counting estimate: -m * ln(zero bits / m). */
+    long distinctMerchants() {
+        int set = 0;
+        for (int w = 0; w < MERCHANT_BITS / 64; w++) {
+            set += Long.bitCount(r.getLong(MERCHANTS + w * 8));
+        }
+        if (set == MERCHANT_BITS) return MERCHANT_BITS; // saturated: at least this many
+        return Math.round(-MERCHANT_BITS * Math.log((double) (MERCHANT_BITS - set) / MERCHANT_BITS));
+    }
+
+    private void recordCountry(int code) {
+        int i = countryIndex(code);
+        if (i < 0) {
+            // Free slot, else replace the rarest country and inherit its count (space-saving)
+            i = 0;
+            for (int k = 0; k < MAX_COUNTRIES; k++) {
+                if (r.getInt(COUNTRIES + k * 4) == 0) {
+                    i = k;
+                    break;
+                }
+                if (r.getShort(COUNTRY_COUNTS + k * 2) < r.getShort(COUNTRY_COUNTS + i * 2)) i = k;
+            }
+            r.putInt(COUNTRIES + i * 4, code);
+        }
+        increment(COUNTRY_COUNTS + i * 2);
+        int total = r.getInt(COUNTRY_TOTAL) + 1;
+        r.putInt(COUNTRY_TOTAL, total >= DECAY_AT ? halve(COUNTRY_COUNTS, MAX_COUNTRIES) : total);
+    }
+
+    private int countryIndex(int code) {
+        for (int i = 0; i < MAX_COUNTRIES; i++) {
+            if (r.getInt(COUNTRIES + i * 4) == code) return i;
+        }
+        return -1;
+    }
+
+    private void increment(int offset) {
+        r.putShort(offset, (short) (r.getShort(offset) + 1));
+    }
+
+    private int halve(int offset, int count) {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            int halved = r.getShort(offset + i * 2) >> 1;
+            r.putShort(offset + i * 2, (short) halved);
+            total += halved;
+        }
+        return total;
+    }
+
+    /** Up to 4 ASCII characters packed into an int (never 0 or negative); anything else hashed, sign bit set. */
+    static int encodeCountry(String country) {
+        String code = country.trim().toUpperCase(Locale.ROOT);
+        if (!code.isEmpty() && code.length() <= 4 && code.chars().allMatch(c -> c > 0 && c < 128)) {
+            int packed = 0;
+            for (int i = 0; i < code.length(); i++) {
+                packed = packed << 8 | code.charAt(i);
+            }
+            return packed;
+        }
+        return code.hashCode() | Integer.MIN_VALUE;
+    }
+
+    /** The packed code, or null for a free slot or a hashed one. */
+    static String decodeCountry(int code) {
+        if (code <= 0) return null;
+        StringBuilder sb = new StringBuilder(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int c = code >>> shift & 0xFF;
+            if (c != 0) sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,117 @@
+package com.exam.fraudmonitorapp.service.profile;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.AccountProfileDto;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import com.exam.fraudmonitorapp.service.state.OffHeapAccountStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Per-account behavioral profiles (see AccountProfile), built from the accepted transactions only: no history is
+ * read from the repository, so an account's profile starts empty at startup (or is seeded by JournalRecovery)
+ * and scores nothing until it has min-samples transactions.
+ * - {@link #record} is called after commit, like the velocity index; an evaluation never sees its own transaction.
+ * - {@link #deviation} adds the amount's standard score in its category, plus one point each for an hour and a
+ *   country that make up less than usual-share of the account's transactions.
+ * - Batch items are scored against the profile as it was before the batch.
+ * - Profiles are fixed-layout records in an OffHeapAccountStore (about 400 bytes per account outside the heap, so
+ *   ten million accounts add no GC work); beyond capacity the least recently used accounts are evicted.
+ * - Idle accounts are evicted by a scheduled sweep.
+ */
+@Component
+@Slf4j
+public class AccountProfileStore {
+
+    private static final double HOUR_POINTS = 1.0;
+    private static final double COUNTRY_POINTS = 1.0;
+
+    private final boolean enabled;
+    private final double alpha;
+    private final int minSamples;
+    private final double usualShare;
+    private final double threshold;
+    private final Duration idleTtl;
+    private final OffHeapAccountStore profiles;
+
+    public AccountProfileStore(@Value("${app.profile.enabled:true}") boolean enabled,
+                               @Value("${app.profile.alpha:0.1}") double alpha,
+                               @Value("${app.profile.min-samples:10}") int minSamples,
+                               @Value("${app.profile.usual-share:0.05}") double usualShare,
+                               @Value("${app.profile.threshold:4.0}") double threshold,
+                               @Value("${app.profile.idle-ttl:24h}") Duration idleTtl,
+                               @Value("${app.profile.capacity:100000}") long capacity,
+                               @Value("${app.profile.stripes:64}") int stripes,
+                               FraudMetrics metrics) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("app.profile.alpha must be in (0, 1]");
+        }
+        this.enabled = enabled;
+        this.alpha = alpha;
+        this.minSamples = minSamples;
+        this.usualShare = usualShare;
+        this.threshold = threshold;
+        this.idleTtl = idleTtl;
+        // Disabled: a single-slot store, so the methods need no null checks
+        this.profiles = enabled
+                ? new OffHeapAccountStore("profile", AccountProfile.RECORD_SIZE, capacity, stripes)
+                : new OffHeapAccountStore("profile", AccountProfile.RECORD_SIZE, 1, 1);
+        if (enabled) {
+            metrics.accountState(profiles);
+        }
+    }
+
+    /**
+     * Fold an accepted transaction into its account's profile.
+     */
+    public void record(TransactionEventEntity tx) {
+        if (!enabled || tx == null || tx.getAccountId() == null) return;
+        double amount = tx.getAmount() == null ? -1 : tx.getAmount().doubleValue();
+        int hour = tx.getEventTime() == null ? -1 : tx.getEventTime().getHour();
+        profiles.update(tx.getAccountId(), r -> new AccountProfile(r)
+                .record(tx.getCategory(), amount, hour, tx.getCountryCode(), tx.getMerchant(), alpha));
+    }
+
+    /**
+     * How far the transaction is from the account's usual behavior; 0 for unknown accounts.
+     */
+    public double deviation(TransactionView tx) {
+        if (!enabled || tx.accountId() == null || tx.amount() == null) return 0;
+        int hour = tx.eventTime() == null ? -1 : tx.eventTime().getHour();
+        Double score = profiles.read(tx.accountId(), r -> {
+            AccountProfile profile = new AccountProfile(r);
+            double s = profile.amountScore(tx.category(), tx.amount().doubleValue(), minSamples);
+            if (profile.isUnusualHour(hour, minSamples, usualShare)) s += HOUR_POINTS;
+            if (profile.isUnusualCountry(tx.countryCode(), minSamples, usualShare)) s += COUNTRY_POINTS;
+            return s;
+        });
+        return score == null ? 0 : score;
+    }
+
+    public boolean isAnomalous(TransactionView tx) {
+        return deviation(tx) >= threshold;
+    }
+
+    public Optional<AccountProfileDto> snapshot(String accountId) {
+        if (accountId == null) return Optional.empty();
+        return Optional.ofNullable(profiles.read(accountId, r -> new AccountProfile(r).toDto(accountId, usualShare)));
+    }
+
+    public long size() {
+        return profiles.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.profile.eviction-interval:10m}")
+    public void evictIdle() {
+        long evicted = profiles.evictIdle(System.currentTimeMillis() - idleTtl.toMillis());
+        if (evicted > 0) {
+            log.debug("Evicted {} idle account profiles", evicted);
+        }
+    }
+}
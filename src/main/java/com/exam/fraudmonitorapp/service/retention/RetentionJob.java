@@ -0,0 +1,184 @@
+package com.exam.fraudmonitorapp.service.retention;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Optional (app.retention.enabled) nightly retention: moves old rows out of the hot tables into gzip-compressed
+ * NDJSON files (one entity per line) under archive-dir.
+ * - Transactions go a month at a time, oldest first, for every month before the current one minus
+ *   transaction-months; on PostgreSQL the emptied monthly partition is dropped (TransactionPartitions).
+ * - CLOSED alerts created more than closed-alerts ago; OPEN alerts are never archived.
+ * - Rows move in chunks of batch-size: each chunk is written to its own file and forced to disk, then deleted by
+ *   id in the same transaction. A failure loses nothing; at worst a chunk is archived twice.
+ * Archived transactions no longer count as duplicates for idempotent ingestion, nor for history rules.
+ */
+@Component
+@Slf4j
+public class RetentionJob {
+
+    private static final String CLOSED = "CLOSED";
+    private static final DateTimeFormatter RUN = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final TransactionRepo transactionRepo;
+    private final FraudAlertRepo alertRepo;
+    private final TransactionPartitions partitions;
+    private final TransactionOperations transactions;
+    private final FraudMetrics metrics;
+    private final ObjectWriter transactionWriter;
+    private final ObjectWriter alertWriter;
+    private final boolean enabled;
+    private final int transactionMonths;
+    private final Duration closedAlerts;
+    private final Path archiveDir;
+    private final int batchSize;
+
+    public RetentionJob(TransactionRepo transactionRepo,
+                        FraudAlertRepo alertRepo,
+                        TransactionPartitions partitions,
+                        TransactionOperations transactions,
+                        FraudMetrics metrics,
+                        JsonMapper jsonMapper,
+                        @Value("${app.retention.enabled:false}") boolean enabled,
+                        @Value("${app.retention.transaction-months:12}") int transactionMonths,
+                        @Value("${app.retention.closed-alerts:90d}") Duration closedAlerts,
+                        @Value("${app.retention.archive-dir:archive}") Path archiveDir,
+                        @Value("${app.retention.batch-size:10000}") int batchSize) {
+        if (transactionMonths < 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("transaction-months must not be negative and batch-size must be positive");
+        }
+        this.transactionRepo = transactionRepo;
+        this.alertRepo = alertRepo;
+        this.partitions = partitions;
+        this.transactions = transactions;
+        this.metrics = metrics;
+        this.transactionWriter = jsonMapper.writerFor(TransactionEventEntity.class);
+        this.alertWriter = jsonMapper.writerFor(FraudAlertEntity.class);
+        this.enabled = enabled;
+        this.transactionMonths = transactionMonths;
+        this.closedAlerts = closedAlerts;
+        this.archiveDir = archiveDir;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.retention.cron:0 30 2 * * *}")
+    public void run() {
+        if (!enabled) return;
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            long archivedTransactions = archiveTransactions(YearMonth.from(now).minusMonths(transactionMonths));
+            long archivedAlerts = archiveClosedAlerts(now.minus(closedAlerts));
+            log.info("Retention archived {} transactions and {} closed alerts to {}",
+                    archivedTransactions, archivedAlerts, archiveDir);
+        } catch (RuntimeException ex) {
+            // Chunks already moved stay archived; the rest is picked up by the next run
+            log.error("Retention run failed", ex);
+        }
+    }
+
+    /**
+     * Archive and delete every transaction with an event time before {@code firstKept}, a month at a time.
+     * @return number of transactions archived
+     */
+    public long archiveTransactions(YearMonth firstKept) {
+        LocalDateTime oldest = transactionRepo.findOldestEventTime();
+        if (oldest == null) return 0;
+        String run = LocalDateTime.now().format(RUN);
+        long total = 0;
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(firstKept); month = month.plusMonths(1)) {
+            LocalDateTime from = month.atDay(1).atStartOfDay();
+            LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+            long archived = archive("transactions-" + month + "-" + run,
+                    () -> transactionRepo.findOldestInRange(from, to, Limit.of(batchSize)),
+                    TransactionEventEntity::getId, transactionRepo::deleteAllByIdInBatch, transactionWriter);
+            if (archived > 0) {
+                metrics.archived("transactions", archived);
+                log.info("Archived {} transactions of {}", archived, month);
+            }
+            partitions.dropIfEmpty(month);
+            total += archived;
+        }
+        return total;
+    }
+
+    /**
+     * Archive and delete CLOSED alerts created before {@code before}.
+     * @return number of alerts archived
+     */
+    public long archiveClosedAlerts(LocalDateTime before) {
+        long archived = archive("fraud_alerts-closed-" + LocalDateTime.now().format(RUN),
+                () -> alertRepo.findByStatusAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(CLOSED, before, Limit.of(batchSize)),
+                FraudAlertEntity::getId, alertRepo::deleteAllByIdInBatch, alertWriter);
+        if (archived > 0) {
+            metrics.archived("fraud_alerts", archived);
+        }
+        return archived;
+    }
+
+    /** Move chunks until one comes back short; each chunk is one file and one transaction. */
+    private <E> long archive(String prefix, Supplier<List<E>> nextChunk, Function<E, Long> id,
+                             Consumer<List<Long>> delete, ObjectWriter writer) {
+        long total = 0;
+        for (int part = 1; ; part++) {
+            Path file = archiveDir.resolve(String.format("%s-%04d.ndjson.gz", prefix, part));
+            Integer moved = transactions.execute(status -> {
+                List<E> rows = nextChunk.get();
+                if (rows.isEmpty()) return 0;
+                write(file, rows, writer);
+                delete.accept(rows.stream().map(id).toList());
+                return rows.size();
+            });
+            int count = moved == null ? 0 : moved;
+            total += count;
+            if (count < batchSize) return total;
+        }
+    }
+
+    private static <E> void write(Path file, List<E> rows, ObjectWriter writer) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileOutputStream out = new FileOutputStream(tmp.toFile());
+                 GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(out, 1 << 16))) {
+                for (E row : rows) {
+                    gzip.write(writer.writeValueAsBytes(row));
+                    gzip.write('\n');
+                }
+                gzip.finish();
+                gzip.flush();
+                out.getChannel().force(true); // on disk before the rows are deleted
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write archive " + file, ex);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.exam.fraudmonitorapp.service.retention;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Monthly partitions of the transactions table on PostgreSQL (see db/vendor/postgresql/V3). On databases without
+ * them (H2) every method is a no-op and a month is only an event_time range.
+ * - The current month and months-ahead following ones are created in advance, so new rows never land in
+ *   transactions_default.
+ * - RetentionJob drops a month's partition once it has archived every row of it.
+ */
+@Component
+@Slf4j
+public class TransactionPartitions {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbc;
+    private final TransactionOperations transactions;
+    private final int monthsAhead;
+    private volatile Boolean partitioned;
+
+    public TransactionPartitions(JdbcTemplate jdbc,
+                                 TransactionOperations transactions,
+                                 @Value("${app.retention.partitions.months-ahead:2}") int monthsAhead) {
+        this.jdbc = jdbc;
+        this.transactions = transactions;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /** Whether transactions is a partitioned table; looked up once. */
+    public boolean partitioned() {
+        Boolean p = partitioned;
+        if (p == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            p = "PostgreSQL".equals(product) && Boolean.TRUE.equals(jdbc.queryForObject(
+                    "select exists (select 1 from pg_partitioned_table p join pg_class c on c.oid = p.partrelid " +
+                            "where c.relname = 'transactions')", Boolean.class));
+            partitioned = p;
+        }
+        return p;
+    }
+
+    @Scheduled(fixedDelayString = "${app.retention.partitions.check-interval:6h}")
+    public void createAhead() {
+        createAhead(YearMonth.now());
+    }
+
+    public void createAhead(YearMonth current) {
+        if (!partitioned()) return;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbc.execute("create table if not exists " + table(month) + " partition of transactions " +
+                        "for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException ex) {
+                // transactions_default already holds rows of that month; they stay there until archived
+                log.warn("Could not create partition {}: {}", table(month), ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop the month's partition if it exists and is empty. The partition is locked first, so a late row cannot
+     * slip in between the check and the drop.
+     * @return whether a partition was dropped
+     */
+    public boolean dropIfEmpty(YearMonth month) {
+        if (!partitioned()) return false;
+        String table = table(month);
+        Boolean dropped = transactions.execute(status -> {
+            if (jdbc.queryForObject("select to_regclass(?)", String.class, table) == null) return false;
+            jdbc.execute("lock table " + table + " in access exclusive mode");
+            if (Boolean.TRUE.equals(jdbc.queryForObject("select exists (select 1 from " + table + ")", Boolean.class))) {
+                return false;
+            }
+            jdbc.execute("drop table " + table);
+            return true;
+        });
+        if (Boolean.TRUE.equals(dropped)) {
+            log.info("Dropped archived partition {}", table);
+            return true;
+        }
+        return false;
+    }
+
+    static String table(YearMonth month) {
+        return "transactions_p" + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,41 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transaction far from the account's own behavior: amount for the category, hour of day and country, scored
+ * against the in-memory profile (see AccountProfileStore). Accounts without enough history never match.
+ */
+@Component
+@Order(7)
+public class AccountAnomalyRule implements FraudRule {
+
+    private final AccountProfileStore profiles;
+
+    public AccountAnomalyRule(AccountProfileStore profiles) {
+        this.profiles = profiles;
+    }
+
+    @Override
+    public String reason() {
+        return "Unusual activity for this account";
+    }
+
+    @Override
+    public int cost() {
+        return COST_IN_MEMORY;
+    }
+
+    @Override
+    public int severity() {
+        return 40;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        return profiles.isAnomalous(tx);
+    }
+}
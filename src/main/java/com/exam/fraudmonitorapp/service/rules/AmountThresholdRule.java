@@ -0,0 +1,53 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Amount above the threshold of the transaction's category.
+ */
+@Component
+@Order(1)
+public class AmountThresholdRule implements FraudRule {
+
+    private static final Map<CategoryEnum, BigDecimal> CATEGORY_THRESHOLDS = Map.of(
+            CategoryEnum.PURCHASE,      new BigDecimal("10000"),
+            CategoryEnum.TRANSFER,      new BigDecimal("50000"),
+            CategoryEnum.ATM,           new BigDecimal("3000"),
+            CategoryEnum.ONLINE,        new BigDecimal("8000"),
+            CategoryEnum.INTERNATIONAL, new BigDecimal("5000"),
+            CategoryEnum.BILL_PAYMENT,  new BigDecimal("20000")
+    );
+
+    @Override
+    public String reason() {
+        return "Amount exceeds category threshold";
+    }
+
+    @Override
+    public int cost() {
+        return COST_IN_MEMORY;
+    }
+
+    @Override
+    public int severity() {
+        return 60;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        CategoryEnum category = tx.category();
+        BigDecimal threshold = (category == null)
+                ? TransactionalConstant.DEFAULT_THRESHOLD
+                : CATEGORY_THRESHOLDS.getOrDefault(category, TransactionalConstant.DEFAULT_THRESHOLD);
+
+        BigDecimal amount = tx.amount();
+        return amount != null && amount.compareTo(threshold) > 0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.blacklist.MerchantBlacklist;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Merchant on the blacklist: exact name or substring pattern, ignoring case and punctuation (see MerchantBlacklist).
+ */
+@Component
+@Order(4)
+public class BlacklistedMerchantRule implements FraudRule {
+
+    private final MerchantBlacklist blacklist;
+
+    public BlacklistedMerchantRule(MerchantBlacklist blacklist) {
+        this.blacklist = blacklist;
+    }
+
+    @Override
+    public String reason() {
+        return "Merchant is blacklisted";
+    }
+
+    @Override
+    public int cost() {
+        return COST_IN_MEMORY;
+    }
+
+    @Override
+    public int severity() {
+        return 90;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        String merchant = tx.merchant();
+        if (merchant == null) return false;
+
+        // Normalizes while matching: no upper-cased copy of the name per call
+        return blacklist.matches(merchant);
+    }
+}
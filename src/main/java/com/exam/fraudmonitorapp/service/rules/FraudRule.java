@@ -0,0 +1,31 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+
+/**
+ * A single fraud rule. Implementations are Spring beans and are picked up by FraudRuleEngine automatically.
+ * - cost orders evaluation: cheap in-memory checks run before rules that read account history.
+ * - severity is added to the transaction's score when the rule matches; the engine can use it to skip
+ *   expensive rules on transactions that look clean so far.
+ * Rules must be stateless and null-safe; a missing field means "does not match".
+ * The transaction is passed as an immutable TransactionView, built once per transaction by the caller.
+ */
+public interface FraudRule {
+
+    /** Pure checks on the transaction fields. */
+    int COST_IN_MEMORY = 1;
+
+    /** Checks that read AccountHistory (cache, or the repository on a cache miss). */
+    int COST_HISTORY = 10;
+
+    /**
+     * Reason reported when the rule matches; also stored on the transaction and the alert.
+     */
+    String reason();
+
+    int cost();
+
+    int severity();
+
+    boolean matches(TransactionView tx, AccountHistory history);
+}
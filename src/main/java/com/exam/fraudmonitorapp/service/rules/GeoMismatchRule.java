@@ -0,0 +1,41 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * High amount from outside South Africa.
+ */
+@Component
+@Order(3)
+public class GeoMismatchRule implements FraudRule {
+
+    @Override
+    public String reason() {
+        return "Foreign transaction with high amount";
+    }
+
+    @Override
+    public int cost() {
+        return COST_IN_MEMORY;
+    }
+
+    @Override
+    public int severity() {
+        return 40;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        String countryCode = tx.countryCode();
+        BigDecimal amount = tx.amount();
+
+        if (countryCode == null || countryCode.isBlank() || amount == null) return false;
+
+        return !"ZA".equalsIgnoreCase(countryCode) && amount.compareTo(TransactionalConstant.GEO_HIGH_AMOUNT) > 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * High amount from a device the account has not used before.
+ */
+@Component
+@Order(6)
+public class NewDeviceHighAmountRule implements FraudRule {
+
+    @Override
+    public String reason() {
+        return "High amount from new device";
+    }
+
+    @Override
+    public int cost() {
+        return COST_HISTORY;
+    }
+
+    @Override
+    public int severity() {
+        return 50;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        String deviceId = tx.deviceId();
+        String accountId = tx.accountId();
+        BigDecimal amount = tx.amount();
+
+        if (deviceId == null || deviceId.isBlank() || accountId == null || accountId.isBlank() || amount == null) {
+            return false;
+        }
+
+        // Check the amount first: the device lookup is the expensive part
+        return amount.compareTo(TransactionalConstant.NEW_DEVICE_HIGH_AMOUNT) > 0
+                && !history.isKnownDevice(accountId, deviceId);
+    }
+}
@@ -0,0 +1,43 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Large amount in the early-morning hours.
+ */
+@Component
+@Order(5)
+public class OddHoursRule implements FraudRule {
+
+    @Override
+    public String reason() {
+        return "Large transaction at unusual hours";
+    }
+
+    @Override
+    public int cost() {
+        return COST_IN_MEMORY;
+    }
+
+    @Override
+    public int severity() {
+        return 30;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        LocalDateTime eventTime = tx.eventTime();
+        BigDecimal amount = tx.amount();
+        if (eventTime == null || amount == null) return false;
+
+        int hour = eventTime.getHour(); // Local time; for strict UTC, convert to ZonedDateTime
+        return hour >= TransactionalConstant.ODD_HOURS_START && hour < TransactionalConstant.ODD_HOURS_END
+                && amount.compareTo(TransactionalConstant.ODD_HOURS_HIGH_AMOUNT) > 0;
+    }
+}
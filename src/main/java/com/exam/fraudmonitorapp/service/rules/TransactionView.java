@@ -0,0 +1,34 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable rule input: only the fields FraudRule implementations read.
+ * Built once per transaction by copying references (no mapper, no reflection), so evaluation does not need
+ * a DTO or entity copy of its own. Any field may be null; rules treat a missing field as "does not match".
+ */
+public record TransactionView(String accountId,
+                              BigDecimal amount,
+                              CategoryEnum category,
+                              String merchant,
+                              String countryCode,
+                              String deviceId,
+                              LocalDateTime eventTime) {
+
+    public static TransactionView of(TransactionEventDto dto) {
+        if (dto == null) return null;
+        return new TransactionView(dto.getAccountId(), dto.getAmount(), dto.getCategory(), dto.getMerchant(),
+                dto.getCountryCode(), dto.getDeviceId(), dto.getEventTime());
+    }
+
+    public static TransactionView of(TransactionEventEntity entity) {
+        if (entity == null) return null;
+        return new TransactionView(entity.getAccountId(), entity.getAmount(), entity.getCategory(),
+                entity.getMerchant(), entity.getCountryCode(), entity.getDeviceId(), entity.getEventTime());
+    }
+}
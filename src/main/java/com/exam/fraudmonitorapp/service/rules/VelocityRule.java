@@ -0,0 +1,47 @@
+package com.exam.fraudmonitorapp.service.rules;
+
+import com.exam.fraudmonitorapp.service.AccountHistory;
+import com.exam.fraudmonitorapp.service.constant.TransactionalConstant;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Too many transactions for the account within the velocity window.
+ */
+@Component
+@Order(2)
+public class VelocityRule implements FraudRule {
+
+    public static final Duration WINDOW = Duration.ofMinutes(TransactionalConstant.VELOCITY_WINDOW_MINUTES);
+
+    @Override
+    public String reason() {
+        return "High transaction velocity in last minute";
+    }
+
+    @Override
+    public int cost() {
+        return COST_HISTORY;
+    }
+
+    @Override
+    public int severity() {
+        return 50;
+    }
+
+    @Override
+    public boolean matches(TransactionView tx, AccountHistory history) {
+        String accountId = tx.accountId();
+        LocalDateTime end = tx.eventTime();
+
+        if (accountId == null || accountId.isBlank() || end == null) {
+            return false;
+        }
+
+        // Served from memory by default; the velocity index only hits the repository on a cache miss
+        return history.countInWindow(accountId, WINDOW, end) >= TransactionalConstant.VELOCITY_COUNT_THRESHOLD;
+    }
+}
@@ -0,0 +1,288 @@
+package com.exam.fraudmonitorapp.service.state;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-account fixed-layout records in direct (off-heap) buffers, so millions of accounts cost the GC nothing.
+ * - Keys are a 64-bit hash of the accountId; two ids with the same hash would share a record (the odds of any
+ *   such pair among 10 million accounts are about 3 in a million).
+ * - The store is split into stripes, each an open-addressing (linear probing) table in its own buffer, guarded by
+ *   its own monitor; a slot is the key, the last access time and the record.
+ * - Capacity is fixed up front and tables stay at most {@value #MAX_LOAD} full. Inserting into a full stripe
+ *   evicts the least recently used of {@value #EVICTION_SAMPLE} entries found from a clock hand; callers also
+ *   evict idle entries with {@link #evictIdle}.
+ * - Deletes shift the following entries back instead of leaving tombstones.
+ * Callbacks run under the stripe monitor: keep them short and never call back into the store.
+ */
+public final class OffHeapAccountStore {
+
+    static final double MAX_LOAD = 0.75;
+    static final int EVICTION_SAMPLE = 8;
+
+    private static final int KEY = 0;          // long, 0 = empty slot
+    private static final int LAST_ACCESS = 8;  // long, epoch millis
+    private static final int HEADER = 16;
+
+    private final String name;
+    private final int recordSize;
+    private final int slotSize;
+    private final long capacity;
+    private final Stripe[] stripes;
+    private final LongSupplier clock;
+
+    public OffHeapAccountStore(String name, int recordSize, long capacity, int stripes) {
+        this(name, recordSize, capacity, stripes, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock source of the access times used for eviction (epoch millis)
+     */
+    public OffHeapAccountStore(String name, int recordSize, long capacity, int stripes, LongSupplier clock) {
+        if (recordSize <= 0 || capacity <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("record size, capacity and stripes must be positive");
+        }
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        this.recordSize = recordSize;
+        this.slotSize = (HEADER + recordSize + 7) & ~7;
+        this.clock = Objects.requireNonNull(clock, "clock must not be null");
+
+        int perStripe = (int) Math.min(Integer.MAX_VALUE, (capacity + stripes - 1) / stripes);
+        long slots = (long) Math.ceil(perStripe / MAX_LOAD) + 1; // at least one empty slot ends every probe
+        if (slots * slotSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Stripe of store '" + name + "' exceeds 2GB; use more stripes");
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe((int) slots, perStripe);
+        }
+        this.capacity = (long) perStripe * stripes;
+    }
+
+    /**
+     * Read the account's record.
+     * @return the reader's result, or null when the account has no record (the reader is not called)
+     */
+    public <R> R read(String accountId, Function<StateRecord, R> reader) {
+        long key = hash(accountId);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            int slot = stripe.find(key);
+            if (slot < 0) return null;
+            stripe.touch(slot, clock.getAsLong());
+            return reader.apply(stripe.record(slot));
+        }
+    }
+
+    /**
+     * Update the account's record, creating a zeroed one (and evicting if the stripe is full) when it has none.
+     */
+    public void update(String accountId, Consumer<StateRecord> writer) {
+        long key = hash(accountId);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            int slot = stripe.find(key);
+            if (slot < 0) {
+                slot = stripe.insert(key);
+            }
+            stripe.touch(slot, clock.getAsLong());
+            writer.accept(stripe.record(slot));
+        }
+    }
+
+    public boolean remove(String accountId) {
+        long key = hash(accountId);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            int slot = stripe.find(key);
+            if (slot < 0) return false;
+            stripe.delete(slot);
+            return true;
+        }
+    }
+
+    /**
+     * Remove every record not accessed after {@code cutoffMillis}; one stripe is locked at a time.
+     * @return number of records removed
+     */
+    public long evictIdle(long cutoffMillis) {
+        long evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evicted += stripe.evictIdle(cutoffMillis);
+            }
+        }
+        return evicted;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Records currently held (not synchronized, for metrics). */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /** Records the store holds before it starts evicting. */
+    public long capacity() {
+        return capacity;
+    }
+
+    /** Direct memory reserved by the tables, whatever the heap size. */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.buffer.capacity();
+        }
+        return bytes;
+    }
+
+    /** Records evicted to make room for new accounts (idle evictions not included). */
+    public long evictions() {
+        long evictions = 0;
+        for (Stripe stripe : stripes) {
+            evictions += stripe.evictions;
+        }
+        return evictions;
+    }
+
+    private Stripe stripeFor(long key) {
+        return stripes[(int) (((key >>> 32) * stripes.length) >>> 32)];
+    }
+
+    /** FNV-1a over the UTF-16 chars, then the murmur3 finalizer; never 0 (the empty-slot marker). */
+    static long hash(String accountId) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < accountId.length(); i++) {
+            h = (h ^ accountId.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /** One open-addressing table; every method is called under the instance monitor. */
+    private final class Stripe {
+        private final ByteBuffer buffer;
+        private final int slots;
+        private final int maxEntries;
+        private volatile int size;
+        private volatile long evictions;
+        private int hand;
+
+        Stripe(int slots, int maxEntries) {
+            this.buffer = ByteBuffer.allocateDirect(slots * slotSize).order(ByteOrder.nativeOrder());
+            this.slots = slots;
+            this.maxEntries = maxEntries;
+        }
+
+        int find(long key) {
+            for (int slot = home(key); ; slot = next(slot)) {
+                long k = key(slot);
+                if (k == key) return slot;
+                if (k == 0) return -1;
+            }
+        }
+
+        int insert(long key) {
+            if (size >= maxEntries) {
+                evictOne();
+            }
+            int slot = home(key);
+            while (key(slot) != 0) {
+                slot = next(slot);
+            }
+            int base = slot * slotSize;
+            for (int i = HEADER; i + Long.BYTES <= slotSize; i += Long.BYTES) {
+                buffer.putLong(base + i, 0L);
+            }
+            buffer.putLong(base + KEY, key);
+            size++;
+            return slot;
+        }
+
+        /** Backward-shift delete: move later entries of the probe run into the hole unless that skips their home. */
+        void delete(int slot) {
+            int hole = slot;
+            for (int j = next(slot); ; j = next(j)) {
+                long k = key(j);
+                if (k == 0) break;
+                int home = home(k);
+                boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+                if (!stays) {
+                    buffer.put(hole * slotSize, buffer, j * slotSize, slotSize);
+                    hole = j;
+                }
+            }
+            buffer.putLong(hole * slotSize + KEY, 0L);
+            size--;
+        }
+
+        // Sampled LRU from a clock hand, so eviction stays O(sample) however large the stripe is
+        void evictOne() {
+            int victim = -1;
+            long oldest = Long.MAX_VALUE;
+            int seen = 0;
+            for (int scanned = 0; scanned < slots && seen < EVICTION_SAMPLE; scanned++) {
+                int slot = hand;
+                hand = next(hand);
+                if (key(slot) == 0) continue;
+                seen++;
+                long access = buffer.getLong(slot * slotSize + LAST_ACCESS);
+                if (access < oldest) {
+                    oldest = access;
+                    victim = slot;
+                }
+            }
+            if (victim >= 0) {
+                delete(victim);
+                evictions++;
+            }
+        }
+
+        int evictIdle(long cutoffMillis) {
+            int evicted = 0;
+            for (int slot = 0; slot < slots; ) {
+                if (key(slot) != 0 && buffer.getLong(slot * slotSize + LAST_ACCESS) <= cutoffMillis) {
+                    delete(slot); // an entry may have shifted into this slot: look at it again
+                    evicted++;
+                } else {
+                    slot++;
+                }
+            }
+            return evicted;
+        }
+
+        void touch(int slot, long now) {
+            buffer.putLong(slot * slotSize + LAST_ACCESS, now);
+        }
+
+        StateRecord record(int slot) {
+            return new StateRecord(buffer, slot * slotSize + HEADER, recordSize);
+        }
+
+        private long key(int slot) {
+            return buffer.getLong(slot * slotSize + KEY);
+        }
+
+        private int home(long key) {
+            return (int) (((key & 0xFFFFFFFFL) * slots) >>> 32);
+        }
+
+        private int next(int slot) {
+            return slot + 1 == slots ? 0 : slot + 1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.exam.fraudmonitorapp.service.state;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Typed access to one fixed-layout record of an OffHeapAccountStore; offsets are relative to the record.
+ * Only valid inside the read/update callback it was passed to.
+ */
+public final class StateRecord {
+
+    private final ByteBuffer buffer;
+    private final int base;
+    private final int size;
+
+    StateRecord(ByteBuffer buffer, int base, int size) {
+        this.buffer = buffer;
+        this.base = base;
+        this.size = size;
+    }
+
+    public byte getByte(int offset) {
+        return buffer.get(index(offset, Byte.BYTES));
+    }
+
+    public void putByte(int offset, byte value) {
+        buffer.put(index(offset, Byte.BYTES), value);
+    }
+
+    public short getShort(int offset) {
+        return buffer.getShort(index(offset, Short.BYTES));
+    }
+
+    public void putShort(int offset, short value) {
+        buffer.putShort(index(offset, Short.BYTES), value);
+    }
+
+    public int getInt(int offset) {
+        return buffer.getInt(index(offset, Integer.BYTES));
+    }
+
+    public void putInt(int offset, int value) {
+        buffer.putInt(index(offset, Integer.BYTES), value);
+    }
+
+    public long getLong(int offset) {
+        return buffer.getLong(index(offset, Long.BYTES));
+    }
+
+    public void putLong(int offset, long value) {
+        buffer.putLong(index(offset, Long.BYTES), value);
+    }
+
+    public double getDouble(int offset) {
+        return buffer.getDouble(index(offset, Double.BYTES));
+    }
+
+    public void putDouble(int offset, double value) {
+        buffer.putDouble(index(offset, Double.BYTES), value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Keeps a bad offset from writing into the neighbouring slot
+    private int index(int offset, int width) {
+        return base + Objects.checkFromIndexSize(offset, width, size);
+    }
+}
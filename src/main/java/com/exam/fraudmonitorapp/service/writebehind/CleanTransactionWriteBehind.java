@@ -0,0 +1,370 @@
+package com.exam.fraudmonitorapp.service.writebehind;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.repo.TransactionBatchWriter;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.cache.ProcessedTransactionCache;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.journal.JournalEntry;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind persistence for clean (non-fraudulent) transactions.
+ * - process() answers once the rules have run and hands the row to a bounded queue instead of inserting it;
+ *   fraudulent transactions are still written synchronously together with their alert.
+ * - One background writer flushes the queue with JDBC batching, when batch-size rows are waiting or when the
+ *   oldest row has waited flush-interval, whichever comes first.
+ * - A full queue (or a stopped writer) is reported by {@link #enqueue} returning false; the caller then inserts
+ *   synchronously, so the queue depth stays bounded.
+ * - On shutdown, or when the writer thread is interrupted, the writer stops taking rows and flushes everything
+ *   already queued.
+ * - A failed batch is retried row by row. Constraint violations can never succeed and go to the dead-letter store;
+ *   any other failure keeps the row and everything queued after it, retried in order with exponential backoff
+ *   (up to retry-backoff-max) while new rows keep queueing. Once the writer is stopping, rows that still fail after
+ *   a few attempts are left to the journal, or dead-lettered when there is none.
+ * - Queued rows are journaled as pending. After each flush the checkpoint moves up to the last row before the first
+ *   one not yet written, never past it, so rows lost with the process are re-inserted by JournalRecovery at the
+ *   next start (when app.journal.enabled).
+ * - A queued row keeps the (accountId, transactionId) claim taken by process() until it is written or dead-lettered,
+ *   so a resubmission cannot queue the same transaction twice while the first is in the queue.
+ * - Until a row is written (or dead-lettered) it is listed in UnflushedTransactions, where the history lookups find
+ *   it, since the database cannot yet.
+ * - Rows recovered from the journal may have reached the database before the crash, after the last checkpoint. A
+ *   recovered row whose (accountId, transactionId) is already stored counts as written instead of dead-lettered.
+ * Rows written this way have no id in the HTTP response.
+ */
+@Component
+@Slf4j
+public class CleanTransactionWriteBehind {
+
+    private static final long POLL_MILLIS = 100;
+    /** Attempts a failing batch still gets once the writer is stopping. */
+    private static final int STOPPING_ATTEMPTS = 3;
+
+    private final TransactionBatchWriter batchWriter;
+    private final TransactionRepo transactionRepo;
+    private final TransactionOperations transactions;
+    private final EventJournal journal;
+    private final ProcessedTransactionCache processed;
+    private final UnflushedTransactions unflushed;
+    private final FraudMetrics metrics;
+    private final WriteBehindDeadLetters deadLetters;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxBackoffMillis;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public CleanTransactionWriteBehind(TransactionBatchWriter batchWriter,
+                                       TransactionRepo transactionRepo,
+                                       TransactionOperations transactions,
+                                       EventJournal journal,
+                                       ProcessedTransactionCache processed,
+                                       UnflushedTransactions unflushed,
+                                       FraudMetrics metrics,
+                                       WriteBehindDeadLetters deadLetters,
+                                       @Value("${app.write-behind.enabled:false}") boolean enabled,
+                                       @Value("${app.write-behind.batch-size:500}") int batchSize,
+                                       @Value("${app.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                       @Value("${app.write-behind.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${app.write-behind.retry-backoff-max:30s}") Duration retryBackoffMax) {
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("batch-size and queue-capacity must be positive");
+        }
+        this.batchWriter = batchWriter;
+        this.transactionRepo = transactionRepo;
+        this.transactions = transactions;
+        this.journal = journal;
+        this.processed = processed;
+        this.unflushed = unflushed;
+        this.metrics = metrics;
+        this.deadLetters = deadLetters;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxBackoffMillis = Math.max(POLL_MILLIS, retryBackoffMax.toMillis());
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        metrics.writeBehindQueue(queue);
+        this.writer = enabled ? Thread.ofVirtual().name("write-behind").start(this::run) : null;
+        if (enabled) {
+            log.info("Write-behind enabled for clean transactions: batch {}, interval {}, queue {}",
+                    batchSize, flushInterval, queueCapacity);
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a clean transaction for the background writer.
+     *
+     * @return false when write-behind is off, stopped or full; the caller must then insert the row itself
+     */
+    public synchronized boolean enqueue(TransactionEventEntity row) {
+        // Only this method adds to the queue, so free capacity seen here is still free below; journaling under the
+        // same monitor keeps queue order equal to journal order, which makes a flushed batch's last seq a checkpoint
+        if (!enabled || !running || queue.remainingCapacity() == 0) return false;
+        long seq = journal.append(row, true);
+        unflushed.add(row);
+        queue.add(new Pending(row, System.nanoTime(), seq, false));
+        return true;
+    }
+
+    /**
+     * Insert pending rows recovered from the journal after an unclean stop, with the same batch / row-by-row handling
+     * and checkpoints. Blocks, retrying with backoff, until every row is written or dead-lettered, or until timeout;
+     * rows still failing then are dead-lettered and checkpointed, since later flushes move the checkpoint past them.
+     */
+    public void insertRecovered(List<JournalEntry> entries, Duration timeout) {
+        List<Pending> batch = new ArrayList<>(entries.size());
+        long now = System.nanoTime();
+        for (JournalEntry e : entries) {
+            unflushed.add(e.transaction());
+            batch.add(new Pending(e.transaction(), now, e.seq(), true));
+        }
+        long deadline = now + timeout.toNanos();
+        long backoff = 0;
+        RuntimeException failure;
+        while ((failure = flush(batch)) != null) {
+            backoff = nextBackoff(backoff);
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) - deadline > 0) {
+                log.error("{} recovered transactions could not be written within {}; dead-lettering them",
+                        batch.size(), timeout, failure);
+                long lastSeq = batch.get(batch.size() - 1).seq;
+                batch.forEach(this::release);
+                deadLetter(batch, failure);
+                journal.checkpoint(lastSeq);
+                return;
+            }
+            log.warn("{} recovered transactions could not be written ({}); retrying in {} ms",
+                    batch.size(), failure.toString(), backoff);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while re-inserting recovered transactions", ex);
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stop taking rows and wait until everything already queued is flushed.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        stop();
+        if (writer != null) {
+            writer.join();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long backoff = 0;
+        int stoppingAttempts = 0;
+        RuntimeException failure = null;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    if (!fill(batch)) continue;
+                } else {
+                    // Rows left by a failed flush go again, in order, before anything queued after them
+                    Thread.sleep(backoff);
+                }
+                failure = flush(batch);
+            } catch (InterruptedException ex) {
+                // From here enqueue() refuses rows, so callers insert synchronously; what is queued is written out
+                stop();
+                drain(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                failure = ex;
+                log.error("Write-behind writer failed on a batch of {}", batch.size(), ex);
+            }
+
+            if (batch.isEmpty()) {
+                backoff = 0;
+                stoppingAttempts = 0;
+            } else if (!running && ++stoppingAttempts >= STOPPING_ATTEMPTS) {
+                giveUp(batch, failure);
+            } else {
+                backoff = nextBackoff(backoff);
+                metrics.writeBehindRetried(batch.size());
+                log.warn("Write-behind retrying {} transactions in {} ms: {}", batch.size(), backoff, String.valueOf(failure));
+            }
+        }
+    }
+
+    private synchronized void stop() {
+        running = false;
+    }
+
+    /**
+     * Flush the whole queue, one attempt per batch and no backoff; the first batch that still fails is given up
+     * together with everything behind it.
+     */
+    private void drain(List<Pending> batch) {
+        while (true) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) return;
+            RuntimeException failure = flush(batch);
+            if (!batch.isEmpty()) {
+                giveUp(batch, failure);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wait for the next rows: size trigger, a full batch goes out at once; time trigger, measured from the oldest
+     * queued row.
+     *
+     * @return false when nothing arrived within the poll interval
+     */
+    private boolean fill(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) return false;
+        batch.add(first);
+        queue.drainTo(batch, batchSize - batch.size());
+
+        long deadline = first.enqueuedAt + flushIntervalNanos;
+        while (batch.size() < batchSize && running) {
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) break;
+            Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+        return true;
+    }
+
+    /**
+     * Write a batch and remove what is done from its head: inserted rows and dead-lettered constraint violations.
+     * The first row that fails for any other reason stays, with every row after it, for the next attempt.
+     *
+     * @return the failure that stopped the flush, or null when the whole batch is done
+     */
+    private RuntimeException flush(List<Pending> batch) {
+        if (batch.isEmpty()) return null;
+        long start = System.nanoTime();
+        int done = 0;
+        RuntimeException failure = null;
+        try {
+            transactions.executeWithoutResult(status -> batchWriter.insertTransactions(rows(batch)));
+            done = batch.size();
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind batch of {} rows failed, retrying row by row: {}", batch.size(), ex.toString());
+            for (Pending p : batch) {
+                try {
+                    transactions.executeWithoutResult(status -> batchWriter.insertTransactions(List.of(p.row)));
+                } catch (DataIntegrityViolationException rowEx) {
+                    try {
+                        if (p.recovered && stored(p.row)) {
+                            log.info("Recovered transaction {} of account {} was already written",
+                                    p.row.getTransactionId(), p.row.getAccountId());
+                        } else {
+                            deadLetters.write(p.row, rowEx);
+                            metrics.writeBehindDeadLettered();
+                        }
+                    } catch (RuntimeException checkEx) {
+                        failure = checkEx;
+                        break;
+                    }
+                } catch (RuntimeException rowEx) {
+                    failure = rowEx;
+                    break;
+                }
+                done++;
+            }
+        }
+
+        long end = System.nanoTime();
+        metrics.writeBehindFlush().record(end - start, TimeUnit.NANOSECONDS);
+        if (done == 0) return failure;
+        List<Pending> written = batch.subList(0, done);
+        for (Pending p : written) {
+            metrics.writeBehindLag().record(end - p.enqueuedAt, TimeUnit.NANOSECONDS);
+            release(p);
+        }
+        long lastSeq = written.get(done - 1).seq;
+        written.clear();
+        journal.checkpoint(lastSeq);
+        return failure;
+    }
+
+    /**
+     * The writer is stopping and rows still fail: with a journal they stay unwritten and past the checkpoint, so
+     * JournalRecovery re-inserts them at the next start; without one they are dead-lettered.
+     */
+    private void giveUp(List<Pending> batch, RuntimeException failure) {
+        List<Pending> rest = new ArrayList<>(batch);
+        queue.drainTo(rest);
+        batch.clear();
+        rest.forEach(this::release);
+        if (journal.enabled()) {
+            log.error("Write-behind stopped with {} unwritten transactions; they are re-inserted from the journal at the next start",
+                    rest.size());
+            return;
+        }
+        deadLetter(rest, failure != null ? failure : new IllegalStateException("write-behind stopped"));
+    }
+
+    private void deadLetter(List<Pending> rows, RuntimeException cause) {
+        for (Pending p : rows) {
+            try {
+                deadLetters.write(p.row, cause);
+                metrics.writeBehindDeadLettered();
+            } catch (UncheckedIOException ex) {
+                log.error("Lost write-behind transaction {} of account {}: {}",
+                        p.row.getTransactionId(), p.row.getAccountId(), ex.toString());
+            }
+        }
+    }
+
+    /** Whether the row's (accountId, transactionId) is already in the database; rows without a transactionId never are. */
+    private boolean stored(TransactionEventEntity row) {
+        return row.getTransactionId() != null && Boolean.TRUE.equals(transactions.execute(status ->
+                transactionRepo.findByAccountIdAndTransactionId(row.getAccountId(), row.getTransactionId()).isPresent()));
+    }
+
+    private void release(Pending p) {
+        unflushed.remove(p.row);
+        processed.release(p.row.getAccountId(), p.row.getTransactionId());
+    }
+
+    private long nextBackoff(long backoff) {
+        return backoff == 0 ? POLL_MILLIS : Math.min(backoff * 2, maxBackoffMillis);
+    }
+
+    private static List<TransactionEventEntity> rows(List<Pending> batch) {
+        List<TransactionEventEntity> rows = new ArrayList<>(batch.size());
+        batch.forEach(p -> rows.add(p.row));
+        return rows;
+    }
+
+    private record Pending(TransactionEventEntity row, long enqueuedAt, long seq, boolean recovered) {
+    }
+}
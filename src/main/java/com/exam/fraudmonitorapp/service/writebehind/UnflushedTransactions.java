@@ -0,0 +1,77 @@
+package com.exam.fraudmonitorapp.service.writebehind;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepted transactions that CleanTransactionWriteBehind has not written yet, per account. History lookups
+ * (velocity, known devices, batch prefetch) read them together with the repository, since the database cannot see
+ * them yet.
+ * - A row is added when it is queued and removed once its insert is committed (or it is dead-lettered), so a
+ *   lookup that reads here before querying the database never misses it; at worst a row committed in between is
+ *   seen twice.
+ * - Empty unless app.write-behind.enabled.
+ */
+@Component
+public class UnflushedTransactions {
+
+    private final Map<String, List<TransactionEventEntity>> accounts = new ConcurrentHashMap<>();
+
+    void add(TransactionEventEntity row) {
+        accounts.compute(row.getAccountId(), (a, rows) -> {
+            List<TransactionEventEntity> next = rows == null ? new ArrayList<>(1) : new ArrayList<>(rows);
+            next.add(row);
+            return next;
+        });
+    }
+
+    void remove(TransactionEventEntity row) {
+        accounts.computeIfPresent(row.getAccountId(), (a, rows) -> {
+            List<TransactionEventEntity> next = new ArrayList<>(rows);
+            for (int i = 0; i < next.size(); i++) {
+                if (next.get(i) == row) {
+                    next.remove(i);
+                    break;
+                }
+            }
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    /** Event times of the account's unwritten rows in [from, to]. */
+    public List<LocalDateTime> eventTimes(String accountId, LocalDateTime from, LocalDateTime to) {
+        List<TransactionEventEntity> rows = accounts.get(accountId);
+        if (rows == null) return List.of();
+        List<LocalDateTime> times = new ArrayList<>(rows.size());
+        for (TransactionEventEntity row : rows) {
+            LocalDateTime t = row.getEventTime();
+            if (t != null && !t.isBefore(from) && !t.isAfter(to)) {
+                times.add(t);
+            }
+        }
+        return times;
+    }
+
+    /** Device ids of the account's unwritten rows. */
+    public List<String> deviceIds(String accountId) {
+        List<TransactionEventEntity> rows = accounts.get(accountId);
+        if (rows == null) return List.of();
+        return rows.stream().map(TransactionEventEntity::getDeviceId).filter(Objects::nonNull).distinct().toList();
+    }
+
+    public boolean hasDevice(String accountId, String deviceId) {
+        List<TransactionEventEntity> rows = accounts.get(accountId);
+        return rows != null && rows.stream().anyMatch(r -> deviceId.equals(r.getDeviceId()));
+    }
+
+    public int size() {
+        return accounts.values().stream().mapToInt(List::size).sum();
+    }
+}
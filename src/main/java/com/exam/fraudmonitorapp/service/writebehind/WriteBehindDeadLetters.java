@@ -0,0 +1,72 @@
+package com.exam.fraudmonitorapp.service.writebehind;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Durable store for write-behind transactions that can never be inserted (constraint violations), or that were
+ * still unwritten when the writer stopped without a journal to recover them from.
+ * - One NDJSON file per day under dead-letter-dir: {"failedAt", "error", "transaction"} per line.
+ * - Each line is forced to disk before the writer moves past the row, so a dead-lettered row is never lost.
+ * Re-inserting a row from here is an operator decision once its cause is understood.
+ */
+@Component
+@Slf4j
+public class WriteBehindDeadLetters {
+
+    private final Path dir;
+    private final ObjectWriter writer;
+
+    public WriteBehindDeadLetters(JsonMapper jsonMapper,
+                                  @Value("${app.write-behind.dead-letter-dir:dead-letter}") Path dir) {
+        this.dir = dir;
+        this.writer = jsonMapper.writerFor(DeadLetter.class);
+    }
+
+    /**
+     * Append a row and the reason it was not written.
+     *
+     * @throws UncheckedIOException when the line cannot be written; the row must then be kept by the caller
+     */
+    public synchronized void write(TransactionEventEntity row, Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+        Path file = file(now.toLocalDate());
+        try {
+            Files.createDirectories(dir);
+            byte[] json = writer.writeValueAsBytes(new DeadLetter(now, error.toString(), row));
+            ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+            try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                while (line.hasRemaining()) {
+                    out.write(line);
+                }
+                out.force(true);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write dead letter to " + file, ex);
+        }
+        log.error("Dead-lettered write-behind transaction {} of account {} to {}: {}",
+                row.getTransactionId(), row.getAccountId(), file, error.toString());
+    }
+
+    public Path file(LocalDate day) {
+        return dir.resolve("write-behind-" + day + ".ndjson");
+    }
+
+    private record DeadLetter(LocalDateTime failedAt, String error, TransactionEventEntity transaction) {
+    }
+}
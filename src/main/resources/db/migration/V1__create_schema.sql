@@ -0,0 +1,51 @@
+-- Base schema. Ids come from pooled sequences (increment = JPA allocationSize) so inserts can be JDBC-batched.
+
+create sequence transactions_seq start with 1 increment by 50;
+create sequence fraud_alerts_seq start with 1 increment by 50;
+create sequence notification_outbox_seq start with 1 increment by 50;
+
+create table transactions (
+    id              bigint         not null,
+    transaction_id  bigint,
+    country         varchar(255),
+    fraudulent      boolean        not null,
+    fraud_reason    varchar(255),
+    timestamp       timestamp(6),
+    account_id      varchar(255)   not null,
+    amount          numeric(38, 2) not null,
+    currency        varchar(32)    not null,
+    category        varchar(32)    not null,
+    channel         varchar(32)    not null,
+    merchant        varchar(255)   not null,
+    country_code    varchar(255),
+    device_id       varchar(255),
+    user_email      varchar(255),
+    user_phone      varchar(255),
+    event_time      timestamp(6)   not null,
+    primary key (id),
+    constraint uk_transactions_account_transaction unique (account_id, transaction_id)
+);
+
+create table fraud_alerts (
+    id              bigint       not null,
+    transaction_id  bigint       not null,
+    account_id      varchar(255) not null,
+    reasons         varchar(255) not null,
+    status          varchar(255) not null,
+    created_at      timestamp(6) not null,
+    primary key (id)
+);
+
+create table notification_outbox (
+    id              bigint        not null,
+    transaction_id  bigint        not null,
+    alert_id        bigint        not null,
+    account_id      varchar(255)  not null,
+    status          varchar(255)  not null,
+    attempts        integer       not null,
+    next_attempt_at timestamp(6)  not null,
+    last_error      varchar(1000),
+    created_at      timestamp(6)  not null,
+    sent_at         timestamp(6),
+    primary key (id)
+);
@@ -0,0 +1,14 @@
+-- Indexes for the hot read paths.
+
+-- Velocity windows and device history: where account_id = ? [and event_time >= ?]
+create index ix_transactions_account_event_time on transactions (account_id, event_time);
+
+-- Batch dedupe: where transaction_id in (...)
+create index ix_transactions_transaction_id on transactions (transaction_id);
+
+-- Alert listing, keyset pages and read-model loads: where status = ? [and account_id = ?] order by created_at desc[, id desc]
+create index ix_fraud_alerts_status_created_at on fraud_alerts (status, created_at, id);
+create index ix_fraud_alerts_status_account_created_at on fraud_alerts (status, account_id, created_at);
+
+-- Outbox relay poll: where status = 'PENDING' and next_attempt_at <= ? order by id
+create index ix_notification_outbox_status_next_attempt on notification_outbox (status, next_attempt_at);
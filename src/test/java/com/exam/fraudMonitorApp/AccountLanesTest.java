@@ -0,0 +1,101 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.service.exception.ConflictException;
+import com.exam.fraudmonitorapp.service.exception.ServiceBusyException;
+import com.exam.fraudmonitorapp.service.lanes.AccountLanes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccountLanesTest {
+
+    private AccountLanes lanes;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (lanes != null) lanes.close();
+    }
+
+    @Test
+    void tasksOfOneAccountRunOneAtATimeInSubmissionOrder() {
+        lanes = new AccountLanes(true, 4, 1000, Duration.ofSeconds(5));
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicBoolean overlapped = new AtomicBoolean();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String account = "ACC-" + (i % 10);
+            int seq = i;
+            futures.add(lanes.submit(account, () -> {
+                if (running.computeIfAbsent(account, a -> new AtomicInteger()).incrementAndGet() > 1) {
+                    overlapped.set(true);
+                }
+                seen.computeIfAbsent(account, a -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                Thread.sleep(0, 50_000);
+                running.get(account).decrementAndGet();
+                return seq;
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        assertFalse(overlapped.get());
+        for (int a = 0; a < 10; a++) {
+            List<Integer> order = seen.get("ACC-" + a);
+            assertEquals(40, order.size());
+            for (int k = 1; k < order.size(); k++) {
+                assertEquals(order.get(k - 1) + 10, order.get(k));
+            }
+        }
+    }
+
+    @Test
+    void callRethrowsTaskExceptions() {
+        lanes = new AccountLanes(true, 2, 10, Duration.ofSeconds(1));
+        assertThrows(ConflictException.class, () -> lanes.call("ACC-1", () -> {
+            throw new ConflictException("modified", null);
+        }));
+        assertEquals(7, lanes.call("ACC-1", () -> 7));
+    }
+
+    @Test
+    void submitAfterCloseIsRefusedInsteadOfLeftPending() throws InterruptedException {
+        lanes = new AccountLanes(true, 2, 10, Duration.ofSeconds(1));
+        CompletableFuture<Integer> accepted = lanes.submit("ACC-1", () -> 1);
+        lanes.close();
+
+        assertEquals(1, accepted.join());
+        assertThrows(ServiceBusyException.class, () -> lanes.submit("ACC-1", () -> 2));
+    }
+
+    @Test
+    void fullMailboxIsReportedAsBusy() throws Exception {
+        lanes = new AccountLanes(true, 1, 1, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        lanes.submit("ACC-1", () -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        started.await();
+        lanes.submit("ACC-1", () -> null); // fills the single mailbox slot
+
+        assertThrows(ServiceBusyException.class, () -> lanes.submit("ACC-2", () -> null));
+        release.countDown();
+    }
+}
@@ -0,0 +1,95 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.AccountProfileDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.rules.AccountAnomalyRule;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class AccountProfileStoreTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 6, 2, 12, 0);
+
+    private final AccountProfileStore store = new AccountProfileStore(true, 0.1, 10, 0.05, 4.0, Duration.ofHours(24),
+            1000, 4, new FraudMetrics(new SimpleMeterRegistry()));
+    private final AccountAnomalyRule rule = new AccountAnomalyRule(store);
+
+    @Test
+    void amountFarAboveTheAccountsUsualSpendMatches() {
+        for (int i = 0; i < 30; i++) {
+            store.record(tx(CategoryEnum.PURCHASE, 40 + (i % 5) * 5, NOON.plusMinutes(i), "ZA", "Shop " + (i % 3)));
+        }
+
+        assertThat(rule.matches(TransactionView.of(tx(CategoryEnum.PURCHASE, 55, NOON, "ZA", "Shop 1")), null)).isFalse();
+        assertThat(rule.matches(TransactionView.of(tx(CategoryEnum.PURCHASE, 900, NOON, "ZA", "Shop 1")), null)).isTrue();
+        // Per category: the same amount is not scored against purchases for a category the account never used
+        assertThat(rule.matches(TransactionView.of(tx(CategoryEnum.TRANSFER, 900, NOON, "ZA", "Shop 1")), null)).isFalse();
+    }
+
+    @Test
+    void unusualHourAndCountryAddToAModerateAmountDeviation() {
+        for (int i = 0; i < 30; i++) {
+            store.record(tx(CategoryEnum.ONLINE, 100 + (i % 2) * 20, NOON.plusMinutes(i), "ZA", "Shop"));
+        }
+        TransactionView usual = TransactionView.of(tx(CategoryEnum.ONLINE, 135, NOON, "ZA", "Shop"));
+        TransactionView night = TransactionView.of(tx(CategoryEnum.ONLINE, 135, NOON.withHour(3), "ZA", "Shop"));
+        TransactionView nightAbroad = TransactionView.of(tx(CategoryEnum.ONLINE, 135, NOON.withHour(3), "RU", "Shop"));
+
+        assertThat(store.deviation(night)).isCloseTo(store.deviation(usual) + 1.0, within(1e-9));
+        assertThat(store.deviation(nightAbroad)).isCloseTo(store.deviation(usual) + 2.0, within(1e-9));
+        assertThat(rule.matches(usual, null)).isFalse();
+        assertThat(rule.matches(nightAbroad, null)).isTrue();
+    }
+
+    @Test
+    void accountsBelowMinSamplesAreNotScored() {
+        for (int i = 0; i < 9; i++) {
+            store.record(tx(CategoryEnum.PURCHASE, 10, NOON, "ZA", "Shop"));
+        }
+
+        assertThat(store.deviation(TransactionView.of(tx(CategoryEnum.PURCHASE, 5000, NOON.withHour(3), "US", "Shop"))))
+                .isZero();
+        TransactionEventEntity unknown = tx(CategoryEnum.PURCHASE, 5000, NOON, "ZA", "Shop");
+        unknown.setAccountId("ACC-unknown");
+        assertThat(store.deviation(TransactionView.of(unknown))).isZero();
+    }
+
+    @Test
+    void snapshotExposesTheProfile() {
+        for (int i = 0; i < 20; i++) {
+            store.record(tx(CategoryEnum.PURCHASE, 100, NOON, i < 19 ? "ZA" : "NA", "Shop " + i));
+        }
+
+        AccountProfileDto profile = store.snapshot("ACC-1").orElseThrow();
+        assertThat(profile.getTransactions()).isEqualTo(20);
+        assertThat(profile.getAmounts().get(CategoryEnum.PURCHASE).getMean()).isEqualTo(100.0);
+        assertThat(profile.getAmounts().get(CategoryEnum.PURCHASE).getSamples()).isEqualTo(20);
+        assertThat(profile.getHourCounts()[12]).isEqualTo(20);
+        assertThat(profile.getUsualCountries()).containsExactly("ZA", "NA"); // NA is exactly 5%
+        assertThat(profile.getDistinctMerchants()).isBetween(19L, 21L);
+        assertThat(store.snapshot("ACC-2")).isEmpty();
+    }
+
+    private static TransactionEventEntity tx(CategoryEnum category, double amount, LocalDateTime at, String country,
+                                             String merchant) {
+        TransactionEventEntity e = new TransactionEventEntity();
+        e.setAccountId("ACC-1");
+        e.setCategory(category);
+        e.setAmount(BigDecimal.valueOf(amount));
+        e.setEventTime(at);
+        e.setCountryCode(country);
+        e.setMerchant(merchant);
+        return e;
+    }
+}
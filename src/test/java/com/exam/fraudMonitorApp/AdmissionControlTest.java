@@ -0,0 +1,107 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.service.admission.AdmissionControl;
+import com.exam.fraudmonitorapp.service.exception.TooManyRequestsException;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+
+    @Test
+    void lowPriorityIsShedOnceItsShareIsTakenWhileHighPriorityUsesTheReserve() throws Exception {
+        // limit 5, 20% reserved: normal transactions get 4 slots
+        AdmissionControl admission = admission(5, 1, Duration.ofHours(1), 0.2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> holders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            holders.add(Thread.ofVirtual().start(() -> admission.call(tx(CategoryEnum.PURCHASE, "10"), () -> {
+                await(release);
+                return null;
+            })));
+        }
+        while (admission.inFlight() < 4) {
+            Thread.sleep(1);
+        }
+
+        TooManyRequestsException shed = assertThrows(TooManyRequestsException.class,
+                () -> admission.call(tx(CategoryEnum.PURCHASE, "10"), () -> "clean"));
+        assertEquals(429, shed.getStatusCode().value());
+        assertEquals("1", shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        assertEquals("transfer", admission.call(tx(CategoryEnum.TRANSFER, "5000"), () -> "transfer"));
+
+        release.countDown();
+        for (Thread holder : holders) {
+            holder.join();
+        }
+        assertEquals(0, admission.inFlight());
+    }
+
+    @Test
+    void slowOrOverloadedCallsCutTheLimitAndFastCallsGrowIt() {
+        AdmissionControl slow = admission(10, 1, Duration.ZERO, 0.2);
+        slow.call(tx(CategoryEnum.PURCHASE, "10"), () -> null);
+        assertEquals(9.0, slow.limit(), 1e-9);
+
+        AdmissionControl overloaded = admission(10, 1, Duration.ofHours(1), 0.2);
+        assertThrows(CannotCreateTransactionException.class, () -> overloaded.call(tx(CategoryEnum.PURCHASE, "10"), () -> {
+            throw new CannotCreateTransactionException("Connection pool exhausted");
+        }));
+        assertEquals(9.0, overloaded.limit(), 1e-9);
+
+        AdmissionControl fast = admission(1, 1, Duration.ofHours(1), 0.0);
+        fast.call(tx(CategoryEnum.PURCHASE, "10"), () -> null);
+        fast.call(tx(CategoryEnum.PURCHASE, "10"), () -> null);
+        assertEquals(2.0, fast.limit(), 1e-9); // 1 + 1/1; the second call used 1 of 2 slots, so no growth
+    }
+
+    @Test
+    void priorityFollowsCategoryAndAmount() {
+        AdmissionControl admission = admission(10, 1, Duration.ofHours(1), 0.2);
+
+        assertTrue(admission.isHighPriority(tx(CategoryEnum.INTERNATIONAL, "1500")));
+        assertTrue(admission.isHighPriority(tx(CategoryEnum.TRANSFER, "1000")));
+        assertFalse(admission.isHighPriority(tx(CategoryEnum.INTERNATIONAL, "999.99")));
+        assertFalse(admission.isHighPriority(tx(CategoryEnum.PURCHASE, "5000")));
+        assertTrue(admission.isHighPriority(tx(CategoryEnum.PURCHASE, "10000")));
+        assertFalse(admission.isHighPriority(tx(null, null)));
+    }
+
+    private static AdmissionControl admission(int initialLimit, int minLimit, Duration latencyTarget, double reserve) {
+        return new AdmissionControl(true, initialLimit, minLimit, 100, latencyTarget, reserve, Duration.ZERO,
+                Duration.ofSeconds(1), List.of(CategoryEnum.INTERNATIONAL, CategoryEnum.TRANSFER),
+                new BigDecimal("1000"), new BigDecimal("10000"), new FraudMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static TransactionEventDto tx(CategoryEnum category, String amount) {
+        TransactionEventDto d = new TransactionEventDto();
+        d.setAccountId("ACC-1");
+        d.setCategory(category);
+        d.setAmount(amount == null ? null : new BigDecimal(amount));
+        return d;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
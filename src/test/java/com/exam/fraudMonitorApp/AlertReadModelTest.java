@@ -0,0 +1,96 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.dto.FraudAlertDto;
+import com.exam.fraudmonitorapp.model.mapper.FraudAlertMapper;
+import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.service.alerts.AlertReadModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AlertReadModelTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 9, 12, 30, 0);
+
+    @Mock
+    private FraudAlertRepo repo;
+
+    private AlertReadModel readModel;
+
+    @BeforeEach
+    void setUp() {
+        readModel = new AlertReadModel(repo, Mappers.getMapper(FraudAlertMapper.class), true, Set.of("OPEN"));
+    }
+
+    @Test
+    void startupRebuildLoadsOpenAlertsNewestFirst() {
+        when(repo.findByStatusOrderByCreatedAtDesc("OPEN")).thenReturn(List.of(
+                alert(2L, "ACC-1", "OPEN", now), alert(1L, "ACC-2", "OPEN", now.minusMinutes(1))));
+
+        assertFalse(readModel.serves("OPEN"));
+        readModel.afterSingletonsInstantiated();
+
+        assertTrue(readModel.serves("OPEN"));
+        assertFalse(readModel.serves("CLOSED"));
+        readModel.apply(alert(3L, "ACC-1", "OPEN", now.plusMinutes(1)));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(readModel.list("OPEN", null)));
+        assertEquals(List.of(3L, 2L), ids(readModel.list("OPEN", "ACC-1")));
+        assertEquals(List.of(), readModel.list("OPEN", "ACC-9"));
+    }
+
+    @Test
+    void closedAlertLeavesTheOpenIndex() {
+        when(repo.findByStatusOrderByCreatedAtDesc("OPEN")).thenReturn(List.of(alert(1L, "ACC-1", "OPEN", now)));
+        readModel.rebuild();
+
+        readModel.apply(alert(1L, "ACC-1", "CLOSED", now));
+
+        assertEquals(List.of(), readModel.list("OPEN", null));
+        assertEquals(List.of(), readModel.list("OPEN", "ACC-1"));
+        assertEquals(0, readModel.size());
+    }
+
+    @Test
+    void changesAppliedDuringRebuildSurviveTheSwap() {
+        when(repo.findByStatusOrderByCreatedAtDesc("OPEN")).thenAnswer(inv -> {
+            // Committed while the database snapshot is being read
+            readModel.apply(alert(2L, "ACC-1", "OPEN", now));
+            readModel.apply(alert(1L, "ACC-1", "CLOSED", now.minusMinutes(5)));
+            return List.of(alert(1L, "ACC-1", "OPEN", now.minusMinutes(5)));
+        });
+
+        readModel.rebuild();
+
+        assertEquals(List.of(2L), ids(readModel.list("OPEN", null)));
+    }
+
+    private static List<Long> ids(List<FraudAlertDto> alerts) {
+        return alerts.stream().map(FraudAlertDto::getId).toList();
+    }
+
+    private static FraudAlertEntity alert(Long id, String accountId, String status, LocalDateTime createdAt) {
+        FraudAlertEntity a = new FraudAlertEntity();
+        a.setId(id);
+        a.setTransactionId(id * 10);
+        a.setAccountId(accountId);
+        a.setReasons("Merchant is blacklisted");
+        a.setStatus(status);
+        a.setCreatedAt(createdAt);
+        return a;
+    }
+}
@@ -0,0 +1,267 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.repo.TransactionBatchWriter;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.ProcessedTransactionCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.journal.JournalEntry;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.writebehind.CleanTransactionWriteBehind;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import com.exam.fraudmonitorapp.service.writebehind.WriteBehindDeadLetters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CleanTransactionWriteBehindTest {
+
+    private final TransactionBatchWriter batchWriter = mock(TransactionBatchWriter.class);
+    private final TransactionRepo transactionRepo = mock(TransactionRepo.class);
+    private final EventJournal journal = mock(EventJournal.class);
+    private final FraudMetrics metrics = new FraudMetrics(new SimpleMeterRegistry());
+    private final UnflushedTransactions unflushed = new UnflushedTransactions();
+
+    @TempDir
+    Path deadLetterDir;
+
+    @Test
+    void queuedRowsAreFlushedInBatchesAndOnClose() throws InterruptedException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> batchSizes.add(((List<?>) inv.getArgument(0)).size()))
+                .when(batchWriter).insertTransactions(anyList());
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(true, 4, Duration.ofSeconds(30), 100);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(writeBehind.enqueue(row("ACC-" + i)));
+        }
+        writeBehind.close();
+
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(n -> n <= 4));
+        assertFalse(writeBehind.enqueue(row("ACC-late")));
+        assertEquals(10, metrics.writeBehindLag().count());
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndConstraintViolationsAreDeadLettered() throws InterruptedException, IOException {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            List<TransactionEventEntity> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.getAccountId().equals("ACC-bad"))) {
+                throw new DuplicateKeyException("uk_transactions_account_transaction");
+            }
+            rows.forEach(r -> written.add(r.getAccountId()));
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(true, 10, Duration.ofSeconds(30), 100);
+        writeBehind.enqueue(row("ACC-1"));
+        writeBehind.enqueue(row("ACC-bad"));
+        writeBehind.enqueue(row("ACC-2"));
+        writeBehind.close();
+
+        assertEquals(List.of("ACC-1", "ACC-2"), written);
+        List<String> deadLetters = Files.readAllLines(deadLetterDir.resolve("write-behind-" + LocalDate.now() + ".ndjson"));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"accountId\":\"ACC-bad\""));
+    }
+
+    @Test
+    void transientFailuresKeepRowsQueuedAndRetryThemInOrder() throws InterruptedException {
+        AtomicInteger outage = new AtomicInteger(3);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            if (outage.getAndDecrement() > 0) {
+                throw new TransientDataAccessResourceException("connection pool exhausted");
+            }
+            List<TransactionEventEntity> rows = inv.getArgument(0);
+            rows.forEach(r -> written.add(r.getAccountId()));
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(true, 10, Duration.ofMillis(10), 100);
+        writeBehind.enqueue(row("ACC-1"));
+        writeBehind.enqueue(row("ACC-2"));
+        writeBehind.close();
+
+        assertEquals(List.of("ACC-1", "ACC-2"), written);
+        assertFalse(Files.exists(deadLetterDir.resolve("write-behind-" + LocalDate.now() + ".ndjson")));
+    }
+
+    @Test
+    void checkpointStopsBeforeTheFirstRowNotYetWritten() throws InterruptedException {
+        AtomicLong seq = new AtomicLong();
+        when(journal.append(any(), anyBoolean())).thenAnswer(inv -> seq.incrementAndGet());
+        List<Long> checkpoints = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> checkpoints.add(inv.getArgument(0))).when(journal).checkpoint(anyLong());
+
+        AtomicInteger acc2Attempts = new AtomicInteger();
+        doAnswer(inv -> {
+            List<TransactionEventEntity> rows = inv.getArgument(0);
+            if (rows.size() > 1) throw new TransientDataAccessResourceException("batch rejected");
+            if (rows.get(0).getAccountId().equals("ACC-2") && acc2Attempts.incrementAndGet() == 1) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(true, 10, Duration.ofMillis(10), 100);
+        writeBehind.enqueue(row("ACC-1"));
+        writeBehind.enqueue(row("ACC-2"));
+        writeBehind.enqueue(row("ACC-3"));
+        writeBehind.close();
+
+        assertEquals(List.of(1L, 3L), checkpoints);
+    }
+
+    @Test
+    void interruptedWriterFlushesTheWholeQueueAndStopsTakingRows() throws InterruptedException {
+        CountDownLatch queued = new CountDownLatch(1);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            if (written.isEmpty()) {
+                queued.await();
+                Thread.currentThread().interrupt(); // the writer's next wait for rows is interrupted
+            }
+            List<TransactionEventEntity> rows = inv.getArgument(0);
+            rows.forEach(r -> written.add(r.getAccountId()));
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(true, 1, Duration.ofSeconds(30), 100);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writeBehind.enqueue(row("ACC-" + i)));
+        }
+        queued.countDown();
+        writeBehind.close();
+
+        assertEquals(List.of("ACC-0", "ACC-1", "ACC-2", "ACC-3", "ACC-4"), written);
+        assertFalse(writeBehind.enqueue(row("ACC-late")));
+    }
+
+    @Test
+    void disabledWriteBehindRefusesRows() {
+        CleanTransactionWriteBehind writeBehind = writeBehind(false, 10, Duration.ofSeconds(1), 10);
+        assertFalse(writeBehind.enqueue(row("ACC-1")));
+    }
+
+    @Test
+    void queuedRowsAreSeenByHistoryLookupsUntilWritten() throws InterruptedException {
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch database = new CountDownLatch(1);
+        doAnswer(inv -> {
+            inserting.countDown();
+            database.await();
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+        TransactionRepo repo = mock(TransactionRepo.class); // the database does not have the row yet
+        LocalDateTime now = LocalDateTime.now();
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(true, 1, Duration.ofSeconds(30), 100);
+        TransactionEventEntity queued = row("ACC-Q");
+        queued.setDeviceId("dev-q");
+        queued.setEventTime(now.minusSeconds(5));
+        assertTrue(writeBehind.enqueue(queued));
+        assertTrue(inserting.await(5, TimeUnit.SECONDS));
+
+        // Fresh (or evicted) cache entries load from the repository and the queue
+        KnownDeviceCache devices = new KnownDeviceCache(repo, unflushed, 32, 8192, Duration.ofMinutes(30));
+        VelocityIndex velocity = new VelocityIndex(repo, unflushed, List.of(), Duration.ofMinutes(30));
+        assertTrue(devices.isKnown("ACC-Q", "dev-q"));
+        assertEquals(1, velocity.count("ACC-Q", Duration.ofMinutes(1), now));
+
+        database.countDown();
+        writeBehind.close();
+        assertEquals(0, unflushed.size());
+    }
+
+    @Test
+    void recoveredRowsAlreadyInTheDatabaseAreCheckpointedInsteadOfDeadLettered() {
+        doAnswer(inv -> {
+            List<TransactionEventEntity> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.getAccountId().equals("ACC-written"))) {
+                throw new DuplicateKeyException("uk_transactions_account_transaction");
+            }
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+        // Flushed before the crash, but after the last checkpoint
+        TransactionEventEntity written = row("ACC-written");
+        written.setTransactionId(7L);
+        when(transactionRepo.findByAccountIdAndTransactionId("ACC-written", 7L)).thenReturn(Optional.of(written));
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(false, 10, Duration.ofSeconds(30), 100);
+        writeBehind.insertRecovered(List.of(pending(1, row("ACC-1")), pending(2, written)), Duration.ofMinutes(1));
+
+        verify(journal).checkpoint(2L);
+        assertFalse(Files.exists(deadLetterDir.resolve("write-behind-" + LocalDate.now() + ".ndjson")));
+        assertEquals(0, unflushed.size());
+    }
+
+    @Test
+    void recoveryStopsRetryingAtTheTimeoutAndDeadLettersTheRest() throws IOException {
+        doThrow(new TransientDataAccessResourceException("database unavailable"))
+                .when(batchWriter).insertTransactions(anyList());
+
+        CleanTransactionWriteBehind writeBehind = writeBehind(false, 10, Duration.ofSeconds(30), 100);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> writeBehind.insertRecovered(
+                List.of(pending(1, row("ACC-1")), pending(2, row("ACC-2"))), Duration.ofMillis(300)));
+
+        // Later flushes move the checkpoint past these rows, so they cannot be left to the journal
+        verify(journal).checkpoint(2L);
+        assertEquals(2, Files.readAllLines(deadLetterDir.resolve("write-behind-" + LocalDate.now() + ".ndjson")).size());
+        assertEquals(0, unflushed.size());
+    }
+
+    private CleanTransactionWriteBehind writeBehind(boolean enabled, int batchSize, Duration flushInterval, int capacity) {
+        return new CleanTransactionWriteBehind(batchWriter, transactionRepo, TransactionOperations.withoutTransaction(), journal,
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), unflushed, metrics,
+                new WriteBehindDeadLetters(JsonMapper.builder().build(), deadLetterDir), enabled, batchSize,
+                flushInterval, capacity, Duration.ofSeconds(1));
+    }
+
+    private static JournalEntry pending(long seq, TransactionEventEntity row) {
+        return new JournalEntry(seq, System.currentTimeMillis(), row, true, -1);
+    }
+
+    private TransactionEventEntity row(String accountId) {
+        TransactionEventEntity e = new TransactionEventEntity();
+        e.setAccountId(accountId);
+        return e;
+    }
+}
@@ -0,0 +1,156 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.model.enums.ChannelEnum;
+import com.exam.fraudmonitorapp.model.enums.CurrencyEnum;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.journal.JournalEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsSurviveReopenWithAllFields() {
+        EventJournal journal = open(DataSize.ofMegabytes(1));
+        TransactionEventEntity tx = transaction("ACC-1", 7L);
+        journal.append(tx, true);
+        journal.append(transaction("ACC-2", null), false);
+        journal.checkpoint(1);
+        journal.close();
+
+        EventJournal reopened = open(DataSize.ofMegabytes(1));
+        List<JournalEntry> entries = replay(reopened);
+
+        assertEquals(3, entries.size());
+        assertEquals(1, reopened.checkpointSeq());
+        assertEquals(3, reopened.lastSeq());
+        JournalEntry first = entries.get(0);
+        assertTrue(first.pending());
+        TransactionEventEntity copy = first.transaction();
+        assertEquals(tx.getAccountId(), copy.getAccountId());
+        assertEquals(tx.getTransactionId(), copy.getTransactionId());
+        assertEquals(0, tx.getAmount().compareTo(copy.getAmount()));
+        assertEquals(tx.getCurrency(), copy.getCurrency());
+        assertEquals(tx.getEventTime(), copy.getEventTime());
+        assertEquals(tx.getFraudReason(), copy.getFraudReason());
+        assertTrue(copy.isFraudulent());
+        assertNull(entries.get(1).transaction().getTransactionId());
+        assertFalse(entries.get(2).isEvent());
+
+        assertEquals(4, reopened.append(transaction("ACC-3", null), false));
+    }
+
+    @Test
+    void fullSegmentsRollAndExpiredOnesAreDeleted() {
+        EventJournal journal = new EventJournal(true, dir, DataSize.ofKilobytes(4), Duration.ZERO);
+        for (int i = 0; i < 100; i++) {
+            journal.append(transaction("ACC-" + i, (long) i), false);
+        }
+        assertTrue(journal.segmentCount() > 1);
+        assertEquals(100, replay(journal).size());
+
+        journal.enforceRetention();
+        assertEquals(1, journal.segmentCount());
+        assertEquals(1, segmentFiles().size());
+    }
+
+    @Test
+    void segmentsWithUnpersistedRecordsAreKeptPastRetention() {
+        EventJournal journal = new EventJournal(true, dir, DataSize.ofKilobytes(4), Duration.ZERO);
+        journal.append(transaction("ACC-0", 0L), true);
+        for (int i = 1; i < 100; i++) {
+            journal.append(transaction("ACC-" + i, (long) i), false);
+        }
+        int segments = journal.segmentCount();
+
+        journal.enforceRetention();
+        assertEquals(segments, journal.segmentCount());
+
+        journal.checkpoint(1);
+        journal.enforceRetention();
+        assertEquals(1, journal.segmentCount());
+    }
+
+    @Test
+    void tornTailIsDiscardedOnReopen() throws IOException {
+        EventJournal journal = open(DataSize.ofKilobytes(64));
+        journal.append(transaction("ACC-1", 1L), false);
+        journal.append(transaction("ACC-2", 2L), false);
+        journal.close();
+
+        // Corrupt one payload byte of the second record, as if the process died mid-append
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 0);
+            int second = 8 + length.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{42}), second + 20);
+        }
+
+        EventJournal reopened = open(DataSize.ofKilobytes(64));
+        assertEquals(1, replay(reopened).size());
+        reopened.append(transaction("ACC-3", 3L), false);
+        List<JournalEntry> entries = replay(reopened);
+        assertEquals(2, entries.size());
+        assertEquals("ACC-3", entries.get(1).transaction().getAccountId());
+    }
+
+    private EventJournal open(DataSize segmentSize) {
+        return new EventJournal(true, dir, segmentSize, Duration.ofHours(25));
+    }
+
+    private static List<JournalEntry> replay(EventJournal journal) {
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.replay(entries::add);
+        return entries;
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static TransactionEventEntity transaction(String accountId, Long transactionId) {
+        TransactionEventEntity t = new TransactionEventEntity();
+        t.setAccountId(accountId);
+        t.setTransactionId(transactionId);
+        t.setAmount(new BigDecimal("1250.50"));
+        t.setCurrency(CurrencyEnum.ZAR);
+        t.setCategory(CategoryEnum.PURCHASE);
+        t.setChannel(ChannelEnum.WEB);
+        t.setMerchant("SCAM MART");
+        t.setCountryCode("ZA");
+        t.setDeviceId("dev-1");
+        t.setFraudulent(true);
+        t.setFraudReason("Merchant is blacklisted");
+        t.setEventTime(LocalDateTime.of(2025, 1, 9, 12, 30, 15, 123_000_000));
+        return t;
+    }
+}
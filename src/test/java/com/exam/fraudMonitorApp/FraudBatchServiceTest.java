@@ -0,0 +1,228 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.TransactionBatchItemDto;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.model.enums.ChannelEnum;
+import com.exam.fraudmonitorapp.model.enums.CurrencyEnum;
+import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
+import com.exam.fraudmonitorapp.repo.TransactionBatchWriter;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.FraudBatchService;
+import com.exam.fraudmonitorapp.service.FraudRuleEngine;
+import com.exam.fraudmonitorapp.service.alerts.AlertReadModel;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.ProcessedTransactionCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.exception.ConflictException;
+import com.exam.fraudmonitorapp.service.exception.PayloadTooLargeException;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FraudBatchServiceTest {
+
+    private static final String VELOCITY = "High transaction velocity in last minute";
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 9, 12, 30, 0);
+
+    private TransactionRepo txRepo;
+    private TransactionBatchWriter writer;
+    private UnflushedTransactions unflushed;
+    private FraudBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock(TransactionRepo.class);
+        writer = mock(TransactionBatchWriter.class);
+        unflushed = mock(UnflushedTransactions.class);
+        FraudMetrics metrics = new FraudMetrics(new SimpleMeterRegistry());
+        FraudRuleEngine engine = new FraudRuleEngine(FraudRuleEngineTest.defaultRules(),
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), metrics, 0, 10, 0, false, Duration.ZERO);
+
+        AtomicLong ids = new AtomicLong();
+        lenient().doAnswer(inv -> {
+            List<TransactionEventEntity> rows = inv.getArgument(0);
+            rows.forEach(r -> r.setId(ids.incrementAndGet()));
+            return null;
+        }).when(writer).insertTransactions(anyList());
+        lenient().doAnswer(inv -> {
+            List<FraudAlertEntity> rows = inv.getArgument(0);
+            rows.forEach(r -> r.setId(ids.incrementAndGet()));
+            return null;
+        }).when(writer).insertAlerts(anyList());
+
+        service = new FraudBatchService(txRepo, writer, engine, Mappers.getMapper(TransactionEventMapper.class),
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), unflushed, mock(EventJournal.class), mock(AlertReadModel.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), metrics, 10);
+    }
+
+    @Test
+    void velocityCountsStoredHistoryPlusEarlierBatchItems() {
+        // Three stored transactions in the last minute; the 2nd and 3rd batch items push the count to 5
+        when(txRepo.findEventTimesByAccountIdIn(anyList(), any(), any())).thenReturn(List.of(
+                new Object[]{"ACC-1", now.minusSeconds(40)},
+                new Object[]{"ACC-1", now.minusSeconds(30)},
+                new Object[]{"ACC-1", now.minusSeconds(20)}));
+
+        List<TransactionEventDto> batch = List.of(
+                dto("ACC-1", now.minusSeconds(10)),
+                dto("ACC-1", now.minusSeconds(5)),
+                dto("ACC-1", now),
+                dto("ACC-2", now));
+
+        List<TransactionBatchItemDto> results = service.processBatch(batch);
+
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).getTransaction().isFraudulent());
+        assertFalse(results.get(1).getTransaction().isFraudulent());
+        assertTrue(results.get(2).getTransaction().getFraudReason().contains(VELOCITY));
+        assertFalse(results.get(3).getTransaction().isFraudulent());
+        verify(txRepo, times(1)).findEventTimesByAccountIdIn(anyList(), any(), any());
+        verify(txRepo, times(1)).findDistinctDeviceIdsByAccountIdIn(anyList());
+    }
+
+    @Test
+    void rowsStillQueuedByWriteBehindCountAsStoredHistory() {
+        // Five clean transactions of the last minute and their device are only in the write-behind queue
+        when(unflushed.eventTimes(eq("ACC-1"), any(), any())).thenReturn(List.of(
+                now.minusSeconds(50), now.minusSeconds(40), now.minusSeconds(30), now.minusSeconds(20),
+                now.minusSeconds(10)));
+        when(unflushed.deviceIds("ACC-1")).thenReturn(List.of("dev-queued"));
+
+        TransactionEventDto item = dto("ACC-1", now);
+        item.setAmount(new BigDecimal("6000"));
+        item.setDeviceId("dev-queued");
+        List<TransactionBatchItemDto> results = service.processBatch(List.of(item));
+
+        assertEquals(List.of(VELOCITY), List.of(results.get(0).getTransaction().getFraudReason().split(", ")));
+    }
+
+    @Test
+    void invalidItemsAreRejectedWithoutFailingTheBatch() {
+        TransactionEventDto missingAmount = dto("ACC-1", now);
+        missingAmount.setAmount(null);
+
+        List<TransactionEventDto> batch = new ArrayList<>(List.of(dto("ACC-1", now.minusSeconds(1)), missingAmount));
+        List<TransactionBatchItemDto> results = service.processBatch(batch);
+
+        assertEquals(FraudBatchService.ACCEPTED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getTransaction().getId());
+        assertEquals(FraudBatchService.REJECTED, results.get(1).getStatus());
+        assertEquals(1, results.get(1).getIndex());
+        assertTrue(results.get(1).getErrors().get(0).startsWith("amount"));
+    }
+
+    @Test
+    void fraudulentItemsGetAlertsAndOutboxRows() {
+        TransactionEventDto blacklisted = dto("ACC-1", now);
+        blacklisted.setMerchant("SCAM MART");
+
+        service.processBatch(List.of(blacklisted, dto("ACC-2", now)));
+
+        verify(writer).insertAlerts(argThat(a -> a.size() == 1));
+        verify(writer).insertNotifications(argThat(n -> n.size() == 1
+                && n.get(0).getAlertId() != null));
+    }
+
+    @Test
+    void resubmittedTransactionIdsAreAnsweredWithStoredResults() {
+        TransactionEventEntity stored = new TransactionEventEntity();
+        stored.setId(42L);
+        stored.setTransactionId(100L);
+        stored.setAccountId("ACC-1");
+        when(txRepo.findByTransactionIdIn(anyList())).thenReturn(List.of(stored));
+
+        TransactionEventDto alreadyStored = dto("ACC-1", now);
+        alreadyStored.setTransactionId(100L);
+        TransactionEventDto fresh = dto("ACC-2", now);
+        fresh.setTransactionId(100L); // same upstream id on another account is a different transaction
+        TransactionEventDto retryOfFresh = dto("ACC-2", now);
+        retryOfFresh.setTransactionId(100L);
+
+        List<TransactionBatchItemDto> results = service.processBatch(List.of(alreadyStored, fresh, retryOfFresh));
+
+        assertEquals(FraudBatchService.DUPLICATE, results.get(0).getStatus());
+        assertEquals(42L, results.get(0).getTransaction().getId());
+        assertEquals(FraudBatchService.ACCEPTED, results.get(1).getStatus());
+        assertEquals(FraudBatchService.DUPLICATE, results.get(2).getStatus());
+        assertEquals(results.get(1).getTransaction().getId(), results.get(2).getTransaction().getId());
+        verify(writer).insertTransactions(argThat(t -> t.size() == 1));
+
+        // Second submission is answered from the dedupe cache
+        List<TransactionBatchItemDto> again = service.processBatch(List.of(retryOfFresh));
+        assertEquals(FraudBatchService.DUPLICATE, again.get(0).getStatus());
+        verify(txRepo, times(1)).findByTransactionIdIn(anyList());
+    }
+
+    @Test
+    void itemStoredConcurrentlyAfterTheLookupRejectsTheBatchWithAConflict() {
+        doThrow(new DuplicateKeyException("uk_transactions_account_transaction")).when(writer).insertTransactions(anyList());
+        TransactionEventDto item = dto("ACC-1", now);
+        item.setTransactionId(100L);
+
+        assertThrows(ConflictException.class, () -> service.processBatch(List.of(item)));
+        verify(writer, never()).insertAlerts(anyList());
+    }
+
+    @Test
+    void oversizedBatchIsRefused() {
+        List<TransactionEventDto> batch = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            batch.add(dto("ACC-1", now));
+        }
+        assertThrows(PayloadTooLargeException.class, () -> service.processBatch(batch));
+    }
+
+    private TransactionEventDto dto(String accountId, LocalDateTime eventTime) {
+        TransactionEventDto d = new TransactionEventDto();
+        d.setAccountId(accountId);
+        d.setAmount(new BigDecimal("10"));
+        d.setCurrency(CurrencyEnum.ZAR);
+        d.setCategory(CategoryEnum.PURCHASE);
+        d.setChannel(ChannelEnum.WEB);
+        d.setMerchant("OK MART");
+        d.setCountryCode("ZA");
+        d.setDeviceId("dev-1");
+        d.setEventTime(eventTime);
+        return d;
+    }
+}
@@ -1,21 +1,35 @@
 package com.exam.fraudmonitorapp;
 
 
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
 import com.exam.fraudmonitorapp.model.TransactionEventEntity;
 import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
 import com.exam.fraudmonitorapp.model.mapper.FraudAlertMapper;
 import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
 import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.repo.NotificationOutboxRepo;
 import com.exam.fraudmonitorapp.repo.TransactionRepo;
 import com.exam.fraudmonitorapp.service.FraudDetectionService;
 import com.exam.fraudmonitorapp.service.FraudRuleEngine;
-import com.exam.fraudmonitorapp.service.NotificationServiceImpl;
+import com.exam.fraudmonitorapp.service.alerts.AlertReadModel;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.ProcessedTransactionCache;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.exception.ConflictException;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.writebehind.CleanTransactionWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -32,14 +46,17 @@ public class FraudDetectionServiceTest {
         TransactionRepo txRepo = mock(TransactionRepo.class);
         FraudAlertRepo alertRepo = mock(FraudAlertRepo.class);
         FraudRuleEngine engine = mock(FraudRuleEngine.class);
-        NotificationServiceImpl notif = mock(NotificationServiceImpl.class);
+        NotificationOutboxRepo outboxRepo = mock(NotificationOutboxRepo.class);
 
         // Real MapStruct mappers
         TransactionEventMapper eventMapper = Mappers.getMapper(TransactionEventMapper.class);
         FraudAlertMapper fraudAlertMapper   = Mappers.getMapper(FraudAlertMapper.class);
 
         FraudDetectionService svc = new FraudDetectionService(
-                txRepo, alertRepo, engine, notif, eventMapper, fraudAlertMapper
+                txRepo, alertRepo, engine, outboxRepo, eventMapper, fraudAlertMapper,
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), mock(CleanTransactionWriteBehind.class), mock(EventJournal.class), mock(AlertReadModel.class),
+                new FraudMetrics(new SimpleMeterRegistry())
         );
 
         TransactionEventEntity entity = new TransactionEventEntity();
@@ -62,13 +79,16 @@ public class FraudDetectionServiceTest {
         TransactionRepo txRepo = mock(TransactionRepo.class);
         FraudAlertRepo alertRepo = mock(FraudAlertRepo.class);
         FraudRuleEngine engine = mock(FraudRuleEngine.class);
-        NotificationServiceImpl notif = mock(NotificationServiceImpl.class);
+        NotificationOutboxRepo outboxRepo = mock(NotificationOutboxRepo.class);
 
         TransactionEventMapper eventMapper = Mappers.getMapper(TransactionEventMapper.class);
         FraudAlertMapper fraudAlertMapper   = Mappers.getMapper(FraudAlertMapper.class);
 
         FraudDetectionService svc = new FraudDetectionService(
-                txRepo, alertRepo, engine, notif, eventMapper, fraudAlertMapper
+                txRepo, alertRepo, engine, outboxRepo, eventMapper, fraudAlertMapper,
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), mock(CleanTransactionWriteBehind.class), mock(EventJournal.class), mock(AlertReadModel.class),
+                new FraudMetrics(new SimpleMeterRegistry())
         );
 
         TransactionEventEntity e1 = new TransactionEventEntity(); e1.setId(1L);
@@ -85,4 +105,191 @@ public class FraudDetectionServiceTest {
     }
 
 
+    @Test
+    void processFraudQueuesNotificationInOutboxWithAlert() {
+        TransactionRepo txRepo = mock(TransactionRepo.class);
+        FraudAlertRepo alertRepo = mock(FraudAlertRepo.class);
+        FraudRuleEngine engine = mock(FraudRuleEngine.class);
+        NotificationOutboxRepo outboxRepo = mock(NotificationOutboxRepo.class);
+
+        TransactionEventMapper eventMapper = Mappers.getMapper(TransactionEventMapper.class);
+        FraudAlertMapper fraudAlertMapper   = Mappers.getMapper(FraudAlertMapper.class);
+
+        FraudDetectionService svc = new FraudDetectionService(
+                txRepo, alertRepo, engine, outboxRepo, eventMapper, fraudAlertMapper,
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), mock(CleanTransactionWriteBehind.class), mock(EventJournal.class), mock(AlertReadModel.class),
+                new FraudMetrics(new SimpleMeterRegistry())
+        );
+
+        when(engine.evaluate(any())).thenReturn(List.of("Merchant is blacklisted"));
+        when(txRepo.save(any(TransactionEventEntity.class))).thenAnswer(inv -> {
+            TransactionEventEntity e = inv.getArgument(0);
+            e.setId(5L);
+            return e;
+        });
+        when(alertRepo.save(any(FraudAlertEntity.class))).thenAnswer(inv -> {
+            FraudAlertEntity a = inv.getArgument(0);
+            a.setId(9L);
+            return a;
+        });
+
+        TransactionEventDto in = new TransactionEventDto();
+        in.setAccountId("ACC-1");
+        in.setAmount(new BigDecimal("100.00"));
+        in.setMerchant("SCAM MART");
+        in.setEventTime(LocalDateTime.now());
+
+        TransactionEventDto out = svc.process(in);
+
+        assertTrue(out.isFraudulent());
+        ArgumentCaptor<NotificationOutboxEntity> queued = ArgumentCaptor.forClass(NotificationOutboxEntity.class);
+        verify(outboxRepo).save(queued.capture());
+        assertEquals(5L, queued.getValue().getTransactionId());
+        assertEquals(9L, queued.getValue().getAlertId());
+        assertEquals("PENDING", queued.getValue().getStatus());
+    }
+
+    @Test
+    void retriedTransactionIdReplaysStoredResultWithoutRescoring() {
+        TransactionRepo txRepo = mock(TransactionRepo.class);
+        FraudAlertRepo alertRepo = mock(FraudAlertRepo.class);
+        FraudRuleEngine engine = mock(FraudRuleEngine.class);
+        NotificationOutboxRepo outboxRepo = mock(NotificationOutboxRepo.class);
+
+        TransactionEventMapper eventMapper = Mappers.getMapper(TransactionEventMapper.class);
+        FraudAlertMapper fraudAlertMapper   = Mappers.getMapper(FraudAlertMapper.class);
+
+        FraudDetectionService svc = new FraudDetectionService(
+                txRepo, alertRepo, engine, outboxRepo, eventMapper, fraudAlertMapper,
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), mock(CleanTransactionWriteBehind.class), mock(EventJournal.class), mock(AlertReadModel.class),
+                new FraudMetrics(new SimpleMeterRegistry())
+        );
+
+        when(engine.evaluate(any())).thenReturn(List.of());
+        when(txRepo.saveAndFlush(any(TransactionEventEntity.class))).thenAnswer(inv -> {
+            TransactionEventEntity e = inv.getArgument(0);
+            e.setId(5L);
+            return e;
+        });
+
+        TransactionEventDto in = new TransactionEventDto();
+        in.setAccountId("ACC-1");
+        in.setTransactionId(77L);
+        in.setAmount(new BigDecimal("100.00"));
+        in.setEventTime(LocalDateTime.now());
+
+        TransactionEventDto first = svc.process(in);
+        TransactionEventDto retry = svc.process(in);
+
+        assertEquals(5L, retry.getId());
+        assertSame(first, retry);
+        verify(engine, times(1)).evaluate(any());
+        verify(txRepo, times(1)).saveAndFlush(any(TransactionEventEntity.class));
+    }
+
+    @Test
+    void failingJournalDoesNotFailACommittedTransaction() {
+        TransactionRepo txRepo = mock(TransactionRepo.class);
+        FraudRuleEngine engine = mock(FraudRuleEngine.class);
+        VelocityIndex velocityIndex = mock(VelocityIndex.class);
+        EventJournal journal = mock(EventJournal.class);
+        ProcessedTransactionCache processed = new ProcessedTransactionCache(1000, Duration.ofMinutes(10));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FraudMetrics metrics = new FraudMetrics(registry);
+
+        FraudDetectionService svc = new FraudDetectionService(
+                txRepo, mock(FraudAlertRepo.class), engine, mock(NotificationOutboxRepo.class),
+                Mappers.getMapper(TransactionEventMapper.class), Mappers.getMapper(FraudAlertMapper.class),
+                velocityIndex, mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                processed, mock(CleanTransactionWriteBehind.class), journal, mock(AlertReadModel.class), metrics
+        );
+
+        when(engine.evaluate(any())).thenReturn(List.of());
+        when(txRepo.saveAndFlush(any(TransactionEventEntity.class))).thenAnswer(inv -> {
+            TransactionEventEntity e = inv.getArgument(0);
+            e.setId(5L);
+            return e;
+        });
+        when(journal.append(any(), anyBoolean())).thenThrow(new IllegalStateException("segment full"));
+
+        TransactionEventDto in = new TransactionEventDto();
+        in.setAccountId("ACC-1");
+        in.setTransactionId(77L);
+        in.setAmount(new BigDecimal("10.00"));
+        in.setEventTime(LocalDateTime.now());
+
+        TransactionEventDto out = svc.process(in);
+
+        assertEquals(5L, out.getId());
+        verify(velocityIndex).record("ACC-1", in.getEventTime());
+        assertSame(out, processed.get("ACC-1", 77L));
+        assertEquals(1.0, registry.counter("fraud.journal.failed").count());
+    }
+
+    @Test
+    void cleanTransactionIsHandedToWriteBehindInsteadOfSaved() {
+        TransactionRepo txRepo = mock(TransactionRepo.class);
+        FraudRuleEngine engine = mock(FraudRuleEngine.class);
+        CleanTransactionWriteBehind writeBehind = mock(CleanTransactionWriteBehind.class);
+
+        FraudDetectionService svc = new FraudDetectionService(
+                txRepo, mock(FraudAlertRepo.class), engine, mock(NotificationOutboxRepo.class),
+                Mappers.getMapper(TransactionEventMapper.class), Mappers.getMapper(FraudAlertMapper.class),
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), writeBehind, mock(EventJournal.class), mock(AlertReadModel.class),
+                new FraudMetrics(new SimpleMeterRegistry())
+        );
+
+        when(engine.evaluate(any())).thenReturn(List.of());
+        when(writeBehind.enabled()).thenReturn(true);
+        when(writeBehind.enqueue(any())).thenReturn(true);
+
+        TransactionEventDto in = new TransactionEventDto();
+        in.setAccountId("ACC-1");
+        in.setAmount(new BigDecimal("10.00"));
+        in.setEventTime(LocalDateTime.now());
+
+        TransactionEventDto out = svc.process(in);
+
+        assertFalse(out.isFraudulent());
+        assertNull(out.getId());
+        verify(writeBehind).enqueue(any(TransactionEventEntity.class));
+        verify(txRepo, never()).save(any());
+    }
+
+    @Test
+    void resubmissionWhileTheFirstIsInFlightIsRejected() {
+        FraudRuleEngine engine = mock(FraudRuleEngine.class);
+        CleanTransactionWriteBehind writeBehind = mock(CleanTransactionWriteBehind.class);
+
+        FraudDetectionService svc = new FraudDetectionService(
+                mock(TransactionRepo.class), mock(FraudAlertRepo.class), engine, mock(NotificationOutboxRepo.class),
+                Mappers.getMapper(TransactionEventMapper.class), Mappers.getMapper(FraudAlertMapper.class),
+                mock(VelocityIndex.class), mock(KnownDeviceCache.class), mock(AccountProfileStore.class),
+                new ProcessedTransactionCache(1000, Duration.ofMinutes(10)), writeBehind, mock(EventJournal.class), mock(AlertReadModel.class),
+                new FraudMetrics(new SimpleMeterRegistry())
+        );
+
+        TransactionEventDto in = new TransactionEventDto();
+        in.setAccountId("ACC-1");
+        in.setTransactionId(77L);
+        in.setAmount(new BigDecimal("10.00"));
+        in.setEventTime(LocalDateTime.now());
+
+        // The same transaction arrives again while the first one is being scored
+        when(engine.evaluate(any())).thenAnswer(inv -> {
+            assertThrows(ConflictException.class, () -> svc.process(in));
+            return List.of();
+        });
+        when(writeBehind.enabled()).thenReturn(true);
+        when(writeBehind.enqueue(any())).thenReturn(true);
+
+        svc.process(in);
+
+        verify(engine, times(1)).evaluate(any());
+        verify(writeBehind, times(1)).enqueue(any(TransactionEventEntity.class));
+    }
+
 }
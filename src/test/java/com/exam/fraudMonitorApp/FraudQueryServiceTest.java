@@ -0,0 +1,113 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.dto.CursorPageDto;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.model.mapper.FraudAlertMapper;
+import com.exam.fraudmonitorapp.model.mapper.TransactionEventMapper;
+import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.FraudQueryService;
+import com.exam.fraudmonitorapp.service.exception.InvalidCursorException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FraudQueryServiceTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 9, 12, 30, 0);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Mock
+    private TransactionRepo txRepo;
+    @Mock
+    private FraudAlertRepo alertRepo;
+    @Mock
+    private EntityManager entityManager;
+
+    private FraudQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FraudQueryService(txRepo, alertRepo,
+                Mappers.getMapper(TransactionEventMapper.class), Mappers.getMapper(FraudAlertMapper.class),
+                entityManager, jsonMapper, 50, 2);
+    }
+
+    @Test
+    void pagesFollowTheCursorOfTheLastRow() {
+        // limit 5 is capped at 2; a third row means another page follows
+        when(txRepo.findByAccountIdOrderByEventTimeDescIdDesc("ACC-1", Limit.of(3)))
+                .thenReturn(List.of(tx(30L, now), tx(29L, now), tx(28L, now.minusSeconds(1))));
+        CursorPageDto<TransactionEventDto> first = service.pageByAccount("ACC-1", null, 5);
+
+        assertEquals(List.of(30L, 29L), first.getItems().stream().map(TransactionEventDto::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(txRepo.findByAccountIdBefore("ACC-1", now, 29L, Limit.of(3)))
+                .thenReturn(List.of(tx(28L, now.minusSeconds(1))));
+        CursorPageDto<TransactionEventDto> second = service.pageByAccount("ACC-1", first.getNextCursor(), 5);
+
+        assertEquals(List.of(28L), second.getItems().stream().map(TransactionEventDto::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> service.pageAlerts("OPEN", "not-a-cursor", 10));
+    }
+
+    @Test
+    void exportWritesJsonArrayAndDetachesRows() throws Exception {
+        when(alertRepo.streamByStatusOrderByCreatedAtDescIdDesc("OPEN"))
+                .thenReturn(Stream.of(alert(2L), alert(1L)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = service.exportAlerts("OPEN", out);
+
+        JsonNode array = jsonMapper.readTree(out.toByteArray());
+        assertEquals(2, written);
+        assertEquals(2, array.size());
+        assertEquals(2L, array.get(0).get("id").asLong());
+        verify(entityManager, times(2)).detach(any());
+    }
+
+    private TransactionEventEntity tx(Long id, LocalDateTime eventTime) {
+        TransactionEventEntity e = new TransactionEventEntity();
+        e.setId(id);
+        e.setAccountId("ACC-1");
+        e.setEventTime(eventTime);
+        return e;
+    }
+
+    private FraudAlertEntity alert(Long id) {
+        FraudAlertEntity a = new FraudAlertEntity();
+        a.setId(id);
+        a.setStatus("OPEN");
+        a.setCreatedAt(now);
+        return a;
+    }
+}
@@ -4,25 +4,59 @@ import com.exam.fraudmonitorapp.model.TransactionEventEntity;
 import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
 import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
 import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.AccountHistory;
 import com.exam.fraudmonitorapp.service.FraudRuleEngine;
+import com.exam.fraudmonitorapp.service.blacklist.MerchantBlacklist;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.rules.AmountThresholdRule;
+import com.exam.fraudmonitorapp.service.rules.BlacklistedMerchantRule;
+import com.exam.fraudmonitorapp.service.rules.FraudRule;
+import com.exam.fraudmonitorapp.service.rules.GeoMismatchRule;
+import com.exam.fraudmonitorapp.service.rules.NewDeviceHighAmountRule;
+import com.exam.fraudmonitorapp.service.rules.OddHoursRule;
+import com.exam.fraudmonitorapp.service.rules.TransactionView;
+import com.exam.fraudmonitorapp.service.rules.VelocityRule;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class FraudRuleEngineTest {
 
+    static List<FraudRule> defaultRules() {
+        return List.of(new AmountThresholdRule(), new VelocityRule(), new GeoMismatchRule(),
+                new BlacklistedMerchantRule(new MerchantBlacklist("")), new OddHoursRule(), new NewDeviceHighAmountRule());
+    }
+
     private FraudRuleEngine createEngine(TransactionRepo repo) {
-        return new FraudRuleEngine(repo);
+        return createEngine(repo, defaultRules(), 0, 0);
+    }
+
+    private FraudRuleEngine createEngine(TransactionRepo repo, List<FraudRule> rules, int maxHits, int minPreScore) {
+        return new FraudRuleEngine(rules,
+                new VelocityIndex(repo, new UnflushedTransactions(), List.of(), Duration.ofMinutes(30)),
+                new KnownDeviceCache(repo, new UnflushedTransactions(), 32, 8192, Duration.ofMinutes(30)),
+                new FraudMetrics(new SimpleMeterRegistry()),
+                maxHits, FraudRule.COST_HISTORY, minPreScore, false, Duration.ZERO);
     }
 
 
@@ -49,12 +83,12 @@ public class FraudRuleEngineTest {
     @Test
     void amountThresholdRuleFlagsHighPurchase() {
         TransactionRepo repo = Mockito.mock(TransactionRepo.class);
-        when(repo.findByAccountIdAndEventTimeBetween(Mockito.anyString(), Mockito.any(), Mockito.any()))
+        when(repo.findEventTimesByAccountIdSince(Mockito.anyString(), Mockito.any()))
                 .thenReturn(Collections.emptyList());
         when(repo.findDistinctDeviceIdsByAccountId(Mockito.anyString()))
                 .thenReturn(List.of("device-1"));
 
-        FraudRuleEngine engine = new FraudRuleEngine(repo);
+        FraudRuleEngine engine = createEngine(repo);
 
         TransactionEventDto tx = dto(
                 "ACC-1",
@@ -66,7 +100,7 @@ public class FraudRuleEngineTest {
                 LocalDateTime.now()
         );
 
-        List<String> reasons = engine.evaluate(tx);
+        List<String> reasons = engine.evaluate(TransactionView.of(tx));
         assertTrue(reasons.contains("Amount exceeds category threshold"));
     }
 
@@ -84,15 +118,12 @@ public class FraudRuleEngineTest {
                 entity("ACC-2", now.minusSeconds(50))
         );
 
-        when(repo.findByAccountIdAndEventTimeBetween(
+        when(repo.findEventTimesByAccountIdSince(
                 Mockito.eq("ACC-2"),
-                Mockito.any(LocalDateTime.class),
                 Mockito.any(LocalDateTime.class))
-        ).thenReturn(recent);
-        when(repo.findDistinctDeviceIdsByAccountId(Mockito.anyString()))
-                .thenReturn(List.of("devA"));
+        ).thenReturn(recent.stream().map(TransactionEventEntity::getEventTime).toList());
 
-        FraudRuleEngine engine = new FraudRuleEngine(repo);
+        FraudRuleEngine engine = createEngine(repo);
 
         TransactionEventDto tx = dto(
                 "ACC-2",
@@ -104,19 +135,17 @@ public class FraudRuleEngineTest {
                 now
         );
 
-        List<String> reasons = engine.evaluate(tx);
+        List<String> reasons = engine.evaluate(TransactionView.of(tx));
         assertTrue(reasons.contains("High transaction velocity in last minute"));
     }
 
     @Test
     void geoMismatchRule_flagsForeignHighAmount() {
         TransactionRepo repo = Mockito.mock(TransactionRepo.class);
-        when(repo.findByAccountIdAndEventTimeBetween(Mockito.anyString(), Mockito.any(), Mockito.any()))
+        when(repo.findEventTimesByAccountIdSince(Mockito.anyString(), Mockito.any()))
                 .thenReturn(Collections.emptyList());
-        when(repo.findDistinctDeviceIdsByAccountId(Mockito.anyString()))
-                .thenReturn(List.of("device-1"));
 
-        FraudRuleEngine engine = new FraudRuleEngine(repo);
+        FraudRuleEngine engine = createEngine(repo);
 
         TransactionEventDto tx = dto(
                 "ACC-3",
@@ -128,19 +157,19 @@ public class FraudRuleEngineTest {
                 LocalDateTime.now()
         );
 
-        List<String> reasons = engine.evaluate(tx);
+        List<String> reasons = engine.evaluate(TransactionView.of(tx));
         assertTrue(reasons.contains("Foreign transaction with high amount"));
     }
 
     @Test
     void newDeviceHighAmountRule_flagsUnknownDevice() {
         TransactionRepo repo = Mockito.mock(TransactionRepo.class);
-        when(repo.findByAccountIdAndEventTimeBetween(Mockito.anyString(), Mockito.any(), Mockito.any()))
+        when(repo.findEventTimesByAccountIdSince(Mockito.anyString(), Mockito.any()))
                 .thenReturn(Collections.emptyList());
         when(repo.findDistinctDeviceIdsByAccountId(Mockito.eq("ACC-4")))
                 .thenReturn(List.of("device-known-1", "device-known-2"));
 
-        FraudRuleEngine engine = new FraudRuleEngine(repo);
+        FraudRuleEngine engine = createEngine(repo);
 
         TransactionEventDto tx = dto(
                 "ACC-4",
@@ -152,10 +181,206 @@ public class FraudRuleEngineTest {
                 LocalDateTime.now()
         );
 
-        List<String> reasons = engine.evaluate(tx);
+        List<String> reasons = engine.evaluate(TransactionView.of(tx));
         assertTrue(reasons.contains("High amount from new device"));
     }
 
+    @Test
+    void rulesRunCheapestFirstAndStopAfterMaxHits() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        FraudRuleEngine engine = createEngine(repo, defaultRules(), 1, 0);
+
+        TransactionEventDto tx = dto("ACC-5", new BigDecimal("9000"), CategoryEnum.ONLINE,
+                "Scam Mart", "ZA", "device-new", LocalDateTime.now());
+
+        // Amount (ONLINE > 8000) is the first cheap rule to match; velocity and device history are never read
+        assertEquals(List.of("Amount exceeds category threshold"), engine.evaluate(TransactionView.of(tx)));
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void expensiveRulesAreSkippedBelowPreScore() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        FraudRuleEngine engine = createEngine(repo, defaultRules(), 0, 50);
+
+        TransactionEventDto clean = dto("ACC-6", new BigDecimal("6000"), CategoryEnum.ONLINE,
+                "OK MART", "ZA", "device-new", LocalDateTime.now());
+        assertTrue(engine.evaluate(TransactionView.of(clean)).isEmpty());
+        verifyNoInteractions(repo);
+
+        // Foreign high amount scores 40: still below the pre-score, device check is still skipped
+        clean.setCountryCode("US");
+        assertEquals(List.of("Foreign transaction with high amount"), engine.evaluate(TransactionView.of(clean)));
+        verifyNoInteractions(repo);
+
+        when(repo.findEventTimesByAccountIdSince(Mockito.anyString(), Mockito.any()))
+                .thenReturn(Collections.emptyList());
+        when(repo.findDistinctDeviceIdsByAccountId("ACC-6")).thenReturn(List.of("device-1"));
+        // Blacklisted merchant lifts the pre-score above 50, so the history rules run as well
+        clean.setMerchant("SCAM MART");
+        assertEquals(List.of("Foreign transaction with high amount", "Merchant is blacklisted",
+                "High amount from new device"), engine.evaluate(TransactionView.of(clean)));
+    }
+
+    @Test
+    void additionalRuleBeansAreEvaluated() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        FraudRule roundAmount = new FraudRule() {
+            @Override
+            public String reason() {
+                return "Round amount";
+            }
+
+            @Override
+            public int cost() {
+                return COST_IN_MEMORY;
+            }
+
+            @Override
+            public int severity() {
+                return 10;
+            }
+
+            @Override
+            public boolean matches(TransactionView tx, AccountHistory history) {
+                return tx.amount() != null && tx.amount().remainder(new BigDecimal("1000")).signum() == 0;
+            }
+        };
+        FraudRuleEngine engine = createEngine(repo, List.of(new VelocityRule(), roundAmount), 0, 0);
+
+        TransactionEventDto tx = dto("ACC-7", new BigDecimal("4000"), CategoryEnum.ONLINE,
+                "OK MART", "ZA", "device-1", null);
+        assertEquals(List.of("Round amount"), engine.evaluate(TransactionView.of(tx)));
+    }
+
+    @Test
+    void reasonsAreReportedInRuleOrderNotEvaluationOrder() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        LocalDateTime now = LocalDateTime.now();
+        when(repo.findEventTimesByAccountIdSince(Mockito.eq("ACC-11"), Mockito.any(LocalDateTime.class)))
+                .thenReturn(List.of(now.minusSeconds(10), now.minusSeconds(20), now.minusSeconds(30),
+                        now.minusSeconds(40), now.minusSeconds(50)));
+        FraudRuleEngine engine = createEngine(repo);
+
+        // Velocity (@Order 2) is evaluated after the in-memory geo rule (@Order 3) but is still reported first
+        TransactionEventDto tx = dto("ACC-11", new BigDecimal("3500"), CategoryEnum.ONLINE,
+                "OK MART", "US", "device-1", now);
+        assertEquals(List.of("High transaction velocity in last minute", "Foreign transaction with high amount"),
+                engine.evaluate(TransactionView.of(tx)));
+    }
+
+    @Test
+    void ruleTimingsAndReasonHitsAreRecorded() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FraudRuleEngine engine = new FraudRuleEngine(
+                List.of(new BlacklistedMerchantRule(new MerchantBlacklist("")), new GeoMismatchRule()),
+                new VelocityIndex(repo, new UnflushedTransactions(), List.of(), Duration.ofMinutes(30)),
+                new KnownDeviceCache(repo, new UnflushedTransactions(), 32, 8192, Duration.ofMinutes(30)),
+                new FraudMetrics(registry), 0, FraudRule.COST_HISTORY, 0, false, Duration.ZERO);
+
+        engine.evaluate(TransactionView.of(dto("ACC-8", new BigDecimal("10"), CategoryEnum.ONLINE, "Scam Mart", "ZA", "d", null)));
+        engine.evaluate(TransactionView.of(dto("ACC-8", new BigDecimal("10"), CategoryEnum.ONLINE, "OK MART", "ZA", "d", null)));
+
+        assertEquals(2, registry.get("fraud.rule.evaluation").tag("rule", "BlacklistedMerchantRule").timer().count());
+        assertEquals(1.0, registry.get("fraud.reason.hits").tag("reason", "Merchant is blacklisted").counter().count());
+        assertEquals(0.0, registry.get("fraud.reason.hits").tag("reason", "Foreign transaction with high amount").counter().count());
+        assertEquals(1.0, registry.get("fraud.transactions.evaluated").tag("outcome", "clean").counter().count());
+    }
+
+    @Test
+    void parallelHistoryRulesOverlapAndReportReasonsInRuleOrder() {
+        FraudRuleEngine engine = parallelEngine(Duration.ofSeconds(10));
+        // Each lookup waits until both have started, so sequential evaluation could only match after timing out;
+        // velocity (evaluated first) also waits for the device lookup to answer
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch deviceAnswered = new CountDownLatch(1);
+        AtomicInteger overlapping = new AtomicInteger();
+        AccountHistory concurrent = new AccountHistory() {
+            @Override
+            public long countInWindow(String accountId, Duration window, LocalDateTime at) {
+                started.countDown();
+                if (await(started)) overlapping.incrementAndGet();
+                await(deviceAnswered);
+                return 100;
+            }
+
+            @Override
+            public boolean isKnownDevice(String accountId, String deviceId) {
+                started.countDown();
+                if (await(started)) overlapping.incrementAndGet();
+                deviceAnswered.countDown();
+                return false;
+            }
+        };
+        TransactionEventDto tx = dto("ACC-9", new BigDecimal("6000"), CategoryEnum.ONLINE,
+                "OK MART", "ZA", "device-new", LocalDateTime.now());
+
+        List<String> reasons = engine.evaluate(TransactionView.of(tx), concurrent);
+
+        assertEquals(2, overlapping.get(), "history lookups did not run concurrently");
+        assertEquals(List.of("High transaction velocity in last minute", "High amount from new device"), reasons);
+        engine.close();
+    }
+
+    @Test
+    void forksMissingTheDeadlineAreCancelledAndDoNotMatch() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FraudRuleEngine engine = new FraudRuleEngine(defaultRules(),
+                Mockito.mock(VelocityIndex.class), Mockito.mock(KnownDeviceCache.class), new FraudMetrics(registry),
+                0, FraudRule.COST_HISTORY, 0, true, Duration.ofMillis(100));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AccountHistory stuck = history(Duration.ZERO, Duration.ofMinutes(1), interrupted);
+        TransactionEventDto tx = dto("ACC-10", new BigDecimal("6000"), CategoryEnum.ONLINE,
+                "OK MART", "ZA", "device-new", LocalDateTime.now());
+
+        assertEquals(List.of("High transaction velocity in last minute"), engine.evaluate(TransactionView.of(tx), stuck));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "device lookup was not cancelled");
+        assertEquals(1.0, registry.get("fraud.rule.timeouts").tag("rule", "NewDeviceHighAmountRule").counter().count());
+        engine.close();
+    }
+
+    private FraudRuleEngine parallelEngine(Duration deadline) {
+        return new FraudRuleEngine(defaultRules(),
+                Mockito.mock(VelocityIndex.class), Mockito.mock(KnownDeviceCache.class),
+                new FraudMetrics(new SimpleMeterRegistry()), 0, FraudRule.COST_HISTORY, 0, true, deadline);
+    }
+
+    /** History where both lookups take a while and match (velocity over threshold, device unknown). */
+    private static AccountHistory history(Duration velocityDelay, Duration deviceDelay, CountDownLatch interrupted) {
+        return new AccountHistory() {
+            @Override
+            public long countInWindow(String accountId, Duration window, LocalDateTime at) {
+                sleep(velocityDelay, interrupted);
+                return 100;
+            }
+
+            @Override
+            public boolean isKnownDevice(String accountId, String deviceId) {
+                sleep(deviceDelay, interrupted);
+                return false;
+            }
+        };
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(Duration delay, CountDownLatch interrupted) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            if (interrupted != null) interrupted.countDown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     // Helper to build minimal entities used by velocity rule
     private TransactionEventEntity entity(String accountId, LocalDateTime eventTime) {
         TransactionEventEntity e = new TransactionEventEntity();
@@ -0,0 +1,162 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.service.FraudDetectionService;
+import com.exam.fraudmonitorapp.service.FraudStreamService;
+import com.exam.fraudmonitorapp.service.lanes.AccountLanes;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FraudStreamServiceTest {
+
+    // Same relaxation as spring.jackson.deserialization in application.yaml
+    private final JsonMapper jsonMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+            .build();
+
+    @Mock
+    private FraudDetectionService fraudService;
+
+    private FraudStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new FraudStreamService(fraudService, new AccountLanes(false, 0, 0, Duration.ZERO),
+                Validation.buildDefaultValidatorFactory().getValidator(), jsonMapper, 4);
+    }
+
+    @Test
+    void resultsKeepInputOrderAndConcurrencyStaysBounded() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+        when(fraudService.submit(any())).thenAnswer(inv -> {
+            TransactionEventDto tx = inv.getArgument(0);
+            maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(tx.getAmount().intValue() % 3 * 5L); // finish out of order
+            inFlight.decrementAndGet();
+            tx.setId((long) tx.getAmount().intValue());
+            return new FraudDetectionService.Submission(tx, false);
+        });
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append(line("ACC-" + (i % 5), i)).append('\n');
+        }
+
+        List<JsonNode> results = run(body.toString());
+
+        assertEquals(40, results.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, results.get(i).get("index").asInt());
+            assertEquals("ACCEPTED", results.get(i).get("status").asString());
+            assertEquals(i, results.get(i).get("transaction").get("id").asInt());
+        }
+        assertTrue(maxSeen.get() <= 4, "in-flight " + maxSeen.get());
+    }
+
+    @Test
+    void linesOfOneAccountRunOneAtATimeInStreamOrderWithoutLanes() throws Exception {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        when(fraudService.submit(any())).thenAnswer(inv -> {
+            TransactionEventDto tx = inv.getArgument(0);
+            if (running.computeIfAbsent(tx.getAccountId(), a -> new AtomicInteger()).incrementAndGet() > 1) {
+                overlapped.set(true);
+            }
+            seen.computeIfAbsent(tx.getAccountId(), a -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(tx.getAmount().intValue());
+            Thread.sleep(2);
+            running.get(tx.getAccountId()).decrementAndGet();
+            return new FraudDetectionService.Submission(tx, false);
+        });
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append(line("ACC-" + (i % 3), i)).append('\n');
+        }
+        run(body.toString());
+
+        assertFalse(overlapped.get());
+        for (int a = 0; a < 3; a++) {
+            List<Integer> order = seen.get("ACC-" + a);
+            for (int k = 1; k < order.size(); k++) {
+                assertEquals(order.get(k - 1) + 3, order.get(k));
+            }
+        }
+    }
+
+    @Test
+    void badLinesAreReportedWithoutStoppingTheStream() throws Exception {
+        when(fraudService.submit(any())).thenAnswer(inv -> new FraudDetectionService.Submission(inv.getArgument(0), false));
+
+        String body = line("ACC-1", 1) + "\n"
+                + "{not json\n"
+                + "\n"
+                + "{\"accountId\":\"ACC-1\",\"merchant\":\"OK MART\",\"channel\":\"WEB\"}\n"
+                + line("ACC-1", 2); // no trailing newline
+
+        List<JsonNode> results = run(body);
+
+        assertEquals(4, results.size());
+        assertEquals("ACCEPTED", results.get(0).get("status").asString());
+        assertEquals("REJECTED", results.get(1).get("status").asString());
+        assertTrue(results.get(1).get("errors").get(0).asString().startsWith("malformed JSON"));
+        assertEquals(3, results.get(2).get("index").asInt()); // blank line 2 is skipped but counted
+        assertEquals("REJECTED", results.get(2).get("status").asString());
+        assertEquals(4, results.get(3).get("index").asInt());
+        assertEquals("ACCEPTED", results.get(3).get("status").asString());
+    }
+
+    @Test
+    void replayedTransactionIsReportedAsDuplicateLikeTheBatchEndpoint() throws Exception {
+        when(fraudService.submit(any())).thenAnswer(inv -> {
+            TransactionEventDto tx = inv.getArgument(0);
+            return new FraudDetectionService.Submission(tx, tx.getAmount().intValue() == 2);
+        });
+
+        List<JsonNode> results = run(line("ACC-1", 1) + "\n" + line("ACC-1", 2) + "\n");
+
+        assertEquals("ACCEPTED", results.get(0).get("status").asString());
+        assertEquals("DUPLICATE", results.get(1).get("status").asString());
+        assertEquals(2, results.get(1).get("transaction").get("amount").asInt());
+    }
+
+    private List<JsonNode> run(String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamService.processStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8).lines().map(jsonMapper::readTree).toList();
+    }
+
+    private static String line(String accountId, int amount) {
+        return "{\"accountId\":\"" + accountId + "\",\"amount\":" + amount + ",\"currency\":\"ZAR\","
+                + "\"category\":\"PURCHASE\",\"channel\":\"WEB\",\"merchant\":\"OK MART\",\"countryCode\":\"ZA\","
+                + "\"deviceId\":\"dev-1\",\"eventTime\":\"2025-01-09T12:30:00\"}";
+    }
+}
@@ -0,0 +1,151 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.model.enums.CategoryEnum;
+import com.exam.fraudmonitorapp.model.enums.ChannelEnum;
+import com.exam.fraudmonitorapp.model.enums.CurrencyEnum;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.journal.EventJournal;
+import com.exam.fraudmonitorapp.service.journal.JournalEntry;
+import com.exam.fraudmonitorapp.service.journal.JournalRecovery;
+import com.exam.fraudmonitorapp.service.profile.AccountProfileStore;
+import com.exam.fraudmonitorapp.service.writebehind.CleanTransactionWriteBehind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JournalRecoveryTest {
+
+    private static final LocalDateTime EVENT_TIME = LocalDateTime.of(2025, 1, 9, 12, 30);
+
+    private final VelocityIndex velocityIndex = mock(VelocityIndex.class);
+    private final AccountProfileStore profiles = mock(AccountProfileStore.class);
+    private final CleanTransactionWriteBehind writeBehind = mock(CleanTransactionWriteBehind.class);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void onlyPendingRowsAfterTheCheckpointAreReinserted() throws IOException {
+        writeJournalWithTornTail();
+        when(velocityIndex.windows()).thenReturn(List.of(Duration.ofHours(24)));
+
+        EventJournal journal = open();
+        new JournalRecovery(journal, velocityIndex, profiles, writeBehind, Duration.ofMinutes(1)).afterSingletonsInstantiated();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<JournalEntry>> recovered = ArgumentCaptor.forClass(List.class);
+        verify(writeBehind).insertRecovered(recovered.capture(), eq(Duration.ofMinutes(1)));
+        assertEquals(List.of(4L, 5L), recovered.getValue().stream().map(JournalEntry::seq).toList());
+        assertEquals(List.of("ACC-3", "ACC-4"),
+                recovered.getValue().stream().map(e -> e.transaction().getAccountId()).toList());
+        verify(profiles, times(4)).record(any(TransactionEventEntity.class));
+
+        // The journal is younger than the 24h window: velocity keeps loading lazily
+        verify(velocityIndex, never()).restore(any(), anyList());
+    }
+
+    @Test
+    void velocityIsSeededOnlyWhenTheJournalCoversTheLongestWindow() throws IOException, InterruptedException {
+        writeJournalWithTornTail();
+        when(velocityIndex.windows()).thenReturn(List.of(Duration.ofMillis(1), Duration.ofMillis(2)));
+        Thread.sleep(10); // every record is now older than the longest window
+
+        new JournalRecovery(open(), velocityIndex, profiles, writeBehind, Duration.ofMinutes(1)).afterSingletonsInstantiated();
+
+        for (String account : List.of("ACC-1", "ACC-2", "ACC-3", "ACC-4")) {
+            verify(velocityIndex).restore(eq(account), eq(List.of(EVENT_TIME)));
+        }
+        verify(velocityIndex, never()).restore(eq("ACC-torn"), anyList());
+    }
+
+    @Test
+    void nothingIsReinsertedWhenTheCheckpointCoversEveryPendingRow() {
+        EventJournal journal = open();
+        journal.append(transaction("ACC-1", 1L), true);
+        journal.append(transaction("ACC-2", 2L), true);
+        journal.checkpoint(2);
+        journal.close();
+        when(velocityIndex.windows()).thenReturn(List.of(Duration.ofHours(24)));
+
+        new JournalRecovery(open(), velocityIndex, profiles, writeBehind, Duration.ofMinutes(1)).afterSingletonsInstantiated();
+
+        verify(writeBehind, never()).insertRecovered(anyList(), any());
+    }
+
+    /**
+     * seq 1 pending ACC-1, seq 2 synchronous ACC-2, seq 3 checkpoint(1), seq 4 and 5 pending ACC-3 and ACC-4, then
+     * a record for ACC-torn whose length made it to disk but whose payload did not.
+     */
+    private void writeJournalWithTornTail() throws IOException {
+        EventJournal journal = open();
+        journal.append(transaction("ACC-1", 1L), true);
+        journal.append(transaction("ACC-2", 2L), false);
+        journal.checkpoint(1);
+        journal.append(transaction("ACC-3", 3L), true);
+        journal.append(transaction("ACC-4", 4L), true);
+        long torn = journal.append(transaction("ACC-torn", 5L), true);
+        journal.close();
+        assertEquals(6, torn);
+
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.sorted().toList().get(0);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Walk to the last record and zero its payload past the header
+            ByteBuffer length = ByteBuffer.allocate(4);
+            long pos = 0;
+            long last = 0;
+            while (true) {
+                length.clear();
+                channel.read(length, pos);
+                int size = length.flip().getInt();
+                if (size == 0) break;
+                last = pos;
+                pos += 8 + size;
+            }
+            channel.write(ByteBuffer.allocate((int) (pos - last - 16)), last + 16);
+        }
+    }
+
+    private EventJournal open() {
+        return new EventJournal(true, dir, DataSize.ofKilobytes(64), Duration.ofHours(25));
+    }
+
+    private static TransactionEventEntity transaction(String accountId, Long transactionId) {
+        TransactionEventEntity t = new TransactionEventEntity();
+        t.setAccountId(accountId);
+        t.setTransactionId(transactionId);
+        t.setAmount(new BigDecimal("100.00"));
+        t.setCurrency(CurrencyEnum.ZAR);
+        t.setCategory(CategoryEnum.PURCHASE);
+        t.setChannel(ChannelEnum.WEB);
+        t.setMerchant("Shop");
+        t.setEventTime(EVENT_TIME);
+        return t;
+    }
+}
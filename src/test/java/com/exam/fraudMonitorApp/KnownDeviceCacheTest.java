@@ -0,0 +1,96 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.cache.KnownDeviceCache;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class KnownDeviceCacheTest {
+
+    @Test
+    void loadsOnceThenAnswersFromMemoryIncludingRecordedDevices() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        when(repo.findDistinctDeviceIdsByAccountId("ACC-1")).thenReturn(List.of("dev-1", "dev-2"));
+
+        KnownDeviceCache cache = new KnownDeviceCache(repo, new UnflushedTransactions(), 32, 8192, Duration.ofMinutes(30));
+
+        assertTrue(cache.isKnown("ACC-1", "dev-1"));
+        assertFalse(cache.isKnown("ACC-1", "dev-3"));
+
+        cache.record("ACC-1", "dev-3");
+        assertTrue(cache.isKnown("ACC-1", "dev-3"));
+
+        verify(repo, times(1)).findDistinctDeviceIdsByAccountId("ACC-1");
+        verify(repo, never()).existsByAccountIdAndDeviceId(Mockito.anyString(), Mockito.anyString());
+    }
+
+    @Test
+    void devicesRecordedBeforeOrDuringTheLoadAreKept() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        KnownDeviceCache cache = new KnownDeviceCache(repo, new UnflushedTransactions(), 32, 8192, Duration.ofMinutes(30));
+
+        // dev-queued was accepted before the account was ever loaded; dev-late commits while the query runs
+        cache.record("ACC-4", "dev-queued");
+        when(repo.findDistinctDeviceIdsByAccountId("ACC-4")).thenAnswer(inv -> {
+            cache.record("ACC-4", "dev-late");
+            return List.of("dev-1");
+        });
+
+        assertTrue(cache.isKnown("ACC-4", "dev-late"));
+        assertTrue(cache.isKnown("ACC-4", "dev-queued"));
+        assertTrue(cache.isKnown("ACC-4", "dev-1"));
+        assertFalse(cache.isKnown("ACC-4", "dev-2"));
+        verify(repo, times(1)).findDistinctDeviceIdsByAccountId("ACC-4");
+    }
+
+    @Test
+    void largeAccountConfirmsBloomHitsAgainstRepository() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        List<String> history = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            history.add("dev-" + i);
+        }
+        when(repo.findDistinctDeviceIdsByAccountId("ACC-2")).thenReturn(history);
+        when(repo.existsByAccountIdAndDeviceId("ACC-2", "dev-0")).thenReturn(true);
+
+        KnownDeviceCache cache = new KnownDeviceCache(repo, new UnflushedTransactions(), 8, 8192, Duration.ofMinutes(30));
+
+        // dev-99 is among the most recent devices, so it stays in the exact set
+        assertTrue(cache.isKnown("ACC-2", "dev-99"));
+        // dev-0 only survives in the Bloom filter and has to be confirmed once
+        assertTrue(cache.isKnown("ACC-2", "dev-0"));
+        assertTrue(cache.isKnown("ACC-2", "dev-0"));
+        assertFalse(cache.isKnown("ACC-2", "never-seen-device"));
+
+        verify(repo, times(1)).existsByAccountIdAndDeviceId("ACC-2", "dev-0");
+    }
+
+    @Test
+    void idleAccountsAreEvicted() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        when(repo.findDistinctDeviceIdsByAccountId("ACC-3")).thenReturn(List.of());
+
+        KnownDeviceCache cache = new KnownDeviceCache(repo, new UnflushedTransactions(), 32, 8192, Duration.ZERO);
+        cache.isKnown("ACC-3", "dev-1");
+        assertEquals(1, cache.size());
+
+        cache.evictIdle();
+        assertEquals(0, cache.size());
+    }
+}
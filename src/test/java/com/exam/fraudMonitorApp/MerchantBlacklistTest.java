@@ -0,0 +1,88 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.service.blacklist.MerchantBlacklist;
+import com.exam.fraudmonitorapp.service.blacklist.MerchantMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MerchantBlacklistTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void exactNamesMatchRegardlessOfCaseAndPunctuation() {
+        MerchantMatcher matcher = MerchantMatcher.of(List.of("Scam Mart", "A&B Traders"), List.of());
+
+        assertTrue(matcher.matches("SCAM MART"));
+        assertTrue(matcher.matches("  scam-mart. "));
+        assertTrue(matcher.matches("a & b traders"));
+        assertFalse(matcher.matches("SCAM MARTS"));
+        assertFalse(matcher.matches("SCAMMART"));
+        assertFalse(matcher.matches("OK MART"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void substringPatternsMatchAnywhereIncludingOverlaps() {
+        MerchantMatcher matcher = MerchantMatcher.of(List.of(), List.of("phish", "she", "his", "pay pal"));
+
+        assertTrue(matcher.matches("Totally Legit PHISHING Co"));
+        assertTrue(matcher.matches("ushers"));      // "she" found through a failure link from "hi"/"sh"
+        assertTrue(matcher.matches("this shop"));   // "his"
+        assertTrue(matcher.matches("PAY-PAL refunds"));
+        assertFalse(matcher.matches("PAYPAL"));     // space is part of the pattern
+        assertFalse(matcher.matches("OK MART"));
+    }
+
+    @Test
+    void fileChangesAreReloadedAndBrokenFilesKeepTheCurrentList() throws Exception {
+        Path file = dir.resolve("blacklist.txt");
+        Files.writeString(file, "# test list\nSCAM MART\n*phish*\n");
+
+        MerchantBlacklist blacklist = new MerchantBlacklist(file.toString());
+        assertTrue(blacklist.matches("Scam Mart"));
+        assertTrue(blacklist.matches("Phishing Ltd"));
+        assertFalse(blacklist.reloadIfChanged());
+
+        Files.writeString(file, "DODGY DEALS\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        assertTrue(blacklist.reloadIfChanged());
+        assertTrue(blacklist.matches("dodgy deals"));
+        assertFalse(blacklist.matches("Scam Mart"));
+
+        Files.delete(file);
+        assertFalse(blacklist.reloadIfChanged());
+        assertTrue(blacklist.matches("dodgy deals"));
+        assertEquals(1, blacklist.current().exactCount());
+    }
+
+    @Test
+    void onlyTheStarsAroundAPatternAreStripped() throws Exception {
+        Path file = dir.resolve("blacklist.txt");
+        Files.writeString(file, "*pay*pal*\n*phish\n");
+
+        MerchantBlacklist blacklist = new MerchantBlacklist(file.toString());
+
+        assertTrue(blacklist.matches("Pay-Pal refunds"));
+        assertFalse(blacklist.matches("PAYPAL"));    // the inner star separates words, it is not removed
+        assertTrue(blacklist.matches("Phishing Ltd"));
+    }
+
+    @Test
+    void defaultListIsUsedWithoutAFile() {
+        MerchantBlacklist blacklist = new MerchantBlacklist("");
+        assertTrue(blacklist.matches("Phish Pay"));
+        assertFalse(blacklist.reloadIfChanged());
+    }
+}
@@ -0,0 +1,208 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.NotificationOutboxEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.repo.NotificationOutboxRepo;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.NotificationServiceImpl;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.outbox.NotificationOutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationOutboxRelayTest {
+
+    @Mock
+    private NotificationOutboxRepo outboxRepo;
+    @Mock
+    private TransactionRepo transactionRepo;
+    @Mock
+    private NotificationServiceImpl notificationService;
+
+    private NotificationOutboxRelay relay;
+    private TransactionEventEntity tx;
+
+    @BeforeEach
+    void setUp() {
+        relay = new NotificationOutboxRelay(outboxRepo, transactionRepo, notificationService,
+                new FraudMetrics(new SimpleMeterRegistry()),
+                10, 3, Duration.ofSeconds(5), Duration.ofMinutes(10), Duration.ofMinutes(2),
+                Duration.ofSeconds(10), 1, Duration.ofHours(1));
+        tx = new TransactionEventEntity();
+        tx.setId(5L);
+        tx.setAccountId("ACC-1");
+    }
+
+    @Test
+    void deliveredEntryIsMarkedSent() {
+        NotificationOutboxEntity entry = pending(1L, 0);
+        dueAndClaimable(entry);
+
+        relay.relayBatch();
+
+        verify(notificationService).deliverFraud(tx);
+        NotificationOutboxEntity saved = savedEntry();
+        assertThat(saved.getStatus()).isEqualTo("SENT");
+        assertThat(saved.getAttempts()).isEqualTo(1);
+        assertThat(saved.getSentAt()).isNotNull();
+    }
+
+    @Test
+    void failedEntryIsRescheduledWithBackoff() {
+        NotificationOutboxEntity entry = pending(2L, 0);
+        dueAndClaimable(entry);
+        doThrow(new MailSendException("SMTP down")).when(notificationService).deliverFraud(tx);
+
+        LocalDateTime before = LocalDateTime.now();
+        relay.relayBatch();
+
+        NotificationOutboxEntity saved = savedEntry();
+        assertThat(saved.getStatus()).isEqualTo("PENDING");
+        assertThat(saved.getAttempts()).isEqualTo(1);
+        assertThat(saved.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(5));
+        assertThat(saved.getLastError()).contains("SMTP down");
+    }
+
+    @Test
+    void entryIsDeadLetteredAfterMaxAttempts() {
+        NotificationOutboxEntity entry = pending(3L, 2);
+        dueAndClaimable(entry);
+        doThrow(new MailSendException("SMTP down")).when(notificationService).deliverFraud(tx);
+
+        relay.relayBatch();
+
+        assertThat(savedEntry().getStatus()).isEqualTo("DEAD");
+    }
+
+    @Test
+    void entryClaimedByAnotherRelayIsSkipped() {
+        NotificationOutboxEntity entry = pending(4L, 0);
+        when(outboxRepo.findDue(any(), any(), any()))
+                .thenReturn(List.of(entry));
+        when(outboxRepo.claim(eq(4L), any(), any())).thenReturn(0);
+
+        relay.relayBatch();
+
+        verify(notificationService, never()).deliverFraud(any());
+        verify(outboxRepo, never()).save(any());
+    }
+
+    @Test
+    void burstOfOneAccountIsSentAsOneDigest() {
+        NotificationOutboxEntity first = pending(10L, 0);
+        NotificationOutboxEntity second = pending(11L, 0);
+        NotificationOutboxEntity third = pending(12L, 0);
+        TransactionEventEntity secondTx = fraudTx(6L);
+        TransactionEventEntity thirdTx = fraudTx(7L);
+        second.setTransactionId(6L);
+        third.setTransactionId(7L);
+        tx.setUserEmail("user@example.com");
+        when(outboxRepo.findDue(any(), any(), any())).thenReturn(List.of(first));
+        when(outboxRepo.findByStatusAndAttemptsAndAccountIdInAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                eq("PENDING"), eq(0), eq(Set.of("ACC-1")), any(), any())).thenReturn(List.of(first, second, third));
+        when(outboxRepo.claim(anyLong(), any(), any())).thenReturn(1);
+        when(transactionRepo.findById(5L)).thenReturn(Optional.of(tx));
+        when(transactionRepo.findById(6L)).thenReturn(Optional.of(secondTx));
+        when(transactionRepo.findById(7L)).thenReturn(Optional.of(thirdTx));
+
+        relay.relayBatch();
+
+        verify(notificationService).deliverFraudDigest(List.of(tx, secondTx, thirdTx));
+        verify(notificationService, never()).deliverFraud(any());
+        verify(outboxRepo, times(3)).claim(anyLong(), any(), any()); // the due entry is not claimed twice
+        assertThat(first.getStatus()).isEqualTo("SENT");
+        assertThat(second.getStatus()).isEqualTo("SENT");
+        assertThat(third.getStatus()).isEqualTo("SENT");
+    }
+
+    @Test
+    void recipientOutOfTokensIsDeferredWithoutCountingAnAttempt() {
+        tx.setUserEmail("user@example.com");
+        NotificationOutboxEntity entry = pending(20L, 0);
+        dueAndClaimable(entry);
+        relay.relayBatch(); // takes the only token
+
+        NotificationOutboxEntity next = pending(21L, 0);
+        dueAndClaimable(next);
+        LocalDateTime before = LocalDateTime.now();
+        relay.relayBatch();
+
+        verify(notificationService, times(1)).deliverFraud(tx);
+        assertThat(next.getStatus()).isEqualTo("PENDING");
+        assertThat(next.getAttempts()).isZero();
+        assertThat(next.getNextAttemptAt()).isAfter(before.plusMinutes(59));
+    }
+
+    @Test
+    void interruptedDrainStopsAfterTheCurrentBatch() {
+        List<NotificationOutboxEntity> fullBatch = LongStream.rangeClosed(30, 39).mapToObj(id -> pending(id, 0)).toList();
+        when(outboxRepo.findDue(any(), any(), any())).thenReturn(fullBatch);
+        when(outboxRepo.claim(anyLong(), any(), any())).thenReturn(0); // all claimed elsewhere: a full batch per call
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Thread.currentThread().interrupt();
+            relay.drain();
+        });
+
+        verify(outboxRepo, times(1)).findDue(any(), any(), any());
+    }
+
+    private TransactionEventEntity fraudTx(Long id) {
+        TransactionEventEntity other = new TransactionEventEntity();
+        other.setId(id);
+        other.setAccountId("ACC-1");
+        other.setUserEmail("User@Example.com "); // same recipient as tx
+        return other;
+    }
+
+    private NotificationOutboxEntity pending(Long id, int attempts) {
+        NotificationOutboxEntity entry = new NotificationOutboxEntity();
+        entry.setId(id);
+        entry.setTransactionId(5L);
+        entry.setAlertId(9L);
+        entry.setAccountId("ACC-1");
+        entry.setStatus("PENDING");
+        entry.setAttempts(attempts);
+        entry.setCreatedAt(LocalDateTime.now());
+        entry.setNextAttemptAt(LocalDateTime.now());
+        return entry;
+    }
+
+    private void dueAndClaimable(NotificationOutboxEntity entry) {
+        when(outboxRepo.findDue(any(), any(), any()))
+                .thenReturn(List.of(entry));
+        when(outboxRepo.claim(eq(entry.getId()), any(), any())).thenReturn(1);
+        when(transactionRepo.findById(anyLong())).thenReturn(Optional.of(tx));
+    }
+
+    private NotificationOutboxEntity savedEntry() {
+        ArgumentCaptor<NotificationOutboxEntity> captor = ArgumentCaptor.forClass(NotificationOutboxEntity.class);
+        verify(outboxRepo).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -99,6 +100,21 @@ public class NotificationServiceTest {
         verify(mailSender, never()).send(any(SimpleMailMessage.class));
     }
 
+    @Test
+    void digestSendsOneEmailListingEveryTransaction() {
+        // Act
+        service.deliverFraudDigest(List.of(tx, tx, tx));
+
+        // Assert: a single message for the whole burst
+        verify(mailSender, times(1)).send(mailCaptor.capture());
+        SimpleMailMessage msg = mailCaptor.getValue();
+
+        assertThat(msg.getTo()).containsExactly("user@example.com");
+        assertThat(msg.getSubject()).isEqualTo("Fraudulent activity detected (3 transactions)");
+        assertThat(msg.getText()).contains("ACC-123", "3 transactions were flagged");
+        assertThat(msg.getText().lines().filter(l -> l.contains("123.45 ZAR | TRANSFER | Shoprite"))).hasSize(3);
+    }
+
     @Test
     void initTwilioSetsInitializedTrueWhenCredsProvided() {
         // Arrange: set Twilio creds and from-number, then call lifecycle init
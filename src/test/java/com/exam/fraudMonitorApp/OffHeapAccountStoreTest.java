@@ -0,0 +1,106 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.service.state.OffHeapAccountStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapAccountStoreTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void matchesAHashMapUnderRandomUpdatesAndRemoves() {
+        // One small stripe: long probe runs, so removes exercise the backward shift
+        OffHeapAccountStore store = new OffHeapAccountStore("test", 16, 64, 1, clock::get);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            String account = "ACC-" + random.nextInt(60);
+            if (random.nextInt(3) == 0) {
+                assertThat(store.remove(account)).isEqualTo(expected.remove(account) != null);
+            } else {
+                long value = random.nextLong();
+                store.update(account, r -> {
+                    r.putLong(0, r.getLong(0) + 1);
+                    r.putLong(8, value);
+                });
+                expected.merge(account, 1L, Long::sum);
+                assertThat(longAt(store, account, 8)).isEqualTo(value);
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(expected.size());
+        for (int a = 0; a < 60; a++) {
+            String account = "ACC-" + a;
+            assertThat(longAt(store, account, 0)).isEqualTo(expected.get(account));
+        }
+        assertThat(store.evictions()).isZero();
+    }
+
+    @Test
+    void fullStoreEvictsTheLeastRecentlyUsedAccount() {
+        OffHeapAccountStore store = new OffHeapAccountStore("test", 8, 4, 1, clock::get);
+        for (String account : new String[]{"A", "B", "C", "D"}) {
+            clock.incrementAndGet();
+            store.update(account, r -> r.putInt(0, 1));
+        }
+        clock.incrementAndGet();
+        intAt(store, "A", 0);
+
+        clock.incrementAndGet();
+        store.update("E", r -> r.putInt(0, 1));
+
+        assertThat(store.size()).isEqualTo(4);
+        assertThat(store.evictions()).isEqualTo(1);
+        assertThat(intAt(store, "B", 0)).isNull();
+        assertThat(intAt(store, "A", 0)).isEqualTo(1);
+        assertThat(intAt(store, "E", 4)).isZero(); // new records start zeroed
+    }
+
+    @Test
+    void evictIdleDropsOnlyAccountsNotAccessedSinceTheCutoff() {
+        OffHeapAccountStore store = new OffHeapAccountStore("test", 8, 1000, 4, clock::get);
+        for (int i = 0; i < 500; i++) {
+            store.update("ACC-" + i, r -> r.putInt(0, 1));
+        }
+        clock.set(5_000);
+        for (int i = 0; i < 500; i += 2) {
+            intAt(store, "ACC-" + i, 0);
+        }
+
+        assertThat(store.evictIdle(4_999)).isEqualTo(250);
+        assertThat(store.size()).isEqualTo(250);
+        assertThat(intAt(store, "ACC-2", 0)).isEqualTo(1);
+        assertThat(intAt(store, "ACC-3", 0)).isNull();
+    }
+
+    @Test
+    void footprintIsFixedAndRecordsAreBoundsChecked() {
+        OffHeapAccountStore store = new OffHeapAccountStore("test", 20, 1000, 4);
+        long reserved = store.offHeapBytes();
+
+        store.update("ACC-1", r -> r.putInt(16, 42));
+
+        assertThat(store.capacity()).isEqualTo(1000);
+        assertThat(reserved).isGreaterThanOrEqualTo(1000L * (16 + 20));
+        assertThat(store.offHeapBytes()).isEqualTo(reserved);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.update("ACC-1", r -> r.putInt(18, 1)));
+        assertThat(intAt(store, "ACC-1", 16)).isEqualTo(42);
+    }
+
+    private static Long longAt(OffHeapAccountStore store, String account, int offset) {
+        return store.read(account, r -> r.getLong(offset));
+    }
+
+    private static Integer intAt(OffHeapAccountStore store, String account, int offset) {
+        return store.read(account, r -> r.getInt(offset));
+    }
+}
@@ -0,0 +1,178 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.service.mail.PooledMailSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PooledMailSenderTest {
+
+    private FakeSmtpServer server;
+    private PooledMailSender sender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeSmtpServer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (sender != null) sender.close();
+        server.close();
+    }
+
+    @Test
+    void messagesShareConnectionsUpToThePerConnectionLimit() {
+        sender = sender(2);
+
+        for (int i = 0; i < 5; i++) {
+            sender.send(message("user" + i + "@example.com"));
+        }
+
+        assertThat(server.messages.get()).isEqualTo(5);
+        assertThat(server.connections.get()).isEqualTo(3); // 2 + 2 + 1
+    }
+
+    @Test
+    void rejectedRecipientFailsOnlyItsOwnMessage() {
+        sender = sender(100);
+
+        MailSendException failure = assertThrows(MailSendException.class,
+                () -> sender.send(message("ok@example.com"), message("reject@example.com"), message("ok2@example.com")));
+
+        assertThat(failure.getFailedMessages()).hasSize(1);
+        assertThat(server.messages.get()).isEqualTo(2);
+        assertThat(server.connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void messageAlreadyBeingSentAtTheTimeoutIsWaitedForInsteadOfReportedFailed() {
+        sender = sender(100, Duration.ofMillis(200));
+
+        sender.send(message("slow@example.com")); // the server takes 500 ms to accept it
+
+        assertThat(server.messages.get()).isEqualTo(1);
+    }
+
+    @Test
+    void sendAfterCloseFails() throws InterruptedException {
+        sender = sender(100);
+        sender.close();
+
+        assertThrows(MailSendException.class, () -> sender.send(message("ok@example.com")));
+        assertThat(server.messages.get()).isZero();
+    }
+
+    private PooledMailSender sender(int maxMessagesPerConnection) {
+        return sender(maxMessagesPerConnection, Duration.ofSeconds(10));
+    }
+
+    private PooledMailSender sender(int maxMessagesPerConnection, Duration sendTimeout) {
+        MailProperties mail = new MailProperties();
+        mail.setHost("127.0.0.1");
+        mail.setPort(server.port());
+        return new PooledMailSender(mail, true, 1, 50, maxMessagesPerConnection, Duration.ofSeconds(30),
+                Duration.ofSeconds(5), sendTimeout);
+    }
+
+    private static SimpleMailMessage message(String to) {
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setFrom("no-reply@fraud.local");
+        msg.setTo(to);
+        msg.setSubject("Fraudulent activity detected");
+        msg.setText("body");
+        return msg;
+    }
+
+    /** Just enough SMTP for JavaMail; recipients containing "reject" are refused, "slow" ones take 500 ms. */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger messages = new AtomicInteger();
+        private final ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        FakeSmtpServer() throws IOException {
+            Thread.ofVirtual().start(() -> {
+                while (!socket.isClosed()) {
+                    try {
+                        Socket client = socket.accept();
+                        Thread.ofVirtual().start(() -> serve(client));
+                    } catch (IOException ex) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        int port() {
+            return socket.getLocalPort();
+        }
+
+        private void serve(Socket client) {
+            connections.incrementAndGet();
+            try (client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 fake");
+                String line;
+                boolean slow = false;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO")) {
+                        reply(out, "250 fake");
+                    } else if (command.startsWith("RCPT") && command.contains("REJECT")) {
+                        reply(out, "550 no such user");
+                    } else if (command.startsWith("RCPT") && command.contains("SLOW")) {
+                        slow = true;
+                        reply(out, "250 ok");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 go ahead");
+                        while (!".".equals(in.readLine())) {
+                            // message content
+                        }
+                        if (slow) {
+                            Thread.sleep(500);
+                            slow = false;
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 queued");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 bye");
+                        return;
+                    } else {
+                        reply(out, "250 ok");
+                    }
+                }
+            } catch (IOException | InterruptedException ignored) {
+                // client went away
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
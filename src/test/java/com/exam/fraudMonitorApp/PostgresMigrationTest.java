@@ -0,0 +1,92 @@
+package com.exam.fraudmonitorapp;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the Flyway migrations, including the PostgreSQL-only V3 that partitions transactions by month, against a
+ * real server.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class PostgresMigrationTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2025, 1, 9, 12, 30);
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:17-alpine");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        flyway("latest").clean();
+    }
+
+    @Test
+    void existingRowsMoveIntoThePartitionedTableWithTheirKeys() {
+        flyway("2").migrate();
+        insert(1L, "ACC-1", 100L, JAN);
+
+        flyway("latest").migrate();
+
+        assertThat(jdbc.queryForObject("select count(*) from transactions_p2025_01", Long.class)).isEqualTo(1);
+        assertThrows(DuplicateKeyException.class, () -> insert(2L, "ACC-1", 100L, JAN.plusMonths(1)));
+    }
+
+    @Test
+    void accountAndTransactionIdStayUniqueWhateverTheEventTime() {
+        flyway("latest").migrate();
+        insert(1L, "ACC-1", 100L, JAN);
+
+        // A retry with another event time lands in another partition, and is still rejected
+        DuplicateKeyException retry = assertThrows(DuplicateKeyException.class,
+                () -> insert(2L, "ACC-1", 100L, JAN.plusMonths(1)));
+        assertThat(retry.getMessage()).contains("uk_transactions_account_transaction");
+
+        insert(3L, "ACC-2", 100L, JAN);   // same upstream id on another account
+        insert(4L, "ACC-1", null, JAN);   // null ids are not deduplicated
+        insert(5L, "ACC-1", null, JAN);
+        assertThat(jdbc.queryForObject("select count(*) from transactions", Long.class)).isEqualTo(4);
+    }
+
+    @Test
+    void deletingARowFreesItsKey() {
+        flyway("latest").migrate();
+        insert(1L, "ACC-1", 100L, JAN);
+
+        jdbc.update("delete from transactions where id = 1");
+        insert(2L, "ACC-1", 100L, JAN.plusMonths(1));
+
+        assertThat(jdbc.queryForObject("select count(*) from transaction_keys", Long.class)).isEqualTo(1);
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/vendor/postgresql")
+                .cleanDisabled(false)
+                .target(target)
+                .load();
+    }
+
+    private void insert(Long id, String accountId, Long transactionId, LocalDateTime eventTime) {
+        jdbc.update("insert into transactions (id, transaction_id, fraudulent, account_id, amount, currency, category, " +
+                        "channel, merchant, event_time) values (?, ?, false, ?, 10.00, 'ZAR', 'PURCHASE', 'WEB', 'OK MART', ?)",
+                id, transactionId, accountId, eventTime);
+    }
+}
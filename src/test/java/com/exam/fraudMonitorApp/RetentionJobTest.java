@@ -0,0 +1,128 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.model.FraudAlertEntity;
+import com.exam.fraudmonitorapp.model.TransactionEventEntity;
+import com.exam.fraudmonitorapp.repo.FraudAlertRepo;
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.metrics.FraudMetrics;
+import com.exam.fraudmonitorapp.service.retention.RetentionJob;
+import com.exam.fraudmonitorapp.service.retention.TransactionPartitions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RetentionJobTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime FEB = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+    private final TransactionRepo transactionRepo = mock(TransactionRepo.class);
+    private final FraudAlertRepo alertRepo = mock(FraudAlertRepo.class);
+    private final TransactionPartitions partitions = mock(TransactionPartitions.class);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void oldMonthsAreArchivedInChunksThenDeletedAndTheirPartitionsDropped() throws IOException {
+        when(transactionRepo.findOldestEventTime()).thenReturn(JAN.plusDays(14));
+        when(transactionRepo.findOldestInRange(eq(JAN), eq(FEB), any(Limit.class)))
+                .thenReturn(List.of(tx(1L), tx(2L)), List.of(tx(3L)));
+
+        long archived = job(archiveDir).archiveTransactions(YearMonth.of(2025, 3));
+
+        assertThat(archived).isEqualTo(3);
+        verify(transactionRepo).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(transactionRepo).deleteAllByIdInBatch(List.of(3L));
+        verify(partitions).dropIfEmpty(YearMonth.of(2025, 1));
+        verify(partitions).dropIfEmpty(YearMonth.of(2025, 2));
+        verify(partitions, never()).dropIfEmpty(YearMonth.of(2025, 3));
+
+        List<Path> files = archives("transactions-2025-01-");
+        assertThat(files).hasSize(2);
+        assertThat(lines(files.get(0))).extracting(n -> n.get("id").asLong()).containsExactly(1L, 2L);
+        assertThat(lines(files.get(1))).extracting(n -> n.get("accountId").asString()).containsExactly("ACC-3");
+    }
+
+    @Test
+    void closedAlertsBeforeTheCutoffAreArchived() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 6, 1, 0, 0);
+        FraudAlertEntity alert = new FraudAlertEntity(7L, 70L, "ACC-7", "High amount", "CLOSED", cutoff.minusDays(1));
+        when(alertRepo.findByStatusAndCreatedAtBeforeOrderByCreatedAtAscIdAsc(eq("CLOSED"), eq(cutoff), any(Limit.class)))
+                .thenReturn(List.of(alert));
+
+        assertThat(job(archiveDir).archiveClosedAlerts(cutoff)).isEqualTo(1);
+
+        verify(alertRepo).deleteAllByIdInBatch(List.of(7L));
+        List<Path> files = archives("fraud_alerts-closed-");
+        assertThat(files).hasSize(1);
+        assertThat(lines(files.get(0))).extracting(n -> n.get("status").asString()).containsExactly("CLOSED");
+    }
+
+    @Test
+    void rowsAreNotDeletedWhenTheArchiveCannotBeWritten() throws IOException {
+        Path notADirectory = Files.createFile(archiveDir.resolve("file"));
+        when(transactionRepo.findOldestEventTime()).thenReturn(JAN);
+        when(transactionRepo.findOldestInRange(eq(JAN), eq(FEB), any(Limit.class))).thenReturn(List.of(tx(1L)));
+
+        assertThrows(UncheckedIOException.class, () -> job(notADirectory).archiveTransactions(YearMonth.of(2025, 2)));
+
+        verify(transactionRepo, never()).deleteAllByIdInBatch(anyList());
+        verify(partitions, never()).dropIfEmpty(any());
+    }
+
+    private RetentionJob job(Path dir) {
+        return new RetentionJob(transactionRepo, alertRepo, partitions, TransactionOperations.withoutTransaction(),
+                new FraudMetrics(new SimpleMeterRegistry()), jsonMapper, true, 12, Duration.ofDays(90), dir, 2);
+    }
+
+    private List<Path> archives(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private List<JsonNode> lines(Path file) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return in.lines().map(jsonMapper::readTree).toList();
+        }
+    }
+
+    private static TransactionEventEntity tx(long id) {
+        TransactionEventEntity e = new TransactionEventEntity();
+        e.setId(id);
+        e.setAccountId("ACC-" + id);
+        e.setEventTime(JAN.plusDays(id));
+        return e;
+    }
+}
@@ -0,0 +1,38 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.controller.TransactionMonitorController;
+import com.exam.fraudmonitorapp.model.dto.TransactionEventDto;
+import com.exam.fraudmonitorapp.service.FraudBatchService;
+import com.exam.fraudmonitorapp.service.FraudDetectionService;
+import com.exam.fraudmonitorapp.service.FraudQueryService;
+import com.exam.fraudmonitorapp.service.FraudStreamService;
+import com.exam.fraudmonitorapp.service.admission.AdmissionControl;
+import com.exam.fraudmonitorapp.service.lanes.AccountLanes;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class TransactionMonitorControllerTest {
+
+    private final FraudBatchService batchService = mock(FraudBatchService.class);
+    private final AccountLanes lanes = mock(AccountLanes.class);
+    private final AdmissionControl admission = mock(AdmissionControl.class);
+
+    private final TransactionMonitorController controller = new TransactionMonitorController(
+            mock(FraudDetectionService.class), batchService, mock(FraudStreamService.class),
+            mock(FraudQueryService.class), lanes, admission);
+
+    @Test
+    void batchesBypassLanesAndAdmissionControl() {
+        List<TransactionEventDto> batch = List.of(new TransactionEventDto(), new TransactionEventDto());
+
+        controller.consumeBatch(batch);
+
+        verify(batchService).processBatch(batch);
+        verifyNoInteractions(lanes, admission);
+    }
+}
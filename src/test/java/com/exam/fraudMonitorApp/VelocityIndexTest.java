@@ -0,0 +1,110 @@
+package com.exam.fraudmonitorapp;
+
+import com.exam.fraudmonitorapp.repo.TransactionRepo;
+import com.exam.fraudmonitorapp.service.cache.VelocityIndex;
+import com.exam.fraudmonitorapp.service.writebehind.UnflushedTransactions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class VelocityIndexTest {
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 9, 12, 30, 0);
+
+    @Test
+    void loadsOnceOnMissThenServesRecordedEventsFromMemory() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        when(repo.findEventTimesByAccountIdSince(Mockito.eq("ACC-1"), Mockito.any()))
+                .thenReturn(List.of(now.minusSeconds(30), now.minusMinutes(10)));
+
+        VelocityIndex index = new VelocityIndex(repo, new UnflushedTransactions(), List.of(HOUR), Duration.ofMinutes(30));
+
+        assertEquals(1, index.count("ACC-1", MINUTE, now));
+        assertEquals(2, index.count("ACC-1", HOUR, now));
+
+        index.record("ACC-1", now);
+        index.record("ACC-1", now.plusSeconds(5));
+
+        assertEquals(3, index.count("ACC-1", MINUTE, now.plusSeconds(10)));
+        assertEquals(4, index.count("ACC-1", HOUR, now.plusSeconds(10)));
+        verify(repo, times(1)).findEventTimesByAccountIdSince(Mockito.eq("ACC-1"), Mockito.any());
+    }
+
+    @Test
+    void eventsRecordedBeforeOrDuringTheLoadAreMergedOnce() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        VelocityIndex index = new VelocityIndex(repo, new UnflushedTransactions(), List.of(HOUR), Duration.ofMinutes(30));
+
+        // ACC-5: queued by write-behind before the account was ever loaded, so the query cannot see it
+        index.record("ACC-5", now.minusSeconds(5));
+        // ACC-6: one event commits while the query runs (unseen), one committed before it and is recorded late (seen)
+        when(repo.findEventTimesByAccountIdSince(Mockito.eq("ACC-6"), Mockito.any())).thenAnswer(inv -> {
+            index.record("ACC-6", now.minusSeconds(1));
+            index.record("ACC-6", now.minusSeconds(2));
+            return List.of(now.minusSeconds(30), now.minusSeconds(2));
+        });
+        when(repo.findEventTimesByAccountIdSince(Mockito.eq("ACC-5"), Mockito.any()))
+                .thenReturn(List.of(now.minusSeconds(40)));
+
+        assertEquals(2, index.count("ACC-5", MINUTE, now));
+        assertEquals(3, index.count("ACC-6", MINUTE, now));
+
+        index.record("ACC-6", now);
+        assertEquals(4, index.count("ACC-6", MINUTE, now));
+        verify(repo, times(1)).findEventTimesByAccountIdSince(Mockito.eq("ACC-6"), Mockito.any());
+    }
+
+    @Test
+    void eventsExpireAsTheWindowSlides() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        when(repo.findEventTimesByAccountIdSince(Mockito.eq("ACC-2"), Mockito.any()))
+                .thenReturn(List.of(now.minusSeconds(10), now.minusSeconds(20)));
+
+        VelocityIndex index = new VelocityIndex(repo, new UnflushedTransactions(), List.of(HOUR), Duration.ofMinutes(30));
+
+        assertEquals(2, index.count("ACC-2", MINUTE, now));
+        assertEquals(0, index.count("ACC-2", MINUTE, now.plusMinutes(2)));
+        assertEquals(2, index.count("ACC-2", HOUR, now.plusMinutes(2)));
+    }
+
+    @Test
+    void outOfOrderInstantFallsBackToRepositoryCount() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        when(repo.findEventTimesByAccountIdSince(Mockito.eq("ACC-3"), Mockito.any()))
+                .thenReturn(List.of(now));
+        when(repo.countByAccountIdAndEventTimeBetween(Mockito.eq("ACC-3"), Mockito.any(), Mockito.any()))
+                .thenReturn(7L);
+
+        VelocityIndex index = new VelocityIndex(repo, new UnflushedTransactions(), List.of(HOUR), Duration.ofMinutes(30));
+        index.count("ACC-3", MINUTE, now);
+
+        assertEquals(7, index.count("ACC-3", MINUTE, now.minusMinutes(5)));
+    }
+
+    @Test
+    void idleAccountsAreEvicted() {
+        TransactionRepo repo = Mockito.mock(TransactionRepo.class);
+        when(repo.findEventTimesByAccountIdSince(Mockito.anyString(), Mockito.any())).thenReturn(List.of());
+
+        VelocityIndex index = new VelocityIndex(repo, new UnflushedTransactions(), List.of(), Duration.ZERO);
+        index.count("ACC-4", MINUTE, now);
+        assertEquals(1, index.size());
+
+        index.evictIdle();
+        assertEquals(0, index.size());
+    }
+}